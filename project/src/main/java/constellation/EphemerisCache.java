@@ -0,0 +1,256 @@
+package constellation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+import utils.Parameters;
+
+/**
+ * Sampled ephemeris of a satellite over [start, end] : the position and the
+ * velocity are propagated once on a regular time grid, in GCRF and in the Earth
+ * frame (Parameters.earthFrame), and stored in arrays of doubles. The states at
+ * the other dates are given by a cubic Hermite interpolation between the two
+ * surrounding samples, which uses both the positions and the velocities : the
+ * error grows as the fourth power of the step, a few centimeters in low Earth
+ * orbit with a step of 30 s.
+ *
+ * The samples are stored by blocks of BLOCK_SIZE intervals. If the whole
+ * horizon fits in the maximum number of blocks, all the blocks are computed in
+ * the constructor and then only read. Otherwise the blocks are computed when
+ * they are first read and the least recently used ones are evicted, so that the
+ * memory stays bounded for long horizons.
+ *
+ * The samples are computed with a propagator owned by the cache, so that the
+ * detectors added to the propagator of the satellite are not triggered.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate the cache with the satellite and the horizon, and attach it to
+ * the satellite (see Satellite.setEphemerisCache) so that getPosition,
+ * getVelocity and getGeodeticPoint use it.
+ *
+ * - Or call directly the method getPVCoordinates with an array allocated once.
+ *
+ * Thread safety : the class is thread safe. The cache can be shared by several
+ * threads, the blocks being only read once computed.
+ *
+ */
+public class EphemerisCache {
+
+	/** Number of intervals of a block of samples */
+	public static final int BLOCK_SIZE = 256;
+
+	/** Number of doubles per sample : the PV in GCRF then in the Earth frame */
+	private static final int SAMPLE_LENGTH = 12;
+
+	/** Offset of the PV in the Earth frame in a sample */
+	private static final int EARTH_OFFSET = 6;
+
+	/** Beginning of the horizon */
+	private final AbsoluteDate start;
+
+	/** Duration of the horizon (s) */
+	private final double duration;
+
+	/** Time between two samples (s) */
+	private final double step;
+
+	private final int nbIntervals;
+
+	/** Maximum number of blocks in memory */
+	private final int maxBlocks;
+
+	/** Propagator used to compute the samples */
+	private final KeplerianPropagator propagator;
+
+	/** All the blocks if the horizon fits in maxBlocks, null otherwise */
+	private final double[][] allBlocks;
+
+	/** Blocks in memory from the least to the most recently used, if not allBlocks */
+	private final LinkedHashMap<Integer, double[]> recentBlocks;
+
+	/**
+	 * Constructor of the cache, with the step Parameters.ephemerisStep and at most
+	 * Parameters.ephemerisCacheBlocks blocks in memory.
+	 *
+	 * @param sat   : the satellite
+	 * @param start : beginning of the horizon
+	 * @param end   : end of the horizon
+	 */
+	public EphemerisCache(Satellite sat, AbsoluteDate start, AbsoluteDate end) {
+		this(sat, start, end, Parameters.ephemerisStep, Parameters.ephemerisCacheBlocks);
+	}
+
+	/**
+	 * Constructor of the cache.
+	 *
+	 * @param sat       : the satellite
+	 * @param start     : beginning of the horizon
+	 * @param end       : end of the horizon
+	 * @param maxStep   : maximum time between two samples (s), the step is
+	 *                  reduced so that the last sample is at the end
+	 * @param maxBlocks : maximum number of blocks of BLOCK_SIZE intervals in memory
+	 */
+	public EphemerisCache(Satellite sat, AbsoluteDate start, AbsoluteDate end, double maxStep, int maxBlocks) {
+		this.start = start;
+		this.duration = Math.max(0, end.durationFrom(start));
+		this.nbIntervals = Math.max(1, (int) Math.ceil(duration / maxStep));
+		this.step = duration / nbIntervals;
+		this.maxBlocks = Math.max(1, maxBlocks);
+		this.propagator = new KeplerianPropagator(sat.getInitialOrbit());
+
+		int nbBlocks = (nbIntervals + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		if (nbBlocks <= this.maxBlocks) {
+			this.allBlocks = new double[nbBlocks][];
+			for (int block = 0; block < nbBlocks; block++) {
+				allBlocks[block] = computeBlock(block);
+			}
+			this.recentBlocks = null;
+		} else {
+			this.allBlocks = null;
+			this.recentBlocks = new LinkedHashMap<Integer, double[]>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+					return size() > EphemerisCache.this.maxBlocks;
+				}
+			};
+		}
+	}
+
+	/**
+	 * @return true if the cache can give the state at the date in the frame
+	 */
+	public boolean covers(AbsoluteDate date, Frame frame) {
+		if (frame != Parameters.earthFrame && frame != FramesFactory.getGCRF())
+			return false;
+		double time = date.durationFrom(start);
+		return time >= 0 && time <= duration;
+	}
+
+	/**
+	 * Get the interpolated position and velocity of the satellite.
+	 *
+	 * @param date  : the date, within the horizon (see covers)
+	 * @param frame : GCRF or Parameters.earthFrame
+	 * @return the position and the velocity
+	 */
+	public PVCoordinates getPVCoordinates(AbsoluteDate date, Frame frame) {
+		double[] pv = new double[6];
+		getPVCoordinates(date.durationFrom(start), frame == Parameters.earthFrame, pv);
+		return new PVCoordinates(new Vector3D(pv[0], pv[1], pv[2]), new Vector3D(pv[3], pv[4], pv[5]));
+	}
+
+	/**
+	 * Get the interpolated position and velocity of the satellite without
+	 * allocation. The time is clipped to the horizon.
+	 *
+	 * @param time       : the date (s since the beginning of the horizon)
+	 * @param earthFrame : true for Parameters.earthFrame, false for GCRF
+	 * @param pv         : array in which the position (m) and the velocity (m/s)
+	 *                   are written
+	 */
+	public void getPVCoordinates(double time, boolean earthFrame, double[] pv) {
+		time = Math.max(0, Math.min(duration, time));
+		int interval = step > 0 ? Math.min(nbIntervals - 1, (int) (time / step)) : 0;
+		double[] samples = getBlock(interval / BLOCK_SIZE);
+		int first = (interval % BLOCK_SIZE) * SAMPLE_LENGTH + (earthFrame ? EARTH_OFFSET : 0);
+		int second = first + SAMPLE_LENGTH;
+
+		// cubic Hermite basis on [0, 1] and its derivatives
+		double s = step > 0 ? (time - interval * step) / step : 0;
+		double s2 = s * s;
+		double s3 = s2 * s;
+		double h00 = 2 * s3 - 3 * s2 + 1;
+		double h10 = s3 - 2 * s2 + s;
+		double h01 = -2 * s3 + 3 * s2;
+		double h11 = s3 - s2;
+		double d00 = step > 0 ? (6 * s2 - 6 * s) / step : 0;
+		double d10 = 3 * s2 - 4 * s + 1;
+		double d01 = -d00;
+		double d11 = 3 * s2 - 2 * s;
+
+		for (int axis = 0; axis < 3; axis++) {
+			double p0 = samples[first + axis];
+			double v0 = samples[first + 3 + axis];
+			double p1 = samples[second + axis];
+			double v1 = samples[second + 3 + axis];
+			pv[axis] = h00 * p0 + h10 * step * v0 + h01 * p1 + h11 * step * v1;
+			pv[3 + axis] = d00 * p0 + d10 * v0 + d01 * p1 + d11 * v1;
+		}
+	}
+
+	public AbsoluteDate getStart() {
+		return start;
+	}
+
+	public double getDuration() {
+		return duration;
+	}
+
+	public double getStep() {
+		return step;
+	}
+
+	/**
+	 * @return the number of blocks of samples in memory
+	 */
+	public int getNbBlocksInMemory() {
+		if (allBlocks != null)
+			return allBlocks.length;
+		synchronized (recentBlocks) {
+			return recentBlocks.size();
+		}
+	}
+
+	/**
+	 * @return the samples of a block, computed if they are not in memory
+	 */
+	private double[] getBlock(int block) {
+		if (allBlocks != null)
+			return allBlocks[block];
+		synchronized (recentBlocks) {
+			double[] samples = recentBlocks.get(block);
+			if (samples == null) {
+				samples = computeBlock(block);
+				recentBlocks.put(block, samples);
+			}
+			return samples;
+		}
+	}
+
+	/**
+	 * @return the samples of a block, from the first interval of the block to the
+	 *         end of its last interval
+	 */
+	private double[] computeBlock(int block) {
+		int firstSample = block * BLOCK_SIZE;
+		int nbSamples = Math.min(BLOCK_SIZE, nbIntervals - firstSample) + 1;
+		double[] samples = new double[(BLOCK_SIZE + 1) * SAMPLE_LENGTH];
+		Frame gcrf = FramesFactory.getGCRF();
+		for (int k = 0; k < nbSamples; k++) {
+			AbsoluteDate date = new AbsoluteDate(start, Math.min(duration, (firstSample + k) * step));
+			writeSample(samples, k * SAMPLE_LENGTH, propagator.getPVCoordinates(date, gcrf));
+			writeSample(samples, k * SAMPLE_LENGTH + EARTH_OFFSET,
+					propagator.getPVCoordinates(date, Parameters.earthFrame));
+		}
+		return samples;
+	}
+
+	private static void writeSample(double[] samples, int offset, PVCoordinates pv) {
+		samples[offset] = pv.getPosition().getX();
+		samples[offset + 1] = pv.getPosition().getY();
+		samples[offset + 2] = pv.getPosition().getZ();
+		samples[offset + 3] = pv.getVelocity().getX();
+		samples[offset + 4] = pv.getVelocity().getY();
+		samples[offset + 5] = pv.getVelocity().getZ();
+	}
+}
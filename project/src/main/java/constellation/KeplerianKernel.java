@@ -0,0 +1,226 @@
+package constellation;
+
+import java.util.ArrayList;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+import utils.Parameters;
+
+/**
+ * Closed-form Keplerian propagation of many satellites on primitive arrays, to
+ * generate ephemerides in bulk without the objects allocated by the Orekit
+ * propagator at each query (SpacecraftState, PVCoordinates, Vector3D...). The
+ * orbital elements of the satellites are stored as arrays (one value per
+ * satellite), and the positions are written into arrays given by the caller.
+ *
+ * The Kepler equation is solved by Newton iterations down to the rounding
+ * errors, with the same orbits as the satellites (GCRF, EGM96 mu, mean
+ * anomaly) : the inertial positions agree with KeplerianPropagator within a
+ * millimeter.
+ *
+ * The positions in the Earth frame (Parameters.earthFrame) are obtained with
+ * the transform from GCRF to the Earth frame at the reference date, followed by
+ * the rotation of the Earth around its axis at WGS84_EARTH_ANGULAR_VELOCITY.
+ * The precession, the nutation and the polar motion are thus frozen at the
+ * reference date : compared to the Orekit transform, the positions drift by
+ * about 15 m per day from the reference date for a low Earth orbit.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate the kernel with the satellites and the reference date, from
+ * which the times are counted.
+ *
+ * - Call the methods computeInertialPositions, computeEarthPositions or
+ * computeEarthPosition with arrays allocated once.
+ *
+ * Thread safety : the class is immutable, the arrays given to the methods are
+ * written and must not be shared between threads.
+ *
+ */
+public class KeplerianKernel {
+
+	/** Maximum number of Newton iterations solving the Kepler equation */
+	private static final int MAX_ITERATIONS = 20;
+
+	/** Convergence threshold of the eccentric anomaly (radian) */
+	private static final double ANOMALY_TOLERANCE = 1e-14;
+
+	private final int nbSatellites;
+
+	/** Semi major axis, eccentricity and sqrt(1 - e^2) */
+	private final double[] a, e, sqrtOneMinusE2;
+
+	/** Mean motion (rad/s) and mean anomaly at the reference date */
+	private final double[] meanMotion, meanAnomaly0;
+
+	/**
+	 * Perifocal unit vectors in GCRF, towards the perigee (P) and 90 degrees ahead
+	 * (Q)
+	 */
+	private final double[] px, py, pz, qx, qy, qz;
+
+	/** The same vectors in the Earth frame at the reference date */
+	private final double[] epx, epy, epz, eqx, eqy, eqz;
+
+	/**
+	 * Constructor of the kernel.
+	 *
+	 * @param listSatellites : the satellites to propagate
+	 * @param referenceDate  : the date from which the times are counted
+	 */
+	public KeplerianKernel(ArrayList<Satellite> listSatellites, AbsoluteDate referenceDate) {
+		this.nbSatellites = listSatellites.size();
+		this.a = new double[nbSatellites];
+		this.e = new double[nbSatellites];
+		this.sqrtOneMinusE2 = new double[nbSatellites];
+		this.meanMotion = new double[nbSatellites];
+		this.meanAnomaly0 = new double[nbSatellites];
+		this.px = new double[nbSatellites];
+		this.py = new double[nbSatellites];
+		this.pz = new double[nbSatellites];
+		this.qx = new double[nbSatellites];
+		this.qy = new double[nbSatellites];
+		this.qz = new double[nbSatellites];
+		this.epx = new double[nbSatellites];
+		this.epy = new double[nbSatellites];
+		this.epz = new double[nbSatellites];
+		this.eqx = new double[nbSatellites];
+		this.eqy = new double[nbSatellites];
+		this.eqz = new double[nbSatellites];
+
+		Transform inertialToEarth = FramesFactory.getGCRF().getTransformTo(Parameters.earthFrame, referenceDate);
+
+		for (int sat = 0; sat < nbSatellites; sat++) {
+			Satellite satellite = listSatellites.get(sat);
+			a[sat] = satellite.getA();
+			e[sat] = satellite.getE();
+			sqrtOneMinusE2[sat] = Math.sqrt(1 - e[sat] * e[sat]);
+			meanMotion[sat] = Math.sqrt(Constants.EGM96_EARTH_MU / (a[sat] * a[sat] * a[sat]));
+			meanAnomaly0[sat] = satellite.getM() + meanMotion[sat] * referenceDate.durationFrom(satellite.getT0());
+
+			double cosRaan = Math.cos(satellite.getRaan());
+			double sinRaan = Math.sin(satellite.getRaan());
+			double cosW = Math.cos(satellite.getW());
+			double sinW = Math.sin(satellite.getW());
+			double cosI = Math.cos(satellite.getI());
+			double sinI = Math.sin(satellite.getI());
+			px[sat] = cosRaan * cosW - sinRaan * sinW * cosI;
+			py[sat] = sinRaan * cosW + cosRaan * sinW * cosI;
+			pz[sat] = sinW * sinI;
+			qx[sat] = -cosRaan * sinW - sinRaan * cosW * cosI;
+			qy[sat] = -sinRaan * sinW + cosRaan * cosW * cosI;
+			qz[sat] = cosW * sinI;
+
+			Vector3D p = inertialToEarth.transformVector(new Vector3D(px[sat], py[sat], pz[sat]));
+			Vector3D q = inertialToEarth.transformVector(new Vector3D(qx[sat], qy[sat], qz[sat]));
+			epx[sat] = p.getX();
+			epy[sat] = p.getY();
+			epz[sat] = p.getZ();
+			eqx[sat] = q.getX();
+			eqy[sat] = q.getY();
+			eqz[sat] = q.getZ();
+		}
+	}
+
+	/**
+	 * Compute the positions of all the satellites in GCRF at several dates.
+	 *
+	 * @param times : the dates (s since the reference date)
+	 * @param x     : array in which the x coordinates (m) are written, the position
+	 *              of the satellite sat at times[k] being at sat * times.length +
+	 *              k
+	 * @param y     : array of the y coordinates, with the same layout
+	 * @param z     : array of the z coordinates, with the same layout
+	 */
+	public void computeInertialPositions(double[] times, double[] x, double[] y, double[] z) {
+		int nbTimes = times.length;
+		for (int sat = 0; sat < nbSatellites; sat++) {
+			int offset = sat * nbTimes;
+			for (int k = 0; k < nbTimes; k++) {
+				double eccentricAnomaly = solveKepler(sat, meanAnomaly0[sat] + meanMotion[sat] * times[k]);
+				double cP = a[sat] * (Math.cos(eccentricAnomaly) - e[sat]);
+				double cQ = a[sat] * sqrtOneMinusE2[sat] * Math.sin(eccentricAnomaly);
+				x[offset + k] = cP * px[sat] + cQ * qx[sat];
+				y[offset + k] = cP * py[sat] + cQ * qy[sat];
+				z[offset + k] = cP * pz[sat] + cQ * qz[sat];
+			}
+		}
+	}
+
+	/**
+	 * Compute the positions of all the satellites in the Earth frame at several
+	 * dates.
+	 *
+	 * @param times : the dates (s since the reference date)
+	 * @param x     : array in which the x coordinates (m) are written, the position
+	 *              of the satellite sat at times[k] being at sat * times.length +
+	 *              k
+	 * @param y     : array of the y coordinates, with the same layout
+	 * @param z     : array of the z coordinates, with the same layout
+	 */
+	public void computeEarthPositions(double[] times, double[] x, double[] y, double[] z) {
+		int nbTimes = times.length;
+		for (int sat = 0; sat < nbSatellites; sat++) {
+			int offset = sat * nbTimes;
+			for (int k = 0; k < nbTimes; k++) {
+				computeEarthPosition(sat, times[k], x, offset + k, y, offset + k, z, offset + k);
+			}
+		}
+	}
+
+	/**
+	 * Compute the position of a satellite in the Earth frame.
+	 *
+	 * @param sat      : index of the satellite
+	 * @param time     : the date (s since the reference date)
+	 * @param position : array in which the 3 coordinates (m) are written
+	 */
+	public void computeEarthPosition(int sat, double time, double[] position) {
+		computeEarthPosition(sat, time, position, 0, position, 1, position, 2);
+	}
+
+	public int getNbSatellites() {
+		return nbSatellites;
+	}
+
+	/**
+	 * Write the position of a satellite in the Earth frame at the given indices of
+	 * the arrays of the coordinates.
+	 */
+	private void computeEarthPosition(int sat, double time, double[] x, int xIndex, double[] y, int yIndex,
+			double[] z, int zIndex) {
+		double eccentricAnomaly = solveKepler(sat, meanAnomaly0[sat] + meanMotion[sat] * time);
+		double cP = a[sat] * (Math.cos(eccentricAnomaly) - e[sat]);
+		double cQ = a[sat] * sqrtOneMinusE2[sat] * Math.sin(eccentricAnomaly);
+
+		// position in the Earth frame of the reference date, rotated with the Earth
+		double referenceX = cP * epx[sat] + cQ * eqx[sat];
+		double referenceY = cP * epy[sat] + cQ * eqy[sat];
+		double rotation = Constants.WGS84_EARTH_ANGULAR_VELOCITY * time;
+		double cos = Math.cos(rotation);
+		double sin = Math.sin(rotation);
+		x[xIndex] = cos * referenceX + sin * referenceY;
+		y[yIndex] = -sin * referenceX + cos * referenceY;
+		z[zIndex] = cP * epz[sat] + cQ * eqz[sat];
+	}
+
+	/**
+	 * @return the eccentric anomaly (radian) of a satellite for a mean anomaly
+	 */
+	private double solveKepler(int sat, double meanAnomaly) {
+		double eccentricity = e[sat];
+		double eccentricAnomaly = meanAnomaly + eccentricity * Math.sin(meanAnomaly);
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double delta = (eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly) - meanAnomaly)
+					/ (1 - eccentricity * Math.cos(eccentricAnomaly));
+			eccentricAnomaly -= delta;
+			if (Math.abs(delta) < ANOMALY_TOLERANCE)
+				break;
+		}
+		return eccentricAnomaly;
+	}
+}
@@ -56,6 +56,9 @@ public class Satellite {
 	private ArrayList<Vector3D> velocities;
 
 	private KeplerianOrbit keplerian; //Orbit associated with the satellite
+
+	// Sampled ephemeris used by getPosition and getVelocity when it covers the date, null if none
+	private EphemerisCache ephemerisCache;
 	private KeplerianPropagator propagator; // Propagator associated with the orbit
 
 	/**
@@ -195,6 +198,22 @@ public class Satellite {
 		return keplerian;
 	}
 
+	/**
+	 * @return the sampled ephemeris of the satellite, null if none
+	 */
+	public EphemerisCache getEphemerisCache() {
+		return ephemerisCache;
+	}
+
+	/**
+	 * @param ephemerisCache the sampled ephemeris used by getPosition, getVelocity
+	 *                       and getGeodeticPoint within its horizon, null to
+	 *                       always use the propagator
+	 */
+	public void setEphemerisCache(EphemerisCache ephemerisCache) {
+		this.ephemerisCache = ephemerisCache;
+	}
+
 	public boolean isCoveredBySat(Zone zone, AbsoluteDate t) {
 		return true;
 	}
@@ -206,6 +225,8 @@ public class Satellite {
 	 * @return the position of the satellite in frame and date given
 	 */
 	public Vector3D getPosition(AbsoluteDate date, Frame frame) {
+		if (ephemerisCache != null && ephemerisCache.covers(date, frame))
+			return ephemerisCache.getPVCoordinates(date, frame).getPosition();
 		return this.propagator.getPVCoordinates(date, frame).getPosition();
 	}
 	
@@ -215,6 +236,8 @@ public class Satellite {
 	 * @return the velocity of the satellite in frame and date given
 	 */
 	public Vector3D getVelocity(AbsoluteDate date, Frame frame) {
+		if (ephemerisCache != null && ephemerisCache.covers(date, frame))
+			return ephemerisCache.getPVCoordinates(date, frame).getVelocity();
 		return this.propagator.getPVCoordinates(date, frame).getVelocity();
 	}
 	
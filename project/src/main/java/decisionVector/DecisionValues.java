@@ -0,0 +1,67 @@
+package decisionVector;
+
+/**
+ * <p>
+ * Values of the variables of a decision vector, stored in primitive arrays
+ * instead of an ArrayList(Object) : the value of the variable of index i is
+ * doubleValues[i] if the variable is a Double, intValues[i] if it is an
+ * Integer. The values are neither boxed nor cast when they are read.
+ * </p>
+ *
+ * <p>
+ * These are the guidelines to follow to use this class :
+ * </p>
+ *
+ * <p>
+ * - Instantiate the values with the size of the decision vector (see
+ * DecisionVector.createValues), then set the value of each variable with the
+ * setter of its type.
+ * </p>
+ *
+ * <p>
+ * - Read the values with the index of the variables, resolved once in the
+ * decision vector.
+ * </p>
+ *
+ * Thread safety : the class is conditionally thread safe : it is safe to use
+ * the class only if each thread access to its own instance of the class, or if
+ * the values are not modified anymore.
+ */
+public class DecisionValues {
+
+	/** Values of the Double variables, by index of variable */
+	private final double[] doubleValues;
+
+	/** Values of the Integer variables, by index of variable */
+	private final int[] intValues;
+
+	/**
+	 * Constructor of the class.
+	 *
+	 * @param size:int the number of variables of the decision vector
+	 */
+	public DecisionValues(int size) {
+		this.doubleValues = new double[size];
+		this.intValues = new int[size];
+	}
+
+	public double getDouble(int variableIndex) {
+		return doubleValues[variableIndex];
+	}
+
+	public void setDouble(int variableIndex, double value) {
+		doubleValues[variableIndex] = value;
+	}
+
+	public int getInt(int variableIndex) {
+		return intValues[variableIndex];
+	}
+
+	public void setInt(int variableIndex, int value) {
+		intValues[variableIndex] = value;
+	}
+
+	public int size() {
+		return doubleValues.length;
+	}
+}
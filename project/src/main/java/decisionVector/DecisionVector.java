@@ -1,8 +1,24 @@
 package decisionVector;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+
 import constellation.Constellation;
+import simulation.AdaptiveMeshRevisit;
+import simulation.BatchContext;
+import simulation.FeasibilityChecker;
+import simulation.FidelityLevel;
+import simulation.RevisitLowerBound;
+import simulation.Simulation;
+import simulation.ZoneModel;
+import utils.Parameters;
+import zone.Zone;
 
 /**
  * <p>
@@ -14,9 +30,11 @@ import constellation.Constellation;
  * </p>
  * 
  * <p>
- * Because the cost function and the vector depend of the use case, the method
- * createConstellationFromVector() and costFunction() are implemented in
- * subclasses.
+ * Because the constellation depends of the use case, the method
+ * createConstellationFromVector() is implemented in subclasses. The cost
+ * function is the max revisit over the zone of the input polygon (see
+ * evaluateConstellation) ; a use case with another cost overrides
+ * costFunction().
  * </p>
  * 
  * <p>
@@ -55,6 +73,18 @@ public abstract class DecisionVector {
 	 */
 	protected final ArrayList<GeodeticPoint> inputPolygon;
 
+	/*
+	 * The state shared by the simulations of the vector (model of the zone) for
+	 * each fidelity, built when first needed
+	 */
+	private final HashMap<FidelityLevel, BatchContext> batchContexts = new HashMap<FidelityLevel, BatchContext>();
+
+	/* The checker of the constellations before their simulation */
+	protected final FeasibilityChecker feasibilityChecker = new FeasibilityChecker();
+
+	/* The lower bound of the max revisit, which prunes the hopeless constellations */
+	protected final RevisitLowerBound revisitLowerBound = new RevisitLowerBound();
+
 	/*
 	 * Constructor of the class :
 	 * 
@@ -142,15 +172,74 @@ public abstract class DecisionVector {
 	 */
 	public int getIndex(String variableName) {
 
+		int index = findIndex(variableName);
+		if (index < 0)
+			System.out.println("ERROR  The variable : " + variableName + " doesn't exist in the decision vector");
+		return index;
+	}
+
+	/**
+	 * Get the index of a variable in the decision Vector, without error message if
+	 * it doesn't exist (for the optional variables of a use case).
+	 * 
+	 * @param variableName:String the name of the decision variable
+	 * @return int - the index of the variable, -1 if it doesn't exist
+	 */
+	protected int findIndex(String variableName) {
 		for (int i = 0; i < listDecisionVariables.size(); i++) {
 			if (listDecisionVariables.get(i).getName().equals(variableName)) {
 				return (i);
 			}
 		}
-		System.out.println("ERROR  The variable : " + variableName + " doesn't exist in the decision vector");
 		return -1;
 	}
 
+	/**
+	 * Create empty primitive values for this vector, to be filled variable by
+	 * variable.
+	 * 
+	 * @return DecisionValues - the values, all equal to 0
+	 */
+	public DecisionValues createValues() {
+		return new DecisionValues(size());
+	}
+
+	/**
+	 * Convert a list of values into primitive values. The variables which are not
+	 * Integer are read as Double.
+	 * 
+	 * @param listValues:ArrayList(Object) the values of the vector
+	 * @return DecisionValues - the same values
+	 */
+	public DecisionValues toDecisionValues(final ArrayList<Object> listValues) {
+		DecisionValues values = createValues();
+		for (int i = 0; i < listValues.size(); i++) {
+			if (get(i).isInteger())
+				values.setInt(i, (Integer) listValues.get(i));
+			else
+				values.setDouble(i, (Double) listValues.get(i));
+		}
+		return values;
+	}
+
+	/**
+	 * Convert primitive values into a list of values. The variables which are not
+	 * Integer are read as Double.
+	 * 
+	 * @param values:DecisionValues the values of the vector
+	 * @return ArrayList(Object) - the same values
+	 */
+	public ArrayList<Object> toListValues(final DecisionValues values) {
+		ArrayList<Object> listValues = new ArrayList<Object>();
+		for (int i = 0; i < size(); i++) {
+			if (get(i).isInteger())
+				listValues.add((Integer) values.getInt(i));
+			else
+				listValues.add((Double) values.getDouble(i));
+		}
+		return listValues;
+	}
+
 	/**
 	 * Convert the decision vector to String.
 	 * 
@@ -174,25 +263,360 @@ public abstract class DecisionVector {
 	}
 
 	/**
-	 * Abstract method which converts the current state of the decision vector into
-	 * a Constellation. Its implementation depends of the Use Case.
+	 * Convert the current state of the decision vector into a Constellation. The
+	 * values are converted into primitive values (see the abstract method).
 	 * 
 	 * @param listValues:ArrayList(Object) current values of the vector from which
 	 *                                     we create the constellation.
 	 * @return Constellation - A Constellation corresponding to the decision vector.
 	 */
-	public abstract Constellation createConstellationFromVector(final ArrayList<Object> listValues);
+	public Constellation createConstellationFromVector(final ArrayList<Object> listValues) {
+		return createConstellationFromVector(toDecisionValues(listValues));
+	}
+
+	/**
+	 * Abstract method which converts primitive values of the decision vector into a
+	 * Constellation. Its implementation depends of the Use Case, which should read
+	 * the values with indices resolved once. Threads safety : the implementations
+	 * have to be reentrant.
+	 * 
+	 * @param values:DecisionValues current values of the vector from which we
+	 *                              create the constellation.
+	 * @return Constellation - A Constellation corresponding to the decision vector.
+	 */
+	public abstract Constellation createConstellationFromVector(final DecisionValues values);
 
 	/**
 	 * The cost (or fitness) function of the problem. The goal is to MINIMIZE this
 	 * function. It calls the method createConstellationFromVector to create a new
 	 * constellation with the current state of the vector and then creates a
-	 * simulation to propagate the orbits of each satellite. Its implementation
-	 * depends of the Use Case.
+	 * simulation to propagate the orbits of each satellite. Threads safety : the
+	 * function is reentrant because the storage is done in local variables. It
+	 * calls only reentrant functions
+	 * 
+	 * @param listValues:ArrayList(Object) current values of the vector from which
+	 *                                     we compute the fitness.
+	 * @return Double - the fitness value
+	 */
+	public Double costFunction(final ArrayList<Object> listValues) {
+		return costFunction(listValues, Double.MAX_VALUE);
+	}
+
+	/**
+	 * Same cost function, with an upper bound of interest : as soon as the cost is
+	 * known to be greater than the cutoff, the simulation is stopped and a value
+	 * greater than the cutoff (but lower than the true cost) is returned. The
+	 * ranking of the individuals which are better than the cutoff is unchanged.
+	 * 
+	 * @param listValues:ArrayList(Object) current values of the vector from which
+	 *                                     we compute the fitness.
+	 * @param cutoff:double                the upper bound of interest of the cost,
+	 *                                     Double.MAX_VALUE to disable it
+	 * @return Double - the fitness value
+	 */
+	public Double costFunction(final ArrayList<Object> listValues, double cutoff) {
+		return costFunction(listValues, getBatchContext(), cutoff);
+	}
+
+	/**
+	 * Same cost function, for an individual of a batch : the simulation reads the
+	 * zone and its mesh in the context instead of computing them again. Threads
+	 * safety : the function is reentrant because the storage is done in local
+	 * variables, the context being only read.
 	 * 
 	 * @param listValues:ArrayList(Object) current values of the vector from which
 	 *                                     we compute the fitness.
+	 * @param batchContext:BatchContext    the state shared by the batch
+	 * @param cutoff:double                the upper bound of interest of the cost,
+	 *                                     Double.MAX_VALUE to disable it
+	 * @return Double - the fitness value
+	 */
+	public Double costFunction(final ArrayList<Object> listValues, BatchContext batchContext, double cutoff) {
+		return costFunction(toDecisionValues(listValues), batchContext, cutoff);
+	}
+
+	/**
+	 * Same cost function, from primitive values (see evaluateConstellation for the
+	 * constellations which are not simulated). This is the method to override for
+	 * a use case with another cost.
+	 * 
+	 * @param values:DecisionValues     current values of the vector from which we
+	 *                                  compute the fitness.
+	 * @param batchContext:BatchContext the state shared by the batch
+	 * @param cutoff:double             the upper bound of interest of the cost,
+	 *                                  Double.MAX_VALUE to disable it
+	 * @return Double - the fitness value
+	 */
+	public Double costFunction(final DecisionValues values, BatchContext batchContext, double cutoff) {
+
+		// create the constellation from the current decision Vector
+		Constellation constellation = createConstellationFromVector(values);
+		return evaluateConstellation(constellation, batchContext, cutoff);
+	}
+
+	/**
+	 * Get the state shared by all the simulations of the vector (see
+	 * costFunctionBatch) : it only depends on the zone, so it is created once per
+	 * run. Threads safety : the function is synchronized, the context being
+	 * created by the first call.
+	 * 
+	 * @return BatchContext - the context, null if the use case doesn't need one
+	 */
+	public BatchContext getBatchContext() {
+		return getBatchContext(FidelityLevel.createFullFidelity());
+	}
+
+	/**
+	 * Get the state shared by the simulations of the vector at a fidelity (see
+	 * FidelityLevel), created once per run and per fidelity. Threads safety : the
+	 * function is synchronized, the context being created by the first call.
+	 * 
+	 * @param fidelity:FidelityLevel the fidelity of the simulations
+	 * @return BatchContext - the context, null if the use case doesn't need one
+	 */
+	public synchronized BatchContext getBatchContext(FidelityLevel fidelity) {
+		if (!batchContexts.containsKey(fidelity))
+			batchContexts.put(fidelity, createBatchContext(fidelity));
+		return batchContexts.get(fidelity);
+	}
+
+	/**
+	 * Get the checker of the constellations, with the number of evaluations it
+	 * short-circuited.
+	 * 
+	 * @return FeasibilityChecker - the checker
+	 */
+	public FeasibilityChecker getFeasibilityChecker() {
+		return feasibilityChecker;
+	}
+
+	/**
+	 * Get the lower bound of the max revisit, with the number of simulations it
+	 * pruned.
+	 * 
+	 * @return RevisitLowerBound - the bound
+	 */
+	public RevisitLowerBound getRevisitLowerBound() {
+		return revisitLowerBound;
+	}
+
+	/**
+	 * Compute a lower bound of the max revisit of an individual without
+	 * simulating it (see RevisitLowerBound) : it never exceeds the cost of the
+	 * individual. Threads safety : the function is reentrant because the storage
+	 * is done in local variables, the context being only read.
+	 * 
+	 * @param values:DecisionValues current values of the vector
+	 * @return double - the bound, 0 if the use case has no zone to cover
+	 */
+	public double revisitLowerBound(final DecisionValues values) {
+		BatchContext batchContext = getBatchContext();
+		if (batchContext == null)
+			return 0;
+		return revisitLowerBound.compute(createConstellationFromVector(values), batchContext.getZoneModel(),
+				Parameters.t0, batchContext.getFidelity().getDuration());
+	}
+
+	/**
+	 * Compute the max revisit of a constellation over the zone of the context, at
+	 * its fidelity. The cheap checks are done first :
+	 * 
+	 * - an infeasible constellation gets the penalty of the feasibility checker,
+	 * greater than the cost of any feasible one,
+	 * 
+	 * - with a cutoff, a constellation whose lower bound of the max revisit
+	 * exceeds it gets this bound, which is then a lower bound of its cost as for a
+	 * simulation stopped at the cutoff.
+	 * 
+	 * Only the other constellations are simulated, on the whole mesh or on an
+	 * adaptive subset of it (see Parameters.adaptiveMeshing). A constellation which
+	 * leaves some points unseen costs Double.MAX_VALUE, or with the feasibility
+	 * check the duration plus the number of these points, so that it stays below
+	 * the penalties (see FeasibilityChecker.computeUnseenCost). Threads safety : the
+	 * function is reentrant because the storage is done in local variables, the
+	 * context being only read.
+	 * 
+	 * @param constellation:Constellation the constellation to evaluate
+	 * @param batchContext:BatchContext   the state shared by the batch
+	 * @param cutoff:double               the upper bound of interest of the cost,
+	 *                                    Double.MAX_VALUE to disable it
 	 * @return Double - the fitness value
 	 */
-	public abstract Double costFunction(final ArrayList<Object> listValues);
+	protected Double evaluateConstellation(Constellation constellation, BatchContext batchContext, double cutoff) {
+
+		double duration = batchContext.getFidelity().getDuration();
+
+		// an infeasible constellation is not simulated
+		if (Parameters.feasibilityCheck) {
+			double penalty = feasibilityChecker.computePenalty(constellation, batchContext.getZoneModel(), duration);
+			if (penalty > 0)
+				return penalty;
+		}
+
+		// neither is a constellation which can't beat the cutoff
+		if (Parameters.lowerBoundPruning && cutoff < Double.MAX_VALUE) {
+			double lowerBound = revisitLowerBound.compute(constellation, batchContext.getZoneModel(), Parameters.t0,
+					duration);
+			if (lowerBound == Double.MAX_VALUE && Parameters.feasibilityCheck)
+				lowerBound = FeasibilityChecker.computeUnseenCost(1, duration);
+			if (lowerBound > cutoff) {
+				revisitLowerBound.countPruning();
+				return lowerBound;
+			}
+		}
+
+		// Begging of the simulation
+		AbsoluteDate t0 = Parameters.t0;
+		// End date of the simulation
+		AbsoluteDate tf = new AbsoluteDate(t0, duration);
+		// with the feasibility check, a cutoff above the duration can only be exceeded
+		// by an unseen point, whose cost depends on the number of unseen points : the
+		// simulation is not cut off
+		double revisitCutoff = Parameters.feasibilityCheck && cutoff >= duration ? Double.MAX_VALUE : cutoff;
+
+		// only the points of the mesh around the worst ones are simulated
+		if (Parameters.adaptiveMeshing) {
+			AdaptiveMeshRevisit.Computation computation = batchContext.getAdaptiveMesh().compute(constellation, t0, tf,
+					revisitCutoff);
+			double maxRevisit = computation.getMaxRevisit();
+			if (maxRevisit == Double.MAX_VALUE && Parameters.feasibilityCheck)
+				return FeasibilityChecker.computeUnseenCost(computation.getNbUnseenPoints(), duration);
+			return maxRevisit;
+		}
+
+		Simulation simulation = new Simulation(constellation, t0, tf, batchContext);
+		simulation.setRevisitCutoff(revisitCutoff);
+		simulation.propagateOrbits();
+		double maxRevisit = simulation.getMaxRevisit();
+
+		// the points never seen are counted, so that the cost stays below the
+		// penalties of the infeasible constellations
+		if (maxRevisit == Double.MAX_VALUE && Parameters.feasibilityCheck)
+			return FeasibilityChecker.computeUnseenCost(simulation.getNbUnseenPoints(), duration);
+		return maxRevisit;
+	}
+
+	/**
+	 * Create the state shared by the simulations of the vector at a fidelity : the
+	 * zone of the input polygon, meshed with the resolution of the fidelity and
+	 * modeled once for all the individuals.
+	 * 
+	 * @param fidelity:FidelityLevel the fidelity of the simulations
+	 * @return BatchContext - the context, null if the use case doesn't need one
+	 */
+	protected BatchContext createBatchContext(FidelityLevel fidelity) {
+		return new BatchContext(new ZoneModel(new Zone(this.inputPolygon, fidelity.getMeshResolution())), fidelity);
+	}
+
+	/**
+	 * Batch cost function : compute the cost of several individuals (typically a
+	 * generation of the optimisation). The state which doesn't depend on the
+	 * individual is created once (see getBatchContext), then the individuals
+	 * are evaluated in parallel in the executor. Threads safety : the function is
+	 * reentrant because the storage is done in local variables, the context being
+	 * only read by the evaluations.
+	 * 
+	 * @param listIndividuals:List(DecisionValues) the values of the vector of each
+	 *                                             individual
+	 * @param cutoff:double                        the upper bound of interest of
+	 *                                             the costs, Double.MAX_VALUE to
+	 *                                             disable it
+	 * @param executor:Executor                    the executor of the evaluations
+	 * @return ArrayList(Double) - the fitness value of each individual, in the
+	 *         same order
+	 */
+	public ArrayList<Double> costFunctionBatch(final List<DecisionValues> listIndividuals, double cutoff,
+			Executor executor) {
+		return costFunctionBatch(listIndividuals, cutoff, executor, FidelityLevel.createFullFidelity());
+	}
+
+	/**
+	 * Same batch cost function, at a given fidelity : the cost is the max revisit
+	 * of the simulations of this fidelity (see FidelityLevel), for example to
+	 * screen the individuals with a coarse mesh. Threads safety : the function is
+	 * reentrant because the storage is done in local variables, the context being
+	 * only read by the evaluations.
+	 * 
+	 * @param listIndividuals:List(DecisionValues) the values of the vector of each
+	 *                                             individual
+	 * @param cutoff:double                        the upper bound of interest of
+	 *                                             the costs, Double.MAX_VALUE to
+	 *                                             disable it
+	 * @param executor:Executor                    the executor of the evaluations
+	 * @param fidelity:FidelityLevel               the fidelity of the simulations
+	 * @return ArrayList(Double) - the fitness value of each individual, in the
+	 *         same order
+	 */
+	public ArrayList<Double> costFunctionBatch(final List<DecisionValues> listIndividuals, double cutoff,
+			Executor executor, FidelityLevel fidelity) {
+
+		BatchContext batchContext = getBatchContext(fidelity);
+
+		ArrayList<CompletableFuture<Double>> listCosts = new ArrayList<CompletableFuture<Double>>();
+		for (DecisionValues values : listIndividuals) {
+			listCosts.add(CompletableFuture.supplyAsync(() -> costFunction(values, batchContext, cutoff), executor));
+		}
+
+		ArrayList<Double> costs = new ArrayList<Double>();
+		for (CompletableFuture<Double> cost : listCosts) {
+			costs.add(cost.join());
+		}
+		return costs;
+	}
+
+	/**
+	 * Get the canonical key of a vector : two vectors which have the same key give
+	 * the same constellation, thus the same cost. The double values are quantized
+	 * (see quantize). By default, all the variables are kept in the key ; the use
+	 * cases whose constellation doesn't depend on some of the variables can
+	 * override this method.
+	 * 
+	 * @param listValues:ArrayList(Object) current values of the vector
+	 * @param tolerance:double             fraction of the domain of a variable
+	 *                                     under which two values are the same
+	 * @return ArrayList(Object) - the canonical key
+	 */
+	public ArrayList<Object> getCanonicalKey(final ArrayList<Object> listValues, double tolerance) {
+		ArrayList<Object> key = new ArrayList<Object>();
+		for (int i = 0; i < listValues.size(); i++) {
+			key.add(quantize(i, listValues.get(i), tolerance));
+		}
+		return key;
+	}
+
+	/**
+	 * Same canonical key, from primitive values. By default, the values are
+	 * converted into a list.
+	 * 
+	 * @param values:DecisionValues current values of the vector
+	 * @param tolerance:double      fraction of the domain of a variable under
+	 *                              which two values are the same
+	 * @return ArrayList(Object) - the canonical key
+	 */
+	public ArrayList<Object> getCanonicalKey(final DecisionValues values, double tolerance) {
+		return getCanonicalKey(toListValues(values), tolerance);
+	}
+
+	/**
+	 * Quantize the value of a variable : a double value is replaced by the number
+	 * of tolerances (fraction of the domain of the variable) from the minimum of
+	 * the domain. The other values are unchanged.
+	 * 
+	 * @param variableIndex:int the index of the variable
+	 * @param value:Object      the value of the variable
+	 * @param tolerance:double  fraction of the domain, 0 to keep the exact value
+	 * @return Object - the quantized value
+	 */
+	protected Object quantize(int variableIndex, Object value, double tolerance) {
+		DecisionVariable var = get(variableIndex);
+		if (!(value instanceof Double) || tolerance <= 0 || !(var.getMin() instanceof Double)
+				|| !(var.getMax() instanceof Double))
+			return value;
+
+		double min = (Double) var.getMin();
+		double range = (Double) var.getMax() - min;
+		if (range <= 0)
+			return value;
+		return Math.round(((Double) value - min) / (range * tolerance));
+	}
 }
@@ -1,14 +1,13 @@
 package decisionVector;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.time.AbsoluteDate;
 
 import constellation.Constellation;
-import simulation.Simulation;
 import utils.Parameters;
-import zone.Zone;
 
 /**
  * 
@@ -59,35 +58,67 @@ import zone.Zone;
 @SuppressWarnings("rawtypes")
 public class DecisionVector1 extends DecisionVector {
 
+	/*
+	 * Indices of the variables in the vector, resolved once in the constructor
+	 * (-1 if the variable doesn't exist)
+	 */
+	private final int inclinationIndex;
+	private final int aIndex;
+	private final int eccentricityIndex;
+	private final int rightAscendingNodeIndex;
+	private final int periapsisArgumentIndex;
+	private final int nbSatIndex;
+
+	/* Index of the variable anomaly + i for the satellite i */
+	private final int[] anomalyIndices;
+
+	/* True for the variables which are an anomaly */
+	private final boolean[] isAnomaly;
+
 	public DecisionVector1(ArrayList<DecisionVariable> decisionVariableList, ArrayList<GeodeticPoint> inputPolygon) {
 		super(decisionVariableList, inputPolygon);
+
+		this.inclinationIndex = findIndex("inclination");
+		this.aIndex = findIndex("a");
+		this.eccentricityIndex = findIndex("eccentricity");
+		this.rightAscendingNodeIndex = findIndex("rightAscendingNode");
+		this.periapsisArgumentIndex = findIndex("periapsisArgument");
+		this.nbSatIndex = findIndex("nbSat");
+
+		int nbAnomalies = 0;
+		while (findIndex("anomaly" + nbAnomalies) >= 0) {
+			nbAnomalies++;
+		}
+		this.anomalyIndices = new int[nbAnomalies];
+		this.isAnomaly = new boolean[size()];
+		for (int i = 0; i < nbAnomalies; i++) {
+			anomalyIndices[i] = findIndex("anomaly" + i);
+			isAnomaly[anomalyIndices[i]] = true;
+		}
 	}
 
 	/**
-	 * Implementation of the Abstract method which converts the current state of the
-	 * decision vector into a Constellation. In this case, it takes the values of
-	 * the the 5 Keplerian parameters of the plane and distributes uniformly the
-	 * satellites along the orbit in changing the mean anomaly. Threads safety : the
-	 * function is reentrant because the storage is done in local variables. It
-	 * calls only reentrant functions, and access the global storage with read-only
-	 * operations.
+	 * Implementation of the Abstract method which converts the values of the
+	 * decision vector into a Constellation. In this case, all the satellites share
+	 * the 5 Keplerian parameters of the plane, and each one has its own mean
+	 * anomaly. The values are read with the indices resolved in the constructor :
+	 * only the satellites are allocated. Threads safety : the function is
+	 * reentrant because the storage is done in local variables, and the indices
+	 * are only read.
 	 * 
-	 * @param values:ArrayList(Object) current values of the vector from which we
-	 *                                 create the constellation.
+	 * @param values:DecisionValues current values of the vector from which we
+	 *                              create the constellation.
 	 * @return Constellation - a Constellation corresponding to the decision vector.
 	 */
 	@Override
-	public Constellation createConstellationFromVector(final ArrayList<Object> values) {
-
-		// get the values of each parameter from the index in the DecisionVector.
-		// since the vector is immutable during the optimization process, it is thread
-		// safe to read the index.
-		Double inclination = (Double) values.get(getIndex("inclination"));
-		Double a = (Double) values.get(getIndex("a"));
-		Double eccentricity = (Double) values.get(getIndex("eccentricity"));
-		Double rightAscendingNode = (Double) values.get(getIndex("rightAscendingNode"));
-		Double periapsisArgument = (Double) values.get(getIndex("periapsisArgument"));
-		Integer nbSat = (Integer) values.get(getIndex("nbSat"));
+	public Constellation createConstellationFromVector(final DecisionValues values) {
+
+		double inclination = values.getDouble(inclinationIndex);
+		double a = values.getDouble(aIndex);
+		double eccentricity = values.getDouble(eccentricityIndex);
+		double rightAscendingNode = values.getDouble(rightAscendingNodeIndex);
+		double periapsisArgument = values.getDouble(periapsisArgumentIndex);
+		int nbSat = values.getInt(nbSatIndex);
 		AbsoluteDate t0 = Parameters.t0;
 
 		Constellation constellation = new Constellation();
@@ -95,49 +126,69 @@ public class DecisionVector1 extends DecisionVector {
 		// the anomaly is the only parameter which can change in the use case 1,
 		// so we have one value for every satellite
 		// read the anomaly and add each satellite to the constellation
-		for (Integer i = 0; i < nbSat; i++) {
-			String nameAnomaly = "anomaly" + Integer.toString(i);
-			Double anomaly = (Double) values.get(getIndex(nameAnomaly));
+		for (int i = 0; i < nbSat; i++) {
+			double anomaly = values.getDouble(anomalyIndices[i]);
 
 			constellation.addSatellite(a, eccentricity, inclination, rightAscendingNode, periapsisArgument, anomaly,
 					t0);
 		}
 
-		System.out.println("Current individual: " + constellation);
+		if (Parameters.verboseEvaluation)
+			System.out.println("Current individual: " + constellation);
 
 		return constellation;
 	}
 
 	/**
-	 * The cost (or fitness) function of the problem. The goal is to MINIMIZE this
-	 * function. It calls the method createConstellationFromVector to create a new
-	 * constellation with the current state of the vector and then creates a
-	 * simulation to propagate the orbits of each satellite. Threads safety : the
-	 * function is reentrant because the storage is done in local variables. It
-	 * calls only reentrant functions
+	 * Canonical key of the vector : the anomalies of the satellites beyond nbSat
+	 * have no effect on the constellation, so they are removed, and the
+	 * satellites of the plane only differ by their anomaly, so the anomalies are
+	 * sorted. Threads safety : the function is reentrant because the storage is
+	 * done in local variables.
 	 * 
-	 * @param listValues:ArrayList(Object) current values of the vector from which
-	 *                                     we compute the fitness.
-	 * @return Double - the fitness value
+	 * @param listValues:ArrayList(Object) current values of the vector
+	 * @param tolerance:double             fraction of the domain of a variable
+	 *                                     under which two values are the same
+	 * @return ArrayList(Object) - the canonical key
 	 */
 	@Override
-	public Double costFunction(final ArrayList<Object> listValues) {
-
-		// create the constellation from the current decision Vector
-		Constellation constellation = createConstellationFromVector(listValues);
-
-		// Begging of the simulation
-		AbsoluteDate t0 = Parameters.t0;
-		// End date of the simulation
-		AbsoluteDate tf = new AbsoluteDate(t0, Parameters.simulationDuration);
-		// create the zone to cover
-		Zone zone = new Zone(this.inputPolygon);
+	public ArrayList<Object> getCanonicalKey(final ArrayList<Object> listValues, double tolerance) {
+		return getCanonicalKey(toDecisionValues(listValues), tolerance);
+	}
 
-		Simulation simulation = new Simulation(constellation, t0, tf, zone);
-		simulation.propagateOrbits();
-		Double maxRevisit = simulation.getMaxRevisit();
-		return maxRevisit;
+	/**
+	 * Same canonical key, from primitive values.
+	 * 
+	 * @param values:DecisionValues current values of the vector
+	 * @param tolerance:double      fraction of the domain of a variable under
+	 *                              which two values are the same
+	 * @return ArrayList(Object) - the canonical key
+	 */
+	@Override
+	public ArrayList<Object> getCanonicalKey(final DecisionValues values, double tolerance) {
+
+		int nbSat = values.getInt(nbSatIndex);
+
+		ArrayList<Object> key = new ArrayList<Object>();
+		for (int i = 0; i < size(); i++) {
+			if (isAnomaly[i])
+				continue;
+			if (get(i).isInteger())
+				key.add(values.getInt(i));
+			else
+				key.add(quantize(i, values.getDouble(i), tolerance));
+		}
 
+		// all the anomalies have the same domain, the one of anomaly0
+		double[] anomalies = new double[nbSat];
+		for (int i = 0; i < nbSat; i++) {
+			anomalies[i] = values.getDouble(anomalyIndices[i]);
+		}
+		Arrays.sort(anomalies);
+		for (double anomaly : anomalies) {
+			key.add(quantize(anomalyIndices[0], anomaly, tolerance));
+		}
+		return key;
 	}
 
 }
@@ -6,9 +6,7 @@ import org.orekit.bodies.GeodeticPoint;
 import org.orekit.time.AbsoluteDate;
 
 import constellation.Constellation;
-import simulation.Simulation;
 import utils.Parameters;
-import zone.Zone;
 
 /**
  * <p>
@@ -63,44 +61,59 @@ import zone.Zone;
 @SuppressWarnings("rawtypes")
 public class DecisionVectorDemo extends DecisionVector {
 
+	/*
+	 * Indices of the variables in the vector, resolved once in the constructor
+	 * (-1 if the variable doesn't exist)
+	 */
+	private final int inclinationIndex;
+	private final int aIndex;
+	private final int eccentricityIndex;
+	private final int rightAscendingNodeIndex;
+	private final int periapsisArgumentIndex;
+	private final int nbSatIndex;
+
 	public DecisionVectorDemo(ArrayList<DecisionVariable> decisionVariableList, ArrayList<GeodeticPoint> inputPolygon) {
 		super(decisionVariableList, inputPolygon);
+
+		this.inclinationIndex = findIndex("inclination");
+		this.aIndex = findIndex("a");
+		this.eccentricityIndex = findIndex("eccentricity");
+		this.rightAscendingNodeIndex = findIndex("rightAscendingNode");
+		this.periapsisArgumentIndex = findIndex("periapsisArgument");
+		this.nbSatIndex = findIndex("nbSat");
 	}
 
 	/**
-	 * Implementation of the Abstract method which converts the current state of the
+	 * Implementation of the Abstract method which converts the values of the
 	 * decision vector into a Constellation. In this case, it takes the values of
-	 * the the 5 Keplerian parameters of the plane and distributes uniformly the
-	 * satellites along the orbit in changing the mean anomaly. Threads safety : the
-	 * function is reentrant because the storage is done in local variables. It
-	 * calls only reentrant functions, and access the global storage with read-only
-	 * operations.
+	 * the 5 Keplerian parameters of the plane and distributes uniformly the
+	 * satellites along the orbit in changing the mean anomaly, read with the
+	 * indices resolved in the constructor. Threads safety : the function is
+	 * reentrant because the storage is done in local variables, and the indices
+	 * are only read.
 	 * 
-	 * @param values:ArrayList(Object) current values of the vector from which we
-	 *                                 create the constellation.
+	 * @param values:DecisionValues current values of the vector from which we
+	 *                              create the constellation.
 	 * @return Constellation - a Constellation corresponding to the decision vector.
 	 */
 	@Override
-	public Constellation createConstellationFromVector(final ArrayList<Object> values) {
-
-		// get the values of each parameter from the index in the DecisionVector.
-		// since the vector is immutable during the optimization process, it is thread
-		// safe to read the index.
-		Double inclination = (Double) values.get(getIndex("inclination"));
-		Double a = (Double) values.get(getIndex("a"));
-		Double eccentricity = (Double) values.get(getIndex("eccentricity"));
-		Double rightAscendingNode = (Double) values.get(getIndex("rightAscendingNode"));
-		Double periapsisArgument = (Double) values.get(getIndex("periapsisArgument"));
-		Integer nbSat = (Integer) values.get(getIndex("nbSat"));
+	public Constellation createConstellationFromVector(final DecisionValues values) {
+
+		double inclination = values.getDouble(inclinationIndex);
+		double a = values.getDouble(aIndex);
+		double eccentricity = values.getDouble(eccentricityIndex);
+		double rightAscendingNode = values.getDouble(rightAscendingNodeIndex);
+		double periapsisArgument = values.getDouble(periapsisArgumentIndex);
+		int nbSat = values.getInt(nbSatIndex);
 		AbsoluteDate t0 = Parameters.t0;
 
 		Constellation constellation = new Constellation();
 
 		// add the satellite to the constellation
-		for (Double i = 0.0; i < nbSat; i++) {
+		for (int i = 0; i < nbSat; i++) {
 			// We consider for the demonstration that the satellites are uniformly
 			// distributed along the orbit
-			Double anomaly = i / nbSat * 2 * Math.PI;
+			double anomaly = (double) i / nbSat * 2 * Math.PI;
 
 			constellation.addSatellite(a, eccentricity, inclination, rightAscendingNode, periapsisArgument, anomaly,
 					t0);
@@ -110,36 +123,4 @@ public class DecisionVectorDemo extends DecisionVector {
 
 	}
 
-	/**
-	 * The cost (or fitness) function of the problem. The goal is to MINIMIZE this
-	 * function. It calls the method createConstellationFromVector to create a new
-	 * constellation with the current state of the vector and then creates a
-	 * simulation to propagate the orbits of each satellite. Threads safety : the
-	 * function is reentrant because the storage is done in local variables. It
-	 * calls only reentrant functions
-	 * 
-	 * @param listValues:ArrayList(Object) current values of the vector from which
-	 *                                     we compute the fitness.
-	 * @return Double - the fitness value
-	 */
-	@Override
-	public Double costFunction(final ArrayList<Object> listValues) {
-
-		// create the constellation from the current decision Vector
-		Constellation constellation = createConstellationFromVector(listValues);
-
-		// Begging of the simulation
-		AbsoluteDate t0 = Parameters.t0;
-		// End date of the simulation
-		AbsoluteDate tf = new AbsoluteDate(t0, Parameters.simulationDuration);
-		// create the zone to cover
-		Zone zone = new Zone(this.inputPolygon);
-
-		Simulation simulation = new Simulation(constellation, t0, tf, zone);
-		simulation.propagateOrbits();
-		Double maxRevisit = simulation.getMaxRevisit();
-		return maxRevisit;
-
-	}
-
 }
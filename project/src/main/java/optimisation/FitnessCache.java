@@ -0,0 +1,109 @@
+package optimisation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the fitness of the individuals already evaluated during an
+ * optimisation, by canonical key of their decision vector (see
+ * DecisionVector.getCanonicalKey). The duplicated individuals, frequent after
+ * the selection, are then not simulated again.
+ *
+ * A fitness computed with a cutoff which has been exceeded is only a lower
+ * bound of the true fitness : it is stored as such, and only returned for
+ * evaluations whose cutoff is lower than this bound.
+ *
+ * The cache is bounded by its number of individuals, the least recently used
+ * ones being removed first.
+ *
+ * Thread safety : the class is thread safe, the access to the storage being
+ * synchronized.
+ *
+ */
+public class FitnessCache {
+
+	/** Fitness of an individual, exact or lower bound */
+	private static class Fitness {
+		private final double value;
+		private final boolean exact;
+
+		private Fitness(double value, boolean exact) {
+			this.value = value;
+			this.exact = exact;
+		}
+	}
+
+	/** The fitness of each individual, by order of access */
+	private final LinkedHashMap<ArrayList<Object>, Fitness> storage;
+
+	private final AtomicLong nbHits = new AtomicLong();
+	private final AtomicLong nbMisses = new AtomicLong();
+
+	/**
+	 * Constructor of the cache.
+	 *
+	 * @param capacity: int maximum number of individuals stored in the cache
+	 */
+	public FitnessCache(int capacity) {
+		this.storage = new LinkedHashMap<ArrayList<Object>, Fitness>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ArrayList<Object>, Fitness> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Get the fitness of an individual.
+	 *
+	 * @param key:    ArrayList(Object) the canonical key of the individual
+	 * @param cutoff: double the cutoff of the evaluation, Double.MAX_VALUE if none
+	 * @return Double - the fitness, null if it is not in the cache or if only a
+	 *         lower bound under the cutoff is known
+	 */
+	public synchronized Double get(ArrayList<Object> key, double cutoff) {
+		Fitness fitness = storage.get(key);
+		if (fitness == null || (!fitness.exact && fitness.value <= cutoff)) {
+			nbMisses.incrementAndGet();
+			return null;
+		}
+		nbHits.incrementAndGet();
+		return fitness.value;
+	}
+
+	/**
+	 * Store the fitness of an individual. A lower bound doesn't replace an exact
+	 * fitness.
+	 *
+	 * @param key:   ArrayList(Object) the canonical key of the individual
+	 * @param value: double the fitness
+	 * @param exact: boolean false if the value is only a lower bound
+	 */
+	public synchronized void put(ArrayList<Object> key, double value, boolean exact) {
+		Fitness previous = storage.get(key);
+		if (previous != null && previous.exact && !exact)
+			return;
+		storage.put(key, new Fitness(value, exact));
+	}
+
+	public long getNbHits() {
+		return nbHits.get();
+	}
+
+	public long getNbMisses() {
+		return nbMisses.get();
+	}
+
+	public synchronized int size() {
+		return storage.size();
+	}
+
+	@Override
+	public String toString() {
+		return "FitnessCache : " + size() + " individuals, " + getNbHits() + " hits, " + getNbMisses() + " misses";
+	}
+}
@@ -1,7 +1,11 @@
 package optimisation;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -18,10 +22,12 @@ import org.jfree.chart.ChartUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import decisionVector.DecisionValues;
 import decisionVector.DecisionVariable;
 import decisionVector.DecisionVector;
 import io.jenetics.Chromosome;
 import io.jenetics.DoubleChromosome;
+import io.jenetics.Gene;
 import io.jenetics.Genotype;
 import io.jenetics.IntegerChromosome;
 import io.jenetics.Optimize;
@@ -32,7 +38,10 @@ import io.jenetics.engine.EvolutionStatistics;
 import io.jenetics.stat.DoubleMomentStatistics;
 import io.jenetics.util.ISeq;
 import io.jenetics.util.Seq;
+import simulation.FidelityLevel;
+import simulation.VisibilityCache;
 import time.Time;
+import utils.Parameters;
 import utils.Plot;
 
 /**
@@ -49,14 +58,70 @@ public class Optimisation  {
 	/** genotype of an individual */
 	private final Genotype CODE;
 
-	/** decision vector from which the genotype is created */
-	private static DecisionVector decisionVector;
+	/**
+	 * decision vector from which the genotype is created. It is specific to the
+	 * instance, so that several optimisations (and their fitness caches) can't
+	 * mix their individuals.
+	 */
+	private final DecisionVector decisionVector;
 
 	/**
 	 * storage HashMap with the fitness values of the best individual by generation.
 	 * NB: the type is a concurrent HashMap to ensure threadSafety
 	 */
-	private static ConcurrentHashMap<Integer, Double> fitnessValues;
+	private ConcurrentHashMap<Integer, Double> fitnessValues;
+
+	/**
+	 * Cache of the fitness of the individuals already evaluated, null if the
+	 * fitness is always computed
+	 */
+	private FitnessCache fitnessCache;
+
+	/**
+	 * Cutoff option : if true, the evaluation of an individual is stopped as soon
+	 * as its cost is known to be greater than the worst fitness of the last
+	 * generation
+	 */
+	private Boolean cutoffEvaluation;
+
+	/**
+	 * Cutoff given to the cost function : the worst fitness of the last generation
+	 * (Double.MAX_VALUE before the first one). It is volatile because it is written
+	 * at each generation and read by the threads of the evaluation.
+	 */
+	private volatile double fitnessCutoff = Double.MAX_VALUE;
+
+	/**
+	 * Executor of the evaluations of the individuals, null to use a pool of
+	 * parallelism threads (or the default executor of Jenetics if parallelism is
+	 * not positive)
+	 */
+	private Executor executor;
+
+	/** Number of individuals evaluated in parallel if no executor is given */
+	private int parallelism = Parameters.optimisationParallelism;
+
+	/** Display option : if true the fitness across generations is plotted */
+	private Boolean displayPlot = true;
+
+	/** Statistics of the last optimisation */
+	private EvolutionStatistics<Double, DoubleMomentStatistics> statistics;
+
+	/**
+	 * Multi-fidelity option : if true, the individuals are screened at each
+	 * screening level, and only the ones promoted by every level are evaluated at
+	 * full fidelity
+	 */
+	private Boolean multiFidelity = Parameters.multiFidelity;
+
+	/** Screening levels of the multi-fidelity evaluation, from the cheapest one */
+	private List<FidelityLevel> screeningLevels = FidelityLevel.createScreeningLevels();
+
+	/** Fraction of the individuals of a screening level promoted to the next one */
+	private double promotionFraction = Parameters.promotionFraction;
+
+	/** Statistics of the multi-fidelity evaluation */
+	private PromotionStatistics promotionStatistics = new PromotionStatistics(screeningLevels);
 
 	// Additional parameters can be added on how to perform the simulation
 
@@ -68,8 +133,12 @@ public class Optimisation  {
 	 */
 	public Optimisation(DecisionVector decisionVector) {
 
-		Optimisation.decisionVector = decisionVector;
-		Optimisation.fitnessValues = new ConcurrentHashMap<Integer, Double>();
+		this.decisionVector = decisionVector;
+		this.fitnessValues = new ConcurrentHashMap<Integer, Double>();
+		this.cutoffEvaluation = Parameters.cutoffEvaluation;
+		this.fitnessCutoff = Double.MAX_VALUE;
+		if (Parameters.fitnessCacheSize > 0)
+			this.fitnessCache = new FitnessCache(Parameters.fitnessCacheSize);
 		/*
 		 * A list of chromosomes is created depending on their type, in the order given
 		 * by the input file. They are all cast as Chromosome to allow the creation of a
@@ -102,7 +171,9 @@ public class Optimisation  {
 	}
 
 	/**
-	 * Optimisation method
+	 * Optimisation method. The state of the optimisation (fitness across
+	 * generations, statistics, cutoff) is specific to the instance, so several
+	 * instances can optimize at the same time in the same JVM.
 	 * 
 	 * @param decisionVector: DecisionVector Decision vector of the use case
 	 * @return optimisedValues: ArrayList<Object> Values for the optimal
@@ -113,14 +184,26 @@ public class Optimisation  {
 
 		System.out.println("\n \n *********** BEGINING OPTIMIZATION ***********");
 
-		final EvolutionStatistics<Double, DoubleMomentStatistics> statistics = EvolutionStatistics.ofNumber();
-
-		final Engine engine = Engine.builder(Optimisation::fitness, this.CODE).optimize(Optimize.MINIMUM)
-				.populationSize(populationSize) // Small value for tests
-				.build();
+		// empty the list of fitness values in case of a previous optimization
+		this.fitnessValues = new ConcurrentHashMap<Integer, Double>();
+		this.fitnessCutoff = Double.MAX_VALUE;
+		this.statistics = EvolutionStatistics.ofNumber();
+
+		// the pool created for this optimisation is shut down at the end
+		ForkJoinPool optimisationPool = null;
+		Executor evaluationExecutor = this.executor;
+		if (evaluationExecutor == null && parallelism > 0) {
+			optimisationPool = new ForkJoinPool(parallelism);
+			evaluationExecutor = optimisationPool;
+		}
 
-		final Phenotype bestConstellation = (Phenotype) engine.stream().limit(generationNb) // Small value for tests
-				.peek(r -> saveGeneration(r)).peek(statistics).collect(EvolutionResult.toBestPhenotype());
+		final Phenotype bestConstellation;
+		try {
+			bestConstellation = evolve(this.CODE, populationSize, generationNb, evaluationExecutor);
+		} finally {
+			if (optimisationPool != null)
+				optimisationPool.shutdown();
+		}
 
 		// Best constellation found
 		System.out.println(bestConstellation);
@@ -145,22 +228,55 @@ public class Optimisation  {
 		System.out.println("\n*********** END OF OPTIMIZATION ***********\n\n");
 		System.out.println(statistics + "\n");
 		System.out.println("Fitness across generation:" + fitnessValues);
+		if (fitnessCache != null)
+			System.out.println(fitnessCache);
+		if (Parameters.feasibilityCheck)
+			System.out.println(decisionVector.getFeasibilityChecker());
+		if (Parameters.lowerBoundPruning)
+			System.out.println(decisionVector.getRevisitLowerBound());
+		if (Parameters.visibilityCacheCapacity > 0)
+			System.out.println(VisibilityCache.getSharedCache());
+		if (multiFidelity)
+			System.out.println(promotionStatistics);
 
 		// Plot of the Cost Function
 
-
-		Plot plot=new Plot(fitnessValues,"Evolution of Revisit Time for " + Integer.toString(populationSize) + " individuals and "
-						+ Integer.toString(generationNb) + " generations",
-				"Iteration", "Cost Function");
-		// Create chart
-		
-		
-		// empty the list of fitness values in case of a second optimization following
-		fitnessValues = new ConcurrentHashMap<Integer, Double>();
+		if (displayPlot) {
+			Plot plot=new Plot(fitnessValues,"Evolution of Revisit Time for " + Integer.toString(populationSize) + " individuals and "
+							+ Integer.toString(generationNb) + " generations",
+					"Iteration", "Cost Function");
+			// Create chart
+		}
 
 		return optimisedValues;
 	}
 
+	/**
+	 * Run the evolution engine on the genotype of the decision vector.
+	 * 
+	 * @param code: Genotype(G) the genotype of the individuals
+	 * @param populationSize: int the number of individuals of a generation
+	 * @param generationNb: int the number of generations
+	 * @param evaluationExecutor: Executor the executor of the evaluations, null
+	 *        for the default executor of Jenetics
+	 * @return Phenotype(G, Double) - the best individual
+	 */
+	private <G extends Gene<?, G>> Phenotype<G, Double> evolve(Genotype<G> code, int populationSize,
+			int generationNb, Executor evaluationExecutor) {
+
+		// the whole population is evaluated at once by the batch evaluator
+		final Executor batchExecutor = evaluationExecutor != null ? evaluationExecutor : ForkJoinPool.commonPool();
+		final Engine.Builder<G, Double> builder = new Engine.Builder<G, Double>(
+				population -> evaluate(population, batchExecutor), code)
+						.optimize(Optimize.MINIMUM).populationSize(populationSize); // Small value for tests
+		if (evaluationExecutor != null)
+			builder.executor(evaluationExecutor);
+		final Engine<G, Double> engine = builder.build();
+
+		return engine.stream().limit(generationNb) // Small value for tests
+				.peek(r -> saveGeneration(r)).peek(statistics).collect(EvolutionResult.toBestPhenotype());
+	}
+
 	/**
 	 * Method called at each generation to save the fitness of the best individual
 	 * in the dictionary fitnessValues
@@ -168,7 +284,7 @@ public class Optimisation  {
 	 * @param rawEvolutionResult:Object the evolution result extracted from the
 	 *                                  engine at each generation.
 	 */
-	private static void saveGeneration(Object rawEvolutionResult) {
+	private void saveGeneration(Object rawEvolutionResult) {
 
 		EvolutionResult evolutionResult = (EvolutionResult) rawEvolutionResult;
 		Phenotype bestPhenotype = evolutionResult.bestPhenotype();
@@ -180,6 +296,11 @@ public class Optimisation  {
 		// put the best fitness in the storage
 		fitnessValues.put(generationIdx, bestFitness);
 
+		// the individuals which are worse than the worst individual of this generation
+		// don't need to be evaluated precisely
+		if (cutoffEvaluation)
+			fitnessCutoff = (double) evolutionResult.worstFitness();
+
 		System.out.println(
 				"\n\n------------------------------------- GENERATION " + generationIdx + " ------------------------");
 		System.out.println("BEST INDIVIDUAL: " + bestPhenotype);
@@ -190,45 +311,369 @@ public class Optimisation  {
 	}
 
 	/**
-	 * Fitness function using the cost function defined in the use case
+	 * Batch evaluator of the population, using the batch cost function defined in
+	 * the use case : the individuals which are not evaluated yet are decoded, the
+	 * duplicated ones are read in the fitness cache or evaluated only once, and the
+	 * remaining ones are evaluated together in the executor of the optimisation,
+	 * with the state shared by the generation.
 	 * 
-	 * @param currentGenotype: Genotype Set of values to be evaluated
-	 * @return cost: double Cost of the set of values
+	 * @param population: Seq(Phenotype) the population to evaluate
+	 * @param executor: Executor the executor of the evaluations
+	 * @return ISeq(Phenotype) - the population with the fitness of every
+	 *         individual, in the same order
 	 */
-	private static double fitness(final Genotype currentGenotype) { // Use decisionVector1
+	private <G extends Gene<?, G>> ISeq<Phenotype<G, Double>> evaluate(final Seq<Phenotype<G, Double>> population,
+			Executor executor) {
 
-		// compute the Objective Function from a sentinel constellation
 		System.out.println("\n---- COMPUTE OBJECTIVE FUNCTION -----");
 
-		DecisionVector decisionVector = Optimisation.decisionVector;
+		double cutoff = cutoffEvaluation ? fitnessCutoff : Double.MAX_VALUE;
 
-		/*
-		 * Values from the genotype are converted into an ArrayList<Object>, so we can
-		 * use the cost function defined in the decision vector.
-		 */
-		ArrayList<Object> listValues = new ArrayList<Object>();
-		for (int i = 0; i < currentGenotype.geneCount(); i++) {
-			if (decisionVector.get(i).isDouble()) {
-				DoubleChromosome doubleChr = (DoubleChromosome) currentGenotype.get(i);
-				listValues.add((Double) doubleChr.doubleValue());
-			} else if (decisionVector.get(i).isInteger()) {
+		// the costs of the individuals, null until they are known
+		Double[] costs = new Double[population.size()];
+
+		// the individuals to simulate, with the index of their key in the batch
+		ArrayList<DecisionValues> listIndividuals = new ArrayList<DecisionValues>();
+		ArrayList<ArrayList<Object>> listKeys = new ArrayList<ArrayList<Object>>();
+		HashMap<ArrayList<Object>, Integer> batchIndices = new HashMap<ArrayList<Object>, Integer>();
+		int[] individualBatchIndices = new int[population.size()];
+
+		for (int i = 0; i < population.size(); i++) {
+			Phenotype<G, Double> phenotype = population.get(i);
+			individualBatchIndices[i] = -1;
+			if (phenotype.isEvaluated())
+				continue;
+
+			DecisionValues values = decode(phenotype.genotype());
+			if (Parameters.verboseEvaluation)
+				System.out.print("EVALUATION OF THE GENOTYPE :" + phenotype.genotype() + "\n");
+
+			if (fitnessCache == null) {
+				individualBatchIndices[i] = listIndividuals.size();
+				listIndividuals.add(values);
+				continue;
+			}
+
+			// the duplicated individuals are read in the cache
+			ArrayList<Object> key = decisionVector.getCanonicalKey(values, Parameters.fitnessCacheTolerance);
+			Double cachedCost = fitnessCache.get(key, cutoff);
+			if (cachedCost != null) {
+				System.out.print("cost (already evaluated): " + cachedCost + "\n");
+				costs[i] = cachedCost;
+				continue;
+			}
+
+			// the duplicated individuals of the generation are evaluated once
+			Integer batchIndex = batchIndices.get(key);
+			if (batchIndex == null) {
+				batchIndex = listIndividuals.size();
+				batchIndices.put(key, batchIndex);
+				listIndividuals.add(values);
+				listKeys.add(key);
+			}
+			individualBatchIndices[i] = batchIndex;
+		}
+
+		boolean[] fullFidelity = new boolean[listIndividuals.size()];
+		ArrayList<Double> batchCosts = new ArrayList<Double>();
+		if (!listIndividuals.isEmpty())
+			batchCosts = evaluateBatch(listIndividuals, cutoff, executor, fullFidelity);
+
+		for (int batchIndex = 0; batchIndex < batchCosts.size(); batchIndex++) {
+			double cost = batchCosts.get(batchIndex);
+			// a cost greater than the cutoff may be only a lower bound, and the cost of
+			// an individual discarded by the screening is only an estimate
+			if (fitnessCache != null && fullFidelity[batchIndex])
+				fitnessCache.put(listKeys.get(batchIndex), cost, cost <= cutoff);
+			System.out.print("cost: " + cost + "\n");
+			Time.printTime(cost);
+		}
+
+		ArrayList<Phenotype<G, Double>> evaluatedPopulation = new ArrayList<Phenotype<G, Double>>();
+		for (int i = 0; i < population.size(); i++) {
+			Phenotype<G, Double> phenotype = population.get(i);
+			if (individualBatchIndices[i] >= 0)
+				phenotype = phenotype.withFitness(batchCosts.get(individualBatchIndices[i]));
+			else if (costs[i] != null)
+				phenotype = phenotype.withFitness(costs[i]);
+			evaluatedPopulation.add(phenotype);
+		}
+		return ISeq.of(evaluatedPopulation);
+	}
+
+	/**
+	 * Evaluate the individuals of a generation which are not known yet. Without
+	 * multi-fidelity, they are all evaluated at full fidelity. Otherwise, they are
+	 * screened level by level (see FidelityLevel) : the top promotionFraction of a
+	 * level, ranked by their cost at this level, are promoted to the next one, and
+	 * only the individuals promoted by the last level are evaluated at full
+	 * fidelity, with the cutoff. The individuals discarded by a level get an
+	 * estimated cost, greater than the cost of every individual which went further
+	 * and in the order of their screening : the worst cost of the individuals
+	 * which went further, plus the difference between their screening cost and
+	 * the one of the worst individual promoted by their level.
+	 * 
+	 * @param listIndividuals: ArrayList(DecisionValues) the individuals to
+	 *                         evaluate
+	 * @param cutoff:          double the cutoff of the full fidelity evaluations
+	 * @param executor:        Executor the executor of the evaluations
+	 * @param fullFidelity:    boolean[] filled with true for the individuals
+	 *                         evaluated at full fidelity
+	 * @return ArrayList(Double) - the cost of each individual, in the same order
+	 */
+	private ArrayList<Double> evaluateBatch(final ArrayList<DecisionValues> listIndividuals, double cutoff,
+			Executor executor, boolean[] fullFidelity) {
+
+		int nbIndividuals = listIndividuals.size();
+		if (!multiFidelity || screeningLevels.isEmpty() || nbIndividuals <= 1) {
+			Arrays.fill(fullFidelity, true);
+			return decisionVector.costFunctionBatch(listIndividuals, cutoff, executor);
+		}
+
+		// the individuals still screened, and the ranking of the individuals at each
+		// level
+		ArrayList<Integer> candidates = new ArrayList<Integer>();
+		for (int index = 0; index < nbIndividuals; index++) {
+			candidates.add(index);
+		}
+		ArrayList<ArrayList<Integer>> listRankings = new ArrayList<ArrayList<Integer>>();
+
+		double[] screeningCosts = new double[nbIndividuals];
+		int[] discardLevels = new int[nbIndividuals];
+		Arrays.fill(discardLevels, -1);
+		double[] worstPromotedCosts = new double[screeningLevels.size()];
+
+		for (int level = 0; level < screeningLevels.size(); level++) {
+			long start = System.nanoTime();
+
+			ArrayList<DecisionValues> listCandidates = new ArrayList<DecisionValues>();
+			for (int index : candidates) {
+				listCandidates.add(listIndividuals.get(index));
+			}
+			ArrayList<Double> levelCosts = decisionVector.costFunctionBatch(listCandidates, Double.MAX_VALUE,
+					executor, screeningLevels.get(level));
+
+			// rank the candidates by their cost at this level
+			ArrayList<Integer> ranking = new ArrayList<Integer>();
+			for (int rank = 0; rank < candidates.size(); rank++) {
+				ranking.add(rank);
+			}
+			ranking.sort((rank1, rank2) -> Double.compare(levelCosts.get(rank1), levelCosts.get(rank2)));
+
+			int nbPromoted = Math.max(1, (int) Math.ceil(promotionFraction * candidates.size()));
+			ArrayList<Integer> promoted = new ArrayList<Integer>();
+			ArrayList<Integer> rankedIndividuals = new ArrayList<Integer>();
+			for (int rank = 0; rank < ranking.size(); rank++) {
+				int candidate = ranking.get(rank);
+				int index = candidates.get(candidate);
+				rankedIndividuals.add(index);
+				if (rank < nbPromoted) {
+					promoted.add(index);
+				} else {
+					discardLevels[index] = level;
+					screeningCosts[index] = levelCosts.get(candidate);
+				}
+			}
+			worstPromotedCosts[level] = levelCosts.get(ranking.get(nbPromoted - 1));
+			listRankings.add(rankedIndividuals);
+
+			promotionStatistics.addScreening(level, candidates.size(), nbPromoted, System.nanoTime() - start);
+			candidates = promoted;
+		}
+
+		// full fidelity evaluation of the individuals promoted by every level
+		long start = System.nanoTime();
+		ArrayList<DecisionValues> listCandidates = new ArrayList<DecisionValues>();
+		for (int index : candidates) {
+			listCandidates.add(listIndividuals.get(index));
+		}
+		ArrayList<Double> fullCosts = decisionVector.costFunctionBatch(listCandidates, cutoff, executor);
+		promotionStatistics.addFullEvaluation(candidates.size(), System.nanoTime() - start);
+
+		double[] costs = new double[nbIndividuals];
+		double worstCost = -Double.MAX_VALUE;
+		int bestIndex = candidates.get(0);
+		for (int candidate = 0; candidate < candidates.size(); candidate++) {
+			int index = candidates.get(candidate);
+			costs[index] = fullCosts.get(candidate);
+			fullFidelity[index] = true;
+			worstCost = Math.max(worstCost, costs[index]);
+			if (costs[index] < costs[bestIndex])
+				bestIndex = index;
+		}
+
+		// estimated costs of the discarded individuals, from the last level
+		for (int level = screeningLevels.size() - 1; level >= 0; level--) {
+			double levelWorstCost = worstCost;
+			for (int index = 0; index < nbIndividuals; index++) {
+				if (discardLevels[index] == level) {
+					costs[index] = Math.min(Double.MAX_VALUE,
+							worstCost + screeningCosts[index] - worstPromotedCosts[level]);
+					levelWorstCost = Math.max(levelWorstCost, costs[index]);
+				}
+			}
+			worstCost = levelWorstCost;
+		}
+
+		// rank at each level of the best individual
+		for (int level = 0; level < screeningLevels.size(); level++) {
+			ArrayList<Integer> rankedIndividuals = listRankings.get(level);
+			promotionStatistics.addBestRank(level,
+					(double) rankedIndividuals.indexOf(bestIndex) / rankedIndividuals.size());
+		}
+
+		ArrayList<Double> listCosts = new ArrayList<Double>();
+		for (double cost : costs) {
+			listCosts.add(cost);
+		}
+		return listCosts;
+	}
+
+	/**
+	 * Convert the values of a genotype into primitive values, so we can use the
+	 * cost function defined in the decision vector without boxing the genes.
+	 * 
+	 * @param currentGenotype: Genotype Set of values to convert
+	 * @return values: DecisionValues the values of the decision vector
+	 */
+	private DecisionValues decode(final Genotype currentGenotype) {
+		DecisionValues values = decisionVector.createValues();
+		for (int i = 0; i < currentGenotype.length(); i++) {
+			if (decisionVector.get(i).isInteger()) {
 				IntegerChromosome intChr = (IntegerChromosome) currentGenotype.get(i);
-				listValues.add((Integer) intChr.intValue());
+				values.setInt(i, intChr.intValue());
 			}
-			// Solution provisoire pour gérer les null du usecase1
+			// the variables which are not Integer are Double (see the constructor)
 			else {
 				DoubleChromosome doubleChr = (DoubleChromosome) currentGenotype.get(i);
-				listValues.add((Double) doubleChr.doubleValue());
+				values.setDouble(i, doubleChr.doubleValue());
 			}
 		}
-		System.out.print("EVALUATION OF THE GENOTYPE :" + listValues + "\n");
+		return values;
+	}
+
+	/**
+	 * Enable or disable the cutoff of the evaluations. With the cutoff, the
+	 * simulation of an individual is stopped as soon as its cost is known to be
+	 * greater than the worst fitness of the last generation : its fitness is then
+	 * only a lower bound, greater than this worst fitness.
+	 * 
+	 * @param cutoffEvaluation: Boolean true to enable the cutoff
+	 */
+	public void setCutoffEvaluation(Boolean cutoffEvaluation) {
+		this.cutoffEvaluation = cutoffEvaluation;
+	}
+
+	/**
+	 * Enable or disable the multi-fidelity evaluation : the individuals are
+	 * screened at the screening levels, and only the top promotion fraction of
+	 * every level is evaluated at full fidelity.
+	 * 
+	 * @param multiFidelity: Boolean true to enable the multi-fidelity evaluation
+	 */
+	public void setMultiFidelity(Boolean multiFidelity) {
+		this.multiFidelity = multiFidelity;
+	}
+
+	/**
+	 * Set the screening levels of the multi-fidelity evaluation. The statistics of
+	 * the promotions are reset.
+	 * 
+	 * @param screeningLevels: List(FidelityLevel) the levels, from the cheapest
+	 *                         one
+	 */
+	public void setScreeningLevels(List<FidelityLevel> screeningLevels) {
+		this.screeningLevels = screeningLevels;
+		this.promotionStatistics = new PromotionStatistics(screeningLevels);
+	}
+
+	/**
+	 * Set the fraction of the individuals of a screening level promoted to the
+	 * next one.
+	 * 
+	 * @param promotionFraction: double the fraction, in ]0, 1]
+	 */
+	public void setPromotionFraction(double promotionFraction) {
+		this.promotionFraction = promotionFraction;
+	}
 
-		double cost = decisionVector.costFunction(listValues);
+	/**
+	 * Get the statistics of the multi-fidelity evaluation.
+	 * 
+	 * @return promotionStatistics: PromotionStatistics the statistics
+	 */
+	public PromotionStatistics getPromotionStatistics() {
+		return promotionStatistics;
+	}
+
+	/**
+	 * Set the executor of the evaluations of the individuals. It is not shut down
+	 * at the end of the optimisation.
+	 * 
+	 * @param executor: Executor the executor, null to use the parallelism level
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the number of individuals evaluated in parallel, used if no executor is
+	 * given : a pool of this size is created for each optimisation.
+	 * 
+	 * @param parallelism: int the number of threads, 0 to use the default executor
+	 *                     of Jenetics
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Enable or disable the plot of the fitness at the end of the optimisation.
+	 * 
+	 * @param displayPlot: Boolean true to display the plot
+	 */
+	public void setDisplayPlot(Boolean displayPlot) {
+		this.displayPlot = displayPlot;
+	}
+
+	/**
+	 * Get the fitness of the best individual of each generation of the last
+	 * optimisation.
+	 * 
+	 * @return fitnessValues: ConcurrentHashMap(Integer, Double) the fitness by
+	 *         generation
+	 */
+	public ConcurrentHashMap<Integer, Double> getFitnessValues() {
+		return fitnessValues;
+	}
+
+	/**
+	 * Get the statistics of the last optimisation.
+	 * 
+	 * @return statistics: EvolutionStatistics the statistics, null before the
+	 *         first optimisation
+	 */
+	public EvolutionStatistics<Double, DoubleMomentStatistics> getStatistics() {
+		return statistics;
+	}
 
-		System.out.print("cost: " + cost + "\n");
-		Time.printTime(cost);
+	/**
+	 * Set the cache of the fitness of the individuals.
+	 * 
+	 * @param fitnessCache: FitnessCache the cache, null to always compute the
+	 *                      fitness
+	 */
+	public void setFitnessCache(FitnessCache fitnessCache) {
+		this.fitnessCache = fitnessCache;
+	}
 
-		return cost;
+	/**
+	 * Get the cache of the fitness of the individuals.
+	 * 
+	 * @return fitnessCache: FitnessCache the cache, null if there is none
+	 */
+	public FitnessCache getFitnessCache() {
+		return fitnessCache;
 	}
 
 	/**
@@ -0,0 +1,112 @@
+package optimisation;
+
+import java.util.List;
+
+import simulation.FidelityLevel;
+
+/**
+ * Statistics of the multi-fidelity evaluation of an optimisation (see
+ * Optimisation.setMultiFidelity), to tune the screening levels and the
+ * promotion fraction. For each screening level : the number of individuals
+ * screened and promoted, the time spent, and the worst rank at which the best
+ * individual of a generation was promoted (the fraction of the individuals
+ * screened which were ranked before it). A worst rank close to the promotion
+ * fraction means that the level nearly discarded the best individual : its
+ * fidelity is too low or the fraction too small.
+ *
+ * Thread safety : the class is thread safe, the access to the counters being
+ * synchronized.
+ *
+ */
+public class PromotionStatistics {
+
+	/** Screening levels, from the cheapest one */
+	private final List<FidelityLevel> listLevels;
+
+	private final long[] nbScreened;
+	private final long[] nbPromoted;
+	private final long[] screeningNanos;
+	private final double[] worstBestRank;
+
+	/** Number of individuals evaluated at full fidelity */
+	private long nbFullEvaluations;
+	private long fullEvaluationNanos;
+
+	/**
+	 * Constructor of the statistics.
+	 *
+	 * @param listLevels: List(FidelityLevel) the screening levels, from the
+	 *                    cheapest one
+	 */
+	public PromotionStatistics(List<FidelityLevel> listLevels) {
+		this.listLevels = listLevels;
+		this.nbScreened = new long[listLevels.size()];
+		this.nbPromoted = new long[listLevels.size()];
+		this.screeningNanos = new long[listLevels.size()];
+		this.worstBestRank = new double[listLevels.size()];
+	}
+
+	/**
+	 * Record the screening of individuals at a level.
+	 *
+	 * @param level:    int index of the level
+	 * @param screened: int number of individuals screened
+	 * @param promoted: int number of individuals promoted to the next level
+	 * @param nanos:    long duration of the screening
+	 */
+	public synchronized void addScreening(int level, int screened, int promoted, long nanos) {
+		nbScreened[level] += screened;
+		nbPromoted[level] += promoted;
+		screeningNanos[level] += nanos;
+	}
+
+	/**
+	 * Record the rank at a level of the best individual of a generation.
+	 *
+	 * @param level: int index of the level
+	 * @param rank:  double fraction of the individuals screened at the level which
+	 *               were ranked before it
+	 */
+	public synchronized void addBestRank(int level, double rank) {
+		worstBestRank[level] = Math.max(worstBestRank[level], rank);
+	}
+
+	/**
+	 * Record the evaluation of individuals at full fidelity.
+	 *
+	 * @param evaluated: int number of individuals evaluated
+	 * @param nanos:     long duration of the evaluation
+	 */
+	public synchronized void addFullEvaluation(int evaluated, long nanos) {
+		nbFullEvaluations += evaluated;
+		fullEvaluationNanos += nanos;
+	}
+
+	public synchronized long getNbScreened(int level) {
+		return nbScreened[level];
+	}
+
+	public synchronized long getNbPromoted(int level) {
+		return nbPromoted[level];
+	}
+
+	public synchronized double getWorstBestRank(int level) {
+		return worstBestRank[level];
+	}
+
+	public synchronized long getNbFullEvaluations() {
+		return nbFullEvaluations;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder("PromotionStatistics :");
+		for (int level = 0; level < listLevels.size(); level++) {
+			builder.append("\n  level " + level + " " + listLevels.get(level) + " : " + nbPromoted[level]
+					+ " promoted out of " + nbScreened[level] + " screened in " + screeningNanos[level] / 1e9
+					+ " s, best individual ranked at worst after " + 100 * worstBestRank[level] + " % of them");
+		}
+		builder.append("\n  full fidelity : " + nbFullEvaluations + " evaluated in " + fullEvaluationNanos / 1e9 + " s");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,478 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+
+import constellation.Constellation;
+import constellation.Satellite;
+import zone.Zone;
+
+/**
+ * Max revisit of a constellation over the latitude/longitude mesh of a zone,
+ * computed on an adaptive subset of its points. The max revisit is set by a few
+ * points, so instead of simulating every point of the mesh :
+ *
+ * - the mesh is first simulated on a coarse grid (one row and one column out of
+ * 2^nbLevels), which splits it into cells whose corners are simulated,
+ *
+ * - for each cell, an upper bound of the revisit of the points inside is
+ * computed from the visibilities of its corners : the footprint of a satellite
+ * is convex, so while it contains the 4 corners it contains the whole cell. The
+ * intervals during which a satellite sees all the corners are merged for all
+ * the satellites, and the longest gap between them bounds the revisit of the
+ * cell,
+ *
+ * - the cells whose bound exceeds the max revisit of the points already
+ * simulated by more than the tolerance are split in 4, and only their new
+ * corners are simulated. The visibilities of the points already simulated are
+ * reused.
+ *
+ * The refinement stops when no cell can contain a worse point. The max revisit
+ * found is then the one of the full mesh within the tolerance : it is the max
+ * revisit of points of the mesh, and no other point can exceed it by more than
+ * the tolerance. The tolerance also absorbs the approximations of the bound :
+ * the sides of a cell follow the parallels instead of great circles, and the
+ * visibility zone of a point is not exactly a cap on the ellipsoid.
+ *
+ * A zone which is not meshed as a full grid (see
+ * Zone.computeLatLonStandardMeshing), for example a mesh clipped by its
+ * polygon, is simulated on all its points.
+ *
+ * The visibilities are computed by the sweep engine (see
+ * SweepVisibilityEngine), with the same rules of revisit as the simulation and
+ * the time step scale of the fidelity of the batch (see FidelityLevel).
+ *
+ * The geometry of the grid is computed once in the constructor (see
+ * BatchContext.getAdaptiveMesh), and each computation keeps its state in its
+ * own Computation.
+ *
+ * Thread safety : the class is immutable after the construction, it can be
+ * shared by computations running in parallel.
+ *
+ */
+public class AdaptiveMeshRevisit {
+
+	/** Points of the mesh of the zone, row by row */
+	private final ArrayList<GeodeticPoint> listMeshingPoints;
+
+	/** Number of rows (latitudes) and columns (longitudes) of the grid */
+	private final int nbRows, nbCols;
+
+	/** Number of rows and columns between two points of the coarse grid */
+	private final int coarseStep;
+
+	/** Tolerance on the max revisit (s) */
+	private final double tolerance;
+
+	/** Factor applied to the time step of the sweep engines */
+	private final double maxcheckScale;
+
+	/**
+	 * Constructor of the computation, with the time step of the full fidelity.
+	 *
+	 * @param zone      : the zone, meshed as a grid
+	 * @param nbLevels  : number of refinements from the coarse grid to the mesh
+	 * @param tolerance : tolerance on the max revisit (s)
+	 */
+	public AdaptiveMeshRevisit(Zone zone, int nbLevels, double tolerance) {
+		this(zone.getListMeshingPoints(), nbLevels, tolerance, 1.0);
+	}
+
+	/**
+	 * Constructor of the computation on a list of points, with a scaled time step.
+	 *
+	 * @param listMeshingPoints : the points of the mesh, row by row if it is a grid
+	 * @param nbLevels          : number of refinements from the coarse grid to the
+	 *                          mesh
+	 * @param tolerance         : tolerance on the max revisit (s)
+	 * @param maxcheckScale     : factor applied to the adaptative maxcheck used as
+	 *                          time step by the sweep engines
+	 */
+	public AdaptiveMeshRevisit(ArrayList<GeodeticPoint> listMeshingPoints, int nbLevels, double tolerance,
+			double maxcheckScale) {
+		this.listMeshingPoints = listMeshingPoints;
+		this.tolerance = tolerance;
+		this.maxcheckScale = maxcheckScale;
+
+		// the grid is meshed row by row, with the same longitudes in every row
+		int nbPoints = listMeshingPoints.size();
+		int firstRowSize = 0;
+		while (firstRowSize < nbPoints
+				&& listMeshingPoints.get(firstRowSize).getLatitude() == listMeshingPoints.get(0).getLatitude()) {
+			firstRowSize++;
+		}
+		if (firstRowSize > 0 && nbPoints % firstRowSize == 0 && isGrid(firstRowSize)) {
+			this.nbCols = firstRowSize;
+			this.nbRows = nbPoints / firstRowSize;
+			this.coarseStep = 1 << nbLevels;
+		} else {
+			// not a grid : every point is a corner
+			this.nbCols = Math.max(nbPoints, 1);
+			this.nbRows = 1;
+			this.coarseStep = 1;
+		}
+	}
+
+	/**
+	 * @return true if every row of the mesh has the latitude of its first point and
+	 *         the longitudes of the first row, which is not the case of a mesh
+	 *         clipped by the polygon of the zone
+	 */
+	private boolean isGrid(int rowSize) {
+		for (int pointIndex = 0; pointIndex < listMeshingPoints.size(); pointIndex++) {
+			GeodeticPoint point = listMeshingPoints.get(pointIndex);
+			if (point.getLatitude() != listMeshingPoints.get(pointIndex - pointIndex % rowSize).getLatitude()
+					|| point.getLongitude() != listMeshingPoints.get(pointIndex % rowSize).getLongitude())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Compute the max revisit of the constellation over the mesh, within the
+	 * tolerance.
+	 *
+	 * @param constellation : the constellation
+	 * @param t0            : beginning of the simulation
+	 * @param tf            : end of the simulation
+	 * @param cutoff        : the computation stops as soon as the max revisit is
+	 *                      known to be greater, Double.MAX_VALUE to disable it
+	 * @return the max revisit (s), a lower bound greater than the cutoff if the
+	 *         computation has been cut off, Double.MAX_VALUE if a point is never
+	 *         seen, -1 if the mesh is empty
+	 */
+	public double computeMaxRevisit(Constellation constellation, AbsoluteDate t0, AbsoluteDate tf, double cutoff) {
+		return compute(constellation, t0, tf, cutoff).getMaxRevisit();
+	}
+
+	/**
+	 * Compute the max revisit of the constellation over the mesh, within the
+	 * tolerance, with the statistics of the computation.
+	 *
+	 * @param constellation : the constellation
+	 * @param t0            : beginning of the simulation
+	 * @param tf            : end of the simulation
+	 * @param cutoff        : the computation stops as soon as the max revisit is
+	 *                      known to be greater, Double.MAX_VALUE to disable it
+	 * @return the computation (see computeMaxRevisit for its max revisit)
+	 */
+	public Computation compute(Constellation constellation, AbsoluteDate t0, AbsoluteDate tf, double cutoff) {
+		Computation computation = new Computation(constellation, t0, tf);
+		computation.run(cutoff);
+		return computation;
+	}
+
+	/**
+	 * State of the computation of the max revisit of a constellation : the
+	 * visibilities of the points already simulated, and the statistics.
+	 */
+	public class Computation {
+
+		private final Constellation constellation;
+		private final AbsoluteDate t0, tf;
+
+		/** Duration of the simulation (s) */
+		private final double duration;
+
+		/**
+		 * Visibility intervals of the points already simulated, by index in the mesh :
+		 * for each satellite, the dates of beginning and end of each interval in
+		 * chronological order (s since t0)
+		 */
+		private final HashMap<Integer, double[][]> pointIntervals = new HashMap<Integer, double[][]>();
+
+		/** Max revisit found (s) */
+		private double maxRevisit = -1;
+
+		/** Number of refinements */
+		private int nbRefinements = 0;
+
+		private Computation(Constellation constellation, AbsoluteDate t0, AbsoluteDate tf) {
+			this.constellation = constellation;
+			this.t0 = t0;
+			this.tf = tf;
+			this.duration = tf.durationFrom(t0);
+		}
+
+		private void run(double cutoff) {
+			if (listMeshingPoints.isEmpty())
+				return;
+
+			// cells of the coarse grid, as {first row, last row, first column, last
+			// column}
+			int[] rowBreaks = computeBreaks(nbRows);
+			int[] colBreaks = computeBreaks(nbCols);
+			ArrayList<int[]> listCells = new ArrayList<int[]>();
+			for (int i = 0; i < Math.max(rowBreaks.length - 1, 1); i++) {
+				for (int j = 0; j < Math.max(colBreaks.length - 1, 1); j++) {
+					listCells.add(new int[] { rowBreaks[i], rowBreaks[Math.min(i + 1, rowBreaks.length - 1)],
+							colBreaks[j], colBreaks[Math.min(j + 1, colBreaks.length - 1)] });
+				}
+			}
+
+			simulateCorners(listCells);
+
+			while (!listCells.isEmpty() && maxRevisit <= cutoff) {
+
+				// the cells which may contain a point worse than the ones already simulated
+				ArrayList<int[]> listRefinedCells = new ArrayList<int[]>();
+				for (int[] cell : listCells) {
+					if (hasInnerPoints(cell) && computeCellBound(cell) > maxRevisit + tolerance) {
+						listRefinedCells.addAll(split(cell));
+					}
+				}
+				if (listRefinedCells.isEmpty())
+					break;
+
+				nbRefinements++;
+				simulateCorners(listRefinedCells);
+				listCells = listRefinedCells;
+			}
+		}
+
+		/**
+		 * @return the max revisit (s), a lower bound greater than the cutoff if the
+		 *         computation has been cut off, Double.MAX_VALUE if a point is never
+		 *         seen, -1 if the mesh is empty
+		 */
+		public double getMaxRevisit() {
+			return maxRevisit;
+		}
+
+		/**
+		 * @return the number of mesh points simulated
+		 */
+		public int getNbPointsSimulated() {
+			return pointIntervals.size();
+		}
+
+		/**
+		 * @return the number of mesh points simulated which never see a satellite
+		 */
+		public int getNbUnseenPoints() {
+			int nbUnseenPoints = 0;
+			for (double[][] intervals : pointIntervals.values()) {
+				boolean seen = false;
+				for (double[] satIntervals : intervals) {
+					seen |= satIntervals.length > 0;
+				}
+				if (!seen)
+					nbUnseenPoints++;
+			}
+			return nbUnseenPoints;
+		}
+
+		/**
+		 * @return the number of refinements
+		 */
+		public int getNbRefinements() {
+			return nbRefinements;
+		}
+
+		/**
+		 * Simulate the corners of the cells which have not been simulated yet.
+		 *
+		 * The max revisit is updated with the ones of the new points.
+		 */
+		private void simulateCorners(ArrayList<int[]> listCells) {
+
+			ArrayList<Integer> listNewPoints = new ArrayList<Integer>();
+			HashSet<Integer> newPoints = new HashSet<Integer>();
+			ArrayList<GeodeticPoint> listNewGeodeticPoints = new ArrayList<GeodeticPoint>();
+			for (int[] cell : listCells) {
+				for (int pointIndex : getCorners(cell)) {
+					if (!pointIntervals.containsKey(pointIndex) && newPoints.add(pointIndex)) {
+						listNewPoints.add(pointIndex);
+						listNewGeodeticPoints.add(listMeshingPoints.get(pointIndex));
+					}
+				}
+			}
+			if (listNewPoints.isEmpty())
+				return;
+
+			// visibilities of the new points, satellite by satellite
+			SweepVisibilityEngine engine = new SweepVisibilityEngine(new ZoneModel(listNewGeodeticPoints, false),
+					maxcheckScale);
+			ArrayList<Satellite> listSatellites = constellation.getSatellitesList();
+			double[][][] intervals = new double[listNewPoints.size()][listSatellites.size()][];
+			for (int satIndex = 0; satIndex < listSatellites.size(); satIndex++) {
+				VisibilityEventBuffer events = new VisibilityEventBuffer();
+				engine.computeVisibilities(listSatellites.get(satIndex), t0, tf, events);
+				events.sortChronologically();
+				double[][] satIntervals = toIntervals(events, listNewPoints.size(), duration);
+				for (int k = 0; k < listNewPoints.size(); k++) {
+					intervals[k][satIndex] = satIntervals[k];
+				}
+			}
+
+			for (int k = 0; k < listNewPoints.size(); k++) {
+				pointIntervals.put(listNewPoints.get(k), intervals[k]);
+				maxRevisit = Math.max(maxRevisit, computeMaxGap(intervals[k], duration));
+			}
+		}
+
+		/**
+		 * Upper bound of the revisit of the points of a cell : the longest gap between
+		 * the intervals during which a satellite sees the 4 corners.
+		 */
+		private double computeCellBound(int[] cell) {
+			int[] corners = getCorners(cell);
+			int nbSatellites = pointIntervals.get(corners[0]).length;
+			double[][] cellIntervals = new double[nbSatellites][];
+			for (int satIndex = 0; satIndex < nbSatellites; satIndex++) {
+				double[] intersection = pointIntervals.get(corners[0])[satIndex];
+				for (int k = 1; k < corners.length; k++) {
+					intersection = intersect(intersection, pointIntervals.get(corners[k])[satIndex]);
+				}
+				cellIntervals[satIndex] = intersection;
+			}
+			return computeMaxGap(cellIntervals, duration);
+		}
+	}
+
+	/**
+	 * @return the rows (or columns) of the coarse grid : one out of coarseStep, and
+	 *         the last one
+	 */
+	private int[] computeBreaks(int size) {
+		int nbBreaks = (size - 1) / coarseStep + 1;
+		boolean lastIncluded = (size - 1) % coarseStep == 0;
+		int[] breaks = new int[lastIncluded ? nbBreaks : nbBreaks + 1];
+		for (int k = 0; k < nbBreaks; k++) {
+			breaks[k] = k * coarseStep;
+		}
+		breaks[breaks.length - 1] = size - 1;
+		return breaks;
+	}
+
+	/**
+	 * @return true if some points of the mesh of the cell are not its corners
+	 */
+	private boolean hasInnerPoints(int[] cell) {
+		return cell[1] - cell[0] > 1 || cell[3] - cell[2] > 1;
+	}
+
+	/**
+	 * @return the (up to) 4 cells obtained by splitting the cell in its middle
+	 */
+	private ArrayList<int[]> split(int[] cell) {
+		int[][] rowHalves = splitRange(cell[0], cell[1]);
+		int[][] colHalves = splitRange(cell[2], cell[3]);
+		ArrayList<int[]> listChildren = new ArrayList<int[]>();
+		for (int[] rows : rowHalves) {
+			for (int[] cols : colHalves) {
+				listChildren.add(new int[] { rows[0], rows[1], cols[0], cols[1] });
+			}
+		}
+		return listChildren;
+	}
+
+	private int[][] splitRange(int first, int last) {
+		if (last - first <= 1)
+			return new int[][] { { first, last } };
+		int middle = (first + last) / 2;
+		return new int[][] { { first, middle }, { middle, last } };
+	}
+
+	/**
+	 * @return the indices in the mesh of the corners of the cell
+	 */
+	private int[] getCorners(int[] cell) {
+		return new int[] { cell[0] * nbCols + cell[2], cell[0] * nbCols + cell[3], cell[1] * nbCols + cell[2],
+				cell[1] * nbCols + cell[3] };
+	}
+
+	/**
+	 * Convert the events of a satellite into the visibility intervals of each
+	 * point, a visibility which doesn't end being closed at the end of the
+	 * simulation.
+	 */
+	private static double[][] toIntervals(VisibilityEventBuffer events, int nbPoints, double duration) {
+		double[][] intervals = new double[nbPoints][];
+		int[] sizes = new int[nbPoints];
+		boolean[] open = new boolean[nbPoints];
+		for (int k = 0; k < nbPoints; k++) {
+			intervals[k] = new double[8];
+		}
+		for (int i = 0; i < events.size(); i++) {
+			int point = events.getPointIndex(i);
+			if (events.isRising(i) == open[point])
+				continue;
+			if (sizes[point] == intervals[point].length)
+				intervals[point] = Arrays.copyOf(intervals[point], 2 * sizes[point]);
+			intervals[point][sizes[point]++] = events.getTime(i);
+			open[point] = events.isRising(i);
+		}
+		for (int k = 0; k < nbPoints; k++) {
+			if (open[k]) {
+				if (sizes[k] == intervals[k].length)
+					intervals[k] = Arrays.copyOf(intervals[k], sizes[k] + 1);
+				intervals[k][sizes[k]++] = duration;
+			}
+			intervals[k] = Arrays.copyOf(intervals[k], sizes[k]);
+		}
+		return intervals;
+	}
+
+	/**
+	 * @return the intersection of two lists of chronological intervals
+	 */
+	private static double[] intersect(double[] first, double[] second) {
+		double[] intersection = new double[first.length + second.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < first.length && j < second.length) {
+			double start = Math.max(first[i], second[j]);
+			double end = Math.min(first[i + 1], second[j + 1]);
+			if (start < end) {
+				intersection[size++] = start;
+				intersection[size++] = end;
+			}
+			if (first[i + 1] < second[j + 1]) {
+				i += 2;
+			} else {
+				j += 2;
+			}
+		}
+		return Arrays.copyOf(intersection, size);
+	}
+
+	/**
+	 * Longest gap between the union of the intervals of several satellites, with
+	 * the same rules as the simulation : the gaps from the beginning and until the
+	 * end of the simulation are included.
+	 *
+	 * @return the longest gap (s), Double.MAX_VALUE if there is no interval
+	 */
+	private static double computeMaxGap(double[][] satIntervals, double duration) {
+		int nbIntervals = 0;
+		for (double[] intervals : satIntervals) {
+			nbIntervals += intervals.length / 2;
+		}
+		if (nbIntervals == 0)
+			return Double.MAX_VALUE;
+
+		double[][] allIntervals = new double[nbIntervals][];
+		int k = 0;
+		for (double[] intervals : satIntervals) {
+			for (int i = 0; i < intervals.length; i += 2) {
+				allIntervals[k++] = new double[] { intervals[i], intervals[i + 1] };
+			}
+		}
+		Arrays.sort(allIntervals, (i1, i2) -> Double.compare(i1[0], i2[0]));
+
+		double maxGap = 0;
+		double lastEnd = 0;
+		for (double[] interval : allIntervals) {
+			maxGap = Math.max(maxGap, interval[0] - lastEnd);
+			lastEnd = Math.max(lastEnd, interval[1]);
+		}
+		return Math.max(maxGap, duration - lastEnd);
+	}
+}
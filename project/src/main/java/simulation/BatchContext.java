@@ -0,0 +1,142 @@
+package simulation;
+
+import java.util.Map;
+
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.frames.TopocentricFrame;
+
+import utils.Parameters;
+import zone.Zone;
+
+/**
+ * State shared by the simulations of a batch of individuals (typically all the
+ * evaluations of an optimisation), which only depends on the zone to explore :
+ * the precomputed model of the mesh (positions, zenith directions and
+ * topocentric frames of the mesh points, see ZoneModel) and the sweep engine
+ * which reads it. It is computed once for the batch instead of once per
+ * individual. The context also gives the fidelity of the simulations (see
+ * FidelityLevel), the mesh of the zone being built with its resolution, and
+ * the adaptive meshing of the zone at this fidelity (see AdaptiveMeshRevisit).
+ *
+ * The transforms between the inertial frame and the Earth frame are not stored
+ * here : they are already cached by Orekit for the frames of Parameters, and
+ * shared by all the threads.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate the context with the zone to explore, or with its model.
+ *
+ * - Give it to each simulation of the batch (see the constructor of
+ * Simulation).
+ *
+ * Thread safety : the class is immutable after the construction, except the
+ * adaptive meshing which is built by the first synchronized call to
+ * getAdaptiveMesh : it can be shared by simulations running in parallel. The
+ * zone must not be modified afterwards.
+ *
+ */
+public class BatchContext {
+
+	/** Precomputed model of the mesh of the zone */
+	private final ZoneModel zoneModel;
+
+	/** Sweep engine built for the mesh of the zone */
+	private final SweepVisibilityEngine sweepEngine;
+
+	/**
+	 * Sweep engine rasterizing the footprints on the grid of the mesh, sharing the
+	 * same model
+	 */
+	private final SweepVisibilityEngine rasterSweepEngine;
+
+	/** Fidelity of the simulations of the batch */
+	private final FidelityLevel fidelity;
+
+	/**
+	 * Adaptive meshing of the zone, with the parameters of Parameters and the time
+	 * step scale of the fidelity, built when first needed
+	 */
+	private AdaptiveMeshRevisit adaptiveMesh;
+
+	/**
+	 * Constructor of the context.
+	 *
+	 * @param zone : the zone to explore, already meshed
+	 */
+	public BatchContext(Zone zone) {
+		this(new ZoneModel(zone));
+	}
+
+	/**
+	 * Constructor of the context from the model of a zone.
+	 *
+	 * @param zoneModel : the model of the zone to explore, built from the zone
+	 *                  (with the frames of its mesh points)
+	 */
+	public BatchContext(ZoneModel zoneModel) {
+		this(zoneModel, FidelityLevel.createFullFidelity());
+	}
+
+	/**
+	 * Constructor of the context of simulations at a given fidelity.
+	 *
+	 * @param zoneModel : the model of the zone to explore, meshed with the
+	 *                  resolution of the fidelity
+	 * @param fidelity  : the fidelity of the simulations
+	 */
+	public BatchContext(ZoneModel zoneModel, FidelityLevel fidelity) {
+		this.zoneModel = zoneModel;
+		this.fidelity = fidelity;
+		this.sweepEngine = new SweepVisibilityEngine(zoneModel, fidelity.getMaxcheckScale());
+		this.rasterSweepEngine = new SweepVisibilityEngine(zoneModel, fidelity.getMaxcheckScale(), true);
+	}
+
+	public Zone getZone() {
+		return zoneModel.getZone();
+	}
+
+	public ZoneModel getZoneModel() {
+		return zoneModel;
+	}
+
+	public Map<GeodeticPoint, Integer> getPointIndices() {
+		return zoneModel.getPointIndices();
+	}
+
+	/**
+	 * Get the topocentric frame of a mesh point.
+	 *
+	 * @param pointIndex : index of the point in the list of the meshing points
+	 * @return the frame
+	 */
+	public TopocentricFrame getStationFrame(int pointIndex) {
+		return zoneModel.getStationFrame(pointIndex);
+	}
+
+	public SweepVisibilityEngine getSweepEngine() {
+		return sweepEngine;
+	}
+
+	public SweepVisibilityEngine getRasterSweepEngine() {
+		return rasterSweepEngine;
+	}
+
+	/**
+	 * Get the adaptive meshing of the zone (see Parameters.adaptiveMeshing), built
+	 * by the first call so that the contexts which don't use it allocate nothing.
+	 * Threads safety : the function is synchronized, the adaptive meshing being
+	 * immutable.
+	 * 
+	 * @return the adaptive meshing
+	 */
+	public synchronized AdaptiveMeshRevisit getAdaptiveMesh() {
+		if (adaptiveMesh == null)
+			adaptiveMesh = new AdaptiveMeshRevisit(zoneModel.getListMeshingPoints(), Parameters.adaptiveMeshLevels,
+					Parameters.adaptiveMeshTolerance, fidelity.getMaxcheckScale());
+		return adaptiveMesh;
+	}
+
+	public FidelityLevel getFidelity() {
+		return fidelity;
+	}
+}
@@ -0,0 +1,241 @@
+package simulation;
+
+import java.util.Arrays;
+
+import utils.Parameters;
+
+/**
+ * Discretized coverage of the mesh points : the simulation is split into time
+ * steps, and each mesh point gets one bit per step, set if the point sees a
+ * satellite at some time of the step. The bits of a point are packed in longs,
+ * and the points are stored one after the other in a single array, so that the
+ * coverages of several satellites are merged by a bitwise OR over the array
+ * (see or), bounded by the memory bandwidth only.
+ *
+ * The max revisit of a point is given by its longest run of steps without
+ * coverage, found word by word with Long.numberOfTrailingZeros. The runs are
+ * converted to durations with the same rules as the exact revisits (see
+ * RevisitAccumulator) : the gap from the beginning and the gap until the end of
+ * the simulation count, and a point never seen has a revisit of
+ * Double.MAX_VALUE. A run of uncovered steps is a period during which the
+ * point is certainly not seen, so the discretized max revisit never exceeds
+ * the exact one, and is at most 2 time steps below it.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate the coverage with the number of mesh points, the duration of
+ * the simulation and the time step. Its size is bounded by
+ * Parameters.coverageMaxBytes : a larger mesh or a longer horizon needs a
+ * coarser time step.
+ *
+ * - Mark the visibilities of each satellite (see markVisibility and addEvents)
+ * in the coverage of the satellite, and merge it into the coverage of the
+ * constellation with the method or.
+ *
+ * - Call the methods getMaxRevisitPoint or getMaxRevisit.
+ *
+ * Thread safety : the class is conditionally thread safe : it is safe to use
+ * the class only if each thread access to its own instance of the class.
+ *
+ */
+public class CoverageBitset {
+
+	/** Duration of the simulation (s) */
+	private final double duration;
+
+	/** Duration of a step (s) */
+	private final double timeStep;
+
+	/** Number of steps, the last one may be shorter */
+	private final int nbSteps;
+
+	/** Number of longs per mesh point */
+	private final int nbWords;
+
+	/** Bits of the steps of all the points, point after point */
+	private final long[] words;
+
+	/**
+	 * Constructor of an empty coverage.
+	 *
+	 * @param nbPoints : number of points of the mesh
+	 * @param duration : duration of the simulation (s)
+	 * @param timeStep : duration of a step (s)
+	 * @throws IllegalArgumentException if the coverage needs more than
+	 *                                  Parameters.coverageMaxBytes
+	 */
+	public CoverageBitset(int nbPoints, double duration, double timeStep) {
+		this.duration = duration;
+		this.timeStep = timeStep;
+
+		// the size is computed on doubles, so that a large mesh or a long horizon
+		// doesn't overflow the index of the array
+		double nbStepsValue = Math.max(1, Math.ceil(duration / timeStep));
+		double nbBytes = 8. * nbPoints * Math.ceil(nbStepsValue / 64);
+		if (nbStepsValue > Integer.MAX_VALUE - 63
+				|| nbBytes > Math.min(Parameters.coverageMaxBytes, 8. * (Integer.MAX_VALUE - 8)))
+			throw new IllegalArgumentException("The discretized coverage of " + nbPoints + " points over "
+					+ (long) nbStepsValue + " steps of " + timeStep + " s needs " + (long) (nbBytes / (1 << 20))
+					+ " MB, more than the limit of " + (Parameters.coverageMaxBytes >> 20)
+					+ " MB (see Parameters.coverageMaxBytes) : increase the time step or reduce the mesh");
+		this.nbSteps = (int) nbStepsValue;
+		this.nbWords = (nbSteps + 63) >>> 6;
+		this.words = new long[nbPoints * nbWords];
+	}
+
+	/**
+	 * Mark a mesh point as covered during an interval : all the steps which
+	 * intersect it are set.
+	 *
+	 * @param pointIndex : index of the mesh point
+	 * @param start      : beginning of the visibility (s since t0)
+	 * @param end        : end of the visibility (s since t0)
+	 */
+	public void markVisibility(int pointIndex, double start, double end) {
+		int firstStep = Math.max(0, Math.min(nbSteps - 1, (int) (start / timeStep)));
+		int lastStep = Math.max(firstStep, Math.min(nbSteps - 1, (int) Math.ceil(end / timeStep) - 1));
+		int offset = pointIndex * nbWords;
+
+		int firstWord = firstStep >>> 6;
+		int lastWord = lastStep >>> 6;
+		long firstMask = -1L << (firstStep & 63);
+		long lastMask = -1L >>> (63 - (lastStep & 63));
+		if (firstWord == lastWord) {
+			words[offset + firstWord] |= firstMask & lastMask;
+		} else {
+			words[offset + firstWord] |= firstMask;
+			for (int word = firstWord + 1; word < lastWord; word++) {
+				words[offset + word] = -1L;
+			}
+			words[offset + lastWord] |= lastMask;
+		}
+	}
+
+	/**
+	 * Mark the visibilities given by a list of events, for example the events of a
+	 * satellite. The events of each mesh point have to be in chronological order,
+	 * and a visibility which is not ended lasts until the end of the simulation.
+	 *
+	 * @param events : the events
+	 */
+	public void addEvents(VisibilityEventBuffer events) {
+		int nbPoints = words.length / nbWords;
+		int[] nbOpenVisibilities = new int[nbPoints];
+		double[] starts = new double[nbPoints];
+		for (int i = 0; i < events.size(); i++) {
+			int pointIndex = events.getPointIndex(i);
+			if (events.isRising(i)) {
+				if (nbOpenVisibilities[pointIndex] == 0)
+					starts[pointIndex] = events.getTime(i);
+				nbOpenVisibilities[pointIndex]++;
+			} else if (nbOpenVisibilities[pointIndex] > 0) {
+				nbOpenVisibilities[pointIndex]--;
+				if (nbOpenVisibilities[pointIndex] == 0)
+					markVisibility(pointIndex, starts[pointIndex], events.getTime(i));
+			}
+		}
+		for (int pointIndex = 0; pointIndex < nbPoints; pointIndex++) {
+			if (nbOpenVisibilities[pointIndex] > 0)
+				markVisibility(pointIndex, starts[pointIndex], duration);
+		}
+	}
+
+	/**
+	 * Merge another coverage, of the same mesh and the same steps, into this one.
+	 *
+	 * @param other : the coverage to merge
+	 */
+	public void or(CoverageBitset other) {
+		long[] otherWords = other.words;
+		for (int word = 0; word < words.length; word++) {
+			words[word] |= otherWords[word];
+		}
+	}
+
+	/**
+	 * Clear the coverage, to reuse it for another satellite.
+	 */
+	public void clear() {
+		Arrays.fill(words, 0L);
+	}
+
+	/**
+	 * @return true if the mesh point is covered during the step
+	 */
+	public boolean isCovered(int pointIndex, int step) {
+		return (words[pointIndex * nbWords + (step >>> 6)] & (1L << (step & 63))) != 0;
+	}
+
+	/**
+	 * Get the maximum time of revisit of a mesh point : the duration of its longest
+	 * run of uncovered steps.
+	 *
+	 * @param pointIndex : index of the mesh point
+	 * @return the maximum time of revisit (s), Double.MAX_VALUE if the point is
+	 *         never covered
+	 */
+	public double getMaxRevisitPoint(int pointIndex) {
+		int offset = pointIndex * nbWords;
+		int step = nextStep(offset, 0, true);
+		if (step == nbSteps)
+			return Double.MAX_VALUE;
+
+		// gap from the beginning of the simulation
+		double maxRevisit = step * timeStep;
+		while (step < nbSteps) {
+			int gapStart = nextStep(offset, step, false);
+			if (gapStart == nbSteps)
+				break;
+			step = nextStep(offset, gapStart, true);
+			// the last step may be shorter than the others
+			maxRevisit = Math.max(maxRevisit, Math.min(step * timeStep, duration) - gapStart * timeStep);
+		}
+		return maxRevisit;
+	}
+
+	/**
+	 * Get the maximum time of revisit on all the points of the mesh.
+	 *
+	 * @return the maximum time of revisit (s), -1 if the mesh is empty
+	 */
+	public double getMaxRevisit() {
+		double maxRevisit = -1;
+		for (int pointIndex = 0; pointIndex < getNbPoints(); pointIndex++) {
+			maxRevisit = Math.max(maxRevisit, getMaxRevisitPoint(pointIndex));
+			if (maxRevisit == Double.MAX_VALUE)
+				break;
+		}
+		return maxRevisit;
+	}
+
+	public int getNbPoints() {
+		return words.length / nbWords;
+	}
+
+	public int getNbSteps() {
+		return nbSteps;
+	}
+
+	public double getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * @return the first step from the given one which is covered (or uncovered),
+	 *         nbSteps if there is none
+	 */
+	private int nextStep(int offset, int from, boolean covered) {
+		if (from >= nbSteps)
+			return nbSteps;
+		int word = from >>> 6;
+		long bits = covered ? words[offset + word] : ~words[offset + word];
+		bits &= -1L << (from & 63);
+		while (bits == 0) {
+			word++;
+			if (word == nbWords)
+				return nbSteps;
+			bits = covered ? words[offset + word] : ~words[offset + word];
+		}
+		return Math.min(nbSteps, (word << 6) + Long.numberOfTrailingZeros(bits));
+	}
+}
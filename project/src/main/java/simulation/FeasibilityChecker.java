@@ -0,0 +1,113 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import constellation.Constellation;
+import constellation.Satellite;
+import utils.Parameters;
+
+/**
+ * Checker of the feasibility of a constellation before its simulation. A
+ * constellation is infeasible if :
+ *
+ * - the perigee of a satellite is lower than Parameters.minPerigeeAltitude
+ * above the equatorial radius of the Earth,
+ *
+ * - or a mesh point of the zone is out of the latitude band seen by every
+ * satellite (see Simulation.computeMaxVisibleLatitude) : its max revisit is
+ * infinite.
+ *
+ * An infeasible constellation gets a penalty instead of being simulated. The
+ * costs are ordered as follows, so that the selection prefers the physical
+ * constellations and, among the others, the ones closer to be feasible :
+ *
+ * - the max revisit of a constellation which sees every mesh point is at most
+ * the duration of the simulation,
+ *
+ * - a feasible constellation which leaves some points unseen costs the duration
+ * plus the number of unseen points (see computeUnseenCost),
+ *
+ * - the penalty of an infeasible constellation is greater than the duration
+ * plus the number of mesh points, and increases with the violation of the
+ * constraints.
+ *
+ * The numbers of checks and of rejected constellations are counted.
+ *
+ * Thread safety : the class is thread safe, the counters being atomic.
+ *
+ */
+public class FeasibilityChecker {
+
+	private final AtomicLong nbChecks = new AtomicLong();
+	private final AtomicLong nbRejections = new AtomicLong();
+
+	/**
+	 * Compute the penalty of a constellation.
+	 *
+	 * @param constellation : the constellation to check
+	 * @param zoneModel     : the model of the zone to cover
+	 * @param duration      : duration of the simulation (s)
+	 * @return 0 if the constellation is feasible, otherwise duration + nbPoints +
+	 *         1 + duration * violation, the violation being the sum of the
+	 *         deficits of perigee (in Earth radius) and of the deficit of latitude
+	 *         of the zone (radian)
+	 */
+	public double computePenalty(Constellation constellation, ZoneModel zoneModel, double duration) {
+
+		nbChecks.incrementAndGet();
+
+		double violation = 0;
+		double minPerigee = Parameters.projectEarthEquatorialRadius + Parameters.minPerigeeAltitude;
+		double maxVisibleLatitude = -Math.PI / 2;
+
+		for (Satellite sat : constellation.getSatellitesList()) {
+			double perigee = sat.getA() * (1 - sat.getE());
+			violation += Math.max(0, minPerigee - perigee) / Parameters.projectEarthEquatorialRadius;
+
+			maxVisibleLatitude = Math.max(maxVisibleLatitude,
+					Simulation.computeMaxVisibleLatitude(sat, Parameters.halfFOV, zoneModel.getMinPointRadius()));
+		}
+
+		// the highest latitude of the zone has to be seen by at least one satellite
+		double[] sortedLatitudes = zoneModel.getSortedLatitudes();
+		if (sortedLatitudes.length > 0) {
+			double maxZoneLatitude = Math.max(Math.abs(sortedLatitudes[0]),
+					Math.abs(sortedLatitudes[sortedLatitudes.length - 1]));
+			violation += Math.max(0, maxZoneLatitude - maxVisibleLatitude);
+		}
+
+		if (violation <= 0)
+			return 0;
+
+		nbRejections.incrementAndGet();
+		return duration + zoneModel.getNbPoints() + 1 + duration * violation;
+	}
+
+	/**
+	 * Compute the cost of a feasible constellation which leaves some mesh points
+	 * unseen, instead of Double.MAX_VALUE : it is greater than the max revisit of
+	 * any constellation which sees every point, and lower than the penalty of any
+	 * infeasible constellation.
+	 *
+	 * @param nbUnseenPoints : number of mesh points never seen, at least 1
+	 * @param duration       : duration of the simulation (s)
+	 * @return duration + nbUnseenPoints
+	 */
+	public static double computeUnseenCost(int nbUnseenPoints, double duration) {
+		return duration + Math.max(1, nbUnseenPoints);
+	}
+
+	public long getNbChecks() {
+		return nbChecks.get();
+	}
+
+	public long getNbRejections() {
+		return nbRejections.get();
+	}
+
+	@Override
+	public String toString() {
+		return "FeasibilityChecker : " + getNbRejections() + " infeasible constellations not simulated out of "
+				+ getNbChecks() + " evaluations";
+	}
+}
@@ -0,0 +1,104 @@
+package simulation;
+
+import java.util.ArrayList;
+
+import utils.Parameters;
+
+/**
+ * Fidelity of the evaluation of a constellation : resolution of the mesh of the
+ * zone, duration of the simulation and scale of the maxcheck of the visibility
+ * detectors. The full fidelity is the one of Parameters, the screening levels
+ * (see Parameters.screeningMeshFactors) are cheaper approximations used to
+ * discard the worst individuals before their full simulation (see
+ * Optimisation.setMultiFidelity).
+ *
+ * Two levels with the same values are equal, so that a level can be used as the
+ * key of its batch context (see DecisionVector.getBatchContext).
+ *
+ * Thread safety : the class is immutable.
+ *
+ */
+public class FidelityLevel {
+
+	/** Resolution of the mesh of the zone (radian) */
+	private final double meshResolution;
+
+	/** Duration of the simulation (s) */
+	private final double duration;
+
+	/** Factor applied to the adaptative maxcheck (see Simulation.computeMaxcheck) */
+	private final double maxcheckScale;
+
+	/**
+	 * Constructor of a level.
+	 *
+	 * @param meshResolution : resolution of the mesh of the zone (radian)
+	 * @param duration       : duration of the simulation (s)
+	 * @param maxcheckScale  : factor applied to the adaptative maxcheck, greater
+	 *                       than 1 for a faster and less accurate detection
+	 */
+	public FidelityLevel(double meshResolution, double duration, double maxcheckScale) {
+		this.meshResolution = meshResolution;
+		this.duration = duration;
+		this.maxcheckScale = maxcheckScale;
+	}
+
+	/**
+	 * Create the full fidelity, given by Parameters.
+	 *
+	 * @return the level
+	 */
+	public static FidelityLevel createFullFidelity() {
+		return new FidelityLevel(Parameters.standardMeshResolution, Parameters.simulationDuration, 1.0);
+	}
+
+	/**
+	 * Create the screening levels given by Parameters, from the cheapest one.
+	 *
+	 * @return the levels, empty if there is none
+	 */
+	public static ArrayList<FidelityLevel> createScreeningLevels() {
+		ArrayList<FidelityLevel> listLevels = new ArrayList<FidelityLevel>();
+		for (int level = 0; level < Parameters.screeningMeshFactors.length; level++) {
+			listLevels.add(new FidelityLevel(Parameters.standardMeshResolution * Parameters.screeningMeshFactors[level],
+					Parameters.screeningDurations[level], Parameters.screeningMaxcheckScales[level]));
+		}
+		return listLevels;
+	}
+
+	public double getMeshResolution() {
+		return meshResolution;
+	}
+
+	public double getDuration() {
+		return duration;
+	}
+
+	public double getMaxcheckScale() {
+		return maxcheckScale;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof FidelityLevel))
+			return false;
+		FidelityLevel level = (FidelityLevel) other;
+		return meshResolution == level.meshResolution && duration == level.duration
+				&& maxcheckScale == level.maxcheckScale;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = Double.hashCode(meshResolution);
+		hash = 31 * hash + Double.hashCode(duration);
+		return 31 * hash + Double.hashCode(maxcheckScale);
+	}
+
+	@Override
+	public String toString() {
+		return "FidelityLevel (mesh resolution: " + Math.toDegrees(meshResolution) + " degree, duration: " + duration
+				+ " s, maxcheck scale: " + maxcheckScale + ")";
+	}
+}
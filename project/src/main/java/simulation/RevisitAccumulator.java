@@ -0,0 +1,156 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * The next class computes the maximum time of revisit of each point of a mesh
+ * online, while the visibility events arrive. Instead of storing every date of
+ * beginning and end of visibility, it only keeps for each mesh point the
+ * largest gap found so far, the number of satellites currently seeing the point
+ * and the date of the last end of visibility. The memory is O(points) instead of
+ * O(events).
+ *
+ * The rules are the same as the method getMaxRevisitPoint of the class
+ * Simulation : a beginning of visibility is seen as "(" and an end as ")", a
+ * revisit is the duration between a ")" which closes all the parentheses and
+ * the next "(". The duration between the last end of visibility and the end of
+ * the simulation is also a revisit, and a point which is never seen has a
+ * revisit of Double.MAX_VALUE.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate a new accumulator with the number of mesh points and the
+ * duration of the simulation.
+ *
+ * - Call the method addEvent for each event. The events of a given mesh point
+ * have to be added in chronological order, an end being added before a
+ * beginning at the same date. When the events come from several satellites,
+ * they have to be merged first (see Simulation).
+ *
+ * - Call the methods getMaxRevisitPoint or getMaxRevisit, which only read the
+ * state of the accumulator.
+ *
+ * Thread safety : the class is conditionally thread safe : it is safe to use
+ * the class only if each thread access to its own instance of the class.
+ *
+ */
+public class RevisitAccumulator {
+
+	/** Duration of the simulation (s) */
+	private final double duration;
+
+	/** Largest revisit found so far for each mesh point (s), -1 if none */
+	private final double[] maxGap;
+
+	/** Number of satellites which currently see each mesh point */
+	private final int[] nbOpenVisibilities;
+
+	/** Date of the last end of visibility of each mesh point (s since t0) */
+	private final double[] lastEnd;
+
+	/** True if the mesh point has been seen at least once */
+	private final boolean[] seen;
+
+	/**
+	 * Constructor of the accumulator.
+	 *
+	 * @param nbPoints : number of points of the mesh
+	 * @param duration : duration of the simulation (s)
+	 */
+	public RevisitAccumulator(int nbPoints, double duration) {
+		this.duration = duration;
+		this.maxGap = new double[nbPoints];
+		this.nbOpenVisibilities = new int[nbPoints];
+		this.lastEnd = new double[nbPoints];
+		this.seen = new boolean[nbPoints];
+		Arrays.fill(maxGap, -1);
+	}
+
+	/**
+	 * Update the revisit of a mesh point with a new event.
+	 *
+	 * @param pointIndex : index of the mesh point
+	 * @param time       : date of the event in seconds since the beginning of the
+	 *                   simulation
+	 * @param rising     : true for a beginning of visibility, false for an end
+	 */
+	public void addEvent(int pointIndex, double time, boolean rising) {
+		if (rising) {
+			if (nbOpenVisibilities[pointIndex] == 0) {
+				double revisit = time - lastEnd[pointIndex];
+				if (revisit > maxGap[pointIndex])
+					maxGap[pointIndex] = revisit;
+			}
+			nbOpenVisibilities[pointIndex] += 1;
+			seen[pointIndex] = true;
+		} else {
+			nbOpenVisibilities[pointIndex] -= 1;
+			if (nbOpenVisibilities[pointIndex] <= 0) {
+				// a negative number of parenthesis would mean an end without beginning
+				nbOpenVisibilities[pointIndex] = 0;
+				lastEnd[pointIndex] = time;
+			}
+		}
+	}
+
+	/**
+	 * Get the maximum time of revisit of a mesh point, the gap between its last end
+	 * of visibility and the end of the simulation included.
+	 *
+	 * @param pointIndex : index of the mesh point
+	 * @return the maximum time of revisit (s), Double.MAX_VALUE if the point is
+	 *         never seen
+	 */
+	public double getMaxRevisitPoint(int pointIndex) {
+
+		if (!seen[pointIndex])
+			return Double.MAX_VALUE;
+
+		double maxRevisit = maxGap[pointIndex];
+		if (nbOpenVisibilities[pointIndex] == 0) {
+			maxRevisit = Math.max(maxRevisit, duration - lastEnd[pointIndex]);
+		}
+		if (maxRevisit == -1)
+			return Double.MAX_VALUE;
+		return maxRevisit;
+	}
+
+	/**
+	 * Get the maximum time of revisit on all the points of the mesh.
+	 *
+	 * @return the maximum time of revisit (s), -1 if the mesh is empty
+	 */
+	public double getMaxRevisit() {
+		double maxRevisit = -1;
+		for (int pointIndex = 0; pointIndex < maxGap.length; pointIndex++) {
+			maxRevisit = Math.max(maxRevisit, getMaxRevisitPoint(pointIndex));
+		}
+		return maxRevisit;
+	}
+
+	/**
+	 * Get the largest revisit known at a given date on all the points of the mesh,
+	 * while the events are still arriving. The running gap of a point which is not
+	 * seen at that date is included, so the value is a lower bound of the final
+	 * maximum revisit.
+	 *
+	 * @param time : date (s since t0) up to which all the events have been added
+	 * @return the largest revisit known at that date (s)
+	 */
+	public double getRunningMaxRevisit(double time) {
+		double maxRevisit = -1;
+		for (int pointIndex = 0; pointIndex < maxGap.length; pointIndex++) {
+			maxRevisit = Math.max(maxRevisit, maxGap[pointIndex]);
+			if (nbOpenVisibilities[pointIndex] == 0)
+				maxRevisit = Math.max(maxRevisit, time - lastEnd[pointIndex]);
+		}
+		return maxRevisit;
+	}
+
+	/**
+	 * @return the number of mesh points of the accumulator
+	 */
+	public int getNbPoints() {
+		return maxGap.length;
+	}
+}
@@ -0,0 +1,276 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+import constellation.Constellation;
+import constellation.Satellite;
+import utils.Parameters;
+
+/**
+ * Analytic lower bound of the max revisit of a constellation over a zone,
+ * computed without any propagator, so that an individual whose bound already
+ * exceeds the cutoff of the optimisation doesn't need to be simulated.
+ *
+ * A mesh point can only see a satellite when the angle between their
+ * directions from the center of the Earth is lower than the footprint radius
+ * of the satellite at its apogee (see Simulation.computeFootprintRadius). This
+ * angle can't vary faster than the sum of the angular speeds of the satellite
+ * (the highest at the perigee) and of the point (the rotation of the Earth).
+ * Hence, when the angle exceeds the footprint radius by d, the point is
+ * certainly not seen during d / (sum of the speeds) : the time is swept with
+ * these steps, the Keplerian motion being solved analytically in an inertial
+ * frame aligned with the Earth frame at t0. The intervals which can't be
+ * excluded this way contain all the visibilities of the point, so the longest
+ * interval excluded for every satellite is at most the true max revisit of the
+ * point : the bound never overestimates.
+ *
+ * The sweep is limited to the first Parameters.lowerBoundDuration seconds of
+ * the simulation, which keeps the bound cheap : a gap of this window is also a
+ * gap of the whole simulation.
+ *
+ * The numbers of bounds computed and of constellations pruned are counted.
+ *
+ * Thread safety : the class is thread safe, the counters being atomic and the
+ * computations being done in local variables.
+ *
+ */
+public class RevisitLowerBound {
+
+	/**
+	 * Margin (radian) added to the footprint radius : it covers the flattening of
+	 * the Earth (the zenith of a point is geodetic) and the motion of the Earth
+	 * pole in the inertial frame during the sweep
+	 */
+	private static final double ANGLE_MARGIN = 0.02;
+
+	/** Step (s) of the sweep when the point may see the satellite */
+	private static final double MIN_STEP = 10.;
+
+	/** Number of Newton iterations solving the Kepler equation */
+	private static final int KEPLER_ITERATIONS = 8;
+
+	private final AtomicLong nbBounds = new AtomicLong();
+	private final AtomicLong nbPrunings = new AtomicLong();
+
+	/**
+	 * Compute the lower bound of the max revisit of a constellation over the
+	 * mesh points of a zone.
+	 *
+	 * @param constellation : the constellation
+	 * @param zoneModel     : the model of the zone to cover
+	 * @param t0            : beginning of the simulation
+	 * @param duration      : duration of the simulation (s)
+	 * @return the highest lower bound of the mesh points, Double.MAX_VALUE if a
+	 *         point is never seen during the simulation
+	 */
+	public double compute(Constellation constellation, ZoneModel zoneModel, AbsoluteDate t0, double duration) {
+
+		nbBounds.incrementAndGet();
+
+		SatelliteMotion[] motions = createMotions(constellation, zoneModel, t0);
+		double horizon = Math.min(duration, Parameters.lowerBoundDuration);
+
+		double bound = 0;
+		for (int pointIndex = 0; pointIndex < zoneModel.getNbPoints(); pointIndex++) {
+			bound = Math.max(bound, computePoint(motions, zoneModel, pointIndex, horizon, duration));
+			if (bound == Double.MAX_VALUE)
+				break;
+		}
+		return bound;
+	}
+
+	/**
+	 * Compute the lower bound of the max revisit of each mesh point of a zone.
+	 *
+	 * @param constellation : the constellation
+	 * @param zoneModel     : the model of the zone to cover
+	 * @param t0            : beginning of the simulation
+	 * @param duration      : duration of the simulation (s)
+	 * @return the bound of each point, indexed like the meshing points,
+	 *         Double.MAX_VALUE for a point never seen during the simulation
+	 */
+	public double[] computePoints(Constellation constellation, ZoneModel zoneModel, AbsoluteDate t0,
+			double duration) {
+
+		SatelliteMotion[] motions = createMotions(constellation, zoneModel, t0);
+		double horizon = Math.min(duration, Parameters.lowerBoundDuration);
+
+		double[] bounds = new double[zoneModel.getNbPoints()];
+		for (int pointIndex = 0; pointIndex < bounds.length; pointIndex++) {
+			bounds[pointIndex] = computePoint(motions, zoneModel, pointIndex, horizon, duration);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Count a constellation whose simulation has been skipped thanks to its
+	 * bound.
+	 */
+	public void countPruning() {
+		nbPrunings.incrementAndGet();
+	}
+
+	public long getNbBounds() {
+		return nbBounds.get();
+	}
+
+	public long getNbPrunings() {
+		return nbPrunings.get();
+	}
+
+	@Override
+	public String toString() {
+		return "RevisitLowerBound : " + getNbPrunings() + " constellations pruned without simulation out of "
+				+ getNbBounds() + " bounds computed";
+	}
+
+	/**
+	 * Compute the lower bound of the max revisit of a mesh point : the longest
+	 * interval of [0, horizon] during which no satellite can see it.
+	 */
+	private double computePoint(SatelliteMotion[] motions, ZoneModel zoneModel, int pointIndex, double horizon,
+			double duration) {
+
+		double radius = zoneModel.getPointRadius()[pointIndex];
+		double x = zoneModel.getPointX()[pointIndex] / radius;
+		double y = zoneModel.getPointY()[pointIndex] / radius;
+		double z = zoneModel.getPointZ()[pointIndex] / radius;
+		double pointSpeed = Constants.WGS84_EARTH_ANGULAR_VELOCITY * Math.sqrt(x * x + y * y);
+
+		// intervals during which a satellite may see the point, as (start, end) pairs
+		ArrayList<double[]> listIntervals = new ArrayList<double[]>();
+		for (SatelliteMotion motion : motions) {
+			double maxSpeed = motion.maxAngularSpeed + pointSpeed;
+			double start = -1;
+			double t = 0;
+			while (t < horizon) {
+				double rotation = Constants.WGS84_EARTH_ANGULAR_VELOCITY * t;
+				double cos = Math.cos(rotation);
+				double sin = Math.sin(rotation);
+				double angle = motion.angleTo(x * cos - y * sin, x * sin + y * cos, z, t);
+
+				double exclusion = (angle - motion.footprintRadius) / maxSpeed;
+				if (exclusion >= MIN_STEP) {
+					if (start >= 0) {
+						listIntervals.add(new double[] { start, t });
+						start = -1;
+					}
+					t += exclusion;
+				} else {
+					if (start < 0)
+						start = t;
+					t += MIN_STEP;
+				}
+			}
+			if (start >= 0)
+				listIntervals.add(new double[] { start, horizon });
+		}
+
+		if (listIntervals.isEmpty())
+			return horizon < duration ? horizon : Double.MAX_VALUE;
+
+		// longest gap between the merged intervals, the first and the last gaps
+		// included as in the simulation
+		double[][] intervals = listIntervals.toArray(new double[listIntervals.size()][]);
+		Arrays.sort(intervals, (i1, i2) -> Double.compare(i1[0], i2[0]));
+		double maxGap = 0;
+		double lastEnd = 0;
+		for (double[] interval : intervals) {
+			maxGap = Math.max(maxGap, interval[0] - lastEnd);
+			lastEnd = Math.max(lastEnd, interval[1]);
+		}
+		return Math.max(maxGap, horizon - lastEnd);
+	}
+
+	/**
+	 * Create the Keplerian motions of the satellites, in the inertial frame
+	 * aligned with the Earth frame at t0.
+	 */
+	private SatelliteMotion[] createMotions(Constellation constellation, ZoneModel zoneModel, AbsoluteDate t0) {
+		Transform inertialToEarth = FramesFactory.getGCRF().getTransformTo(Parameters.earthFrame, t0);
+		ArrayList<Satellite> listSatellites = constellation.getSatellitesList();
+		SatelliteMotion[] motions = new SatelliteMotion[listSatellites.size()];
+		for (int k = 0; k < motions.length; k++) {
+			motions[k] = new SatelliteMotion(listSatellites.get(k), inertialToEarth, t0,
+					zoneModel.getMinPointRadius());
+		}
+		return motions;
+	}
+
+	/**
+	 * Keplerian motion of a satellite : direction of its position as a function
+	 * of the time elapsed since the beginning of the simulation.
+	 */
+	private static class SatelliteMotion {
+
+		private final double e;
+		private final double meanMotion;
+		private final double meanAnomaly0;
+		private final double sqrtOneMinusE2;
+
+		/** Perifocal unit vectors, towards the perigee and 90 degrees ahead */
+		private final double px, py, pz, qx, qy, qz;
+
+		/** Footprint radius at the apogee, margin included (radian) */
+		private final double footprintRadius;
+
+		/** Angular speed of the satellite at the perigee (rad/s) */
+		private final double maxAngularSpeed;
+
+		private SatelliteMotion(Satellite sat, Transform inertialToEarth, AbsoluteDate t0, double minPointRadius) {
+			this.e = sat.getE();
+			this.meanMotion = Math.sqrt(Constants.EGM96_EARTH_MU / (sat.getA() * sat.getA() * sat.getA()));
+			this.meanAnomaly0 = sat.getM() + meanMotion * t0.durationFrom(sat.getT0());
+			this.sqrtOneMinusE2 = Math.sqrt(1 - e * e);
+
+			double cosRaan = Math.cos(sat.getRaan());
+			double sinRaan = Math.sin(sat.getRaan());
+			double cosW = Math.cos(sat.getW());
+			double sinW = Math.sin(sat.getW());
+			double cosI = Math.cos(sat.getI());
+			double sinI = Math.sin(sat.getI());
+			Vector3D p = inertialToEarth.transformVector(new Vector3D(cosRaan * cosW - sinRaan * sinW * cosI,
+					sinRaan * cosW + cosRaan * sinW * cosI, sinW * sinI));
+			Vector3D q = inertialToEarth.transformVector(new Vector3D(-cosRaan * sinW - sinRaan * cosW * cosI,
+					-sinRaan * sinW + cosRaan * cosW * cosI, cosW * sinI));
+			this.px = p.getX();
+			this.py = p.getY();
+			this.pz = p.getZ();
+			this.qx = q.getX();
+			this.qy = q.getY();
+			this.qz = q.getZ();
+
+			this.footprintRadius = Simulation.computeFootprintRadius(sat, Parameters.halfFOV, minPointRadius)
+					+ ANGLE_MARGIN;
+			this.maxAngularSpeed = meanMotion * (1 + e) * (1 + e) / (sqrtOneMinusE2 * sqrtOneMinusE2 * sqrtOneMinusE2);
+		}
+
+		/**
+		 * @return the angle (radian) between the direction of the satellite at t and
+		 *         the unit vector (x, y, z)
+		 */
+		private double angleTo(double x, double y, double z, double t) {
+			double meanAnomaly = meanAnomaly0 + meanMotion * t;
+			double eccentricAnomaly = meanAnomaly + e * Math.sin(meanAnomaly);
+			for (int iteration = 0; iteration < KEPLER_ITERATIONS; iteration++) {
+				eccentricAnomaly -= (eccentricAnomaly - e * Math.sin(eccentricAnomaly) - meanAnomaly)
+						/ (1 - e * Math.cos(eccentricAnomaly));
+			}
+			double cosE = Math.cos(eccentricAnomaly);
+			double denominator = 1 - e * cosE;
+			double cosNu = (cosE - e) / denominator;
+			double sinNu = sqrtOneMinusE2 * Math.sin(eccentricAnomaly) / denominator;
+
+			double dot = (px * cosNu + qx * sinNu) * x + (py * cosNu + qy * sinNu) * y + (pz * cosNu + qz * sinNu) * z;
+			return Math.acos(Math.max(-1, Math.min(1, dot)));
+		}
+	}
+}
@@ -1,11 +1,14 @@
 package simulation;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.hipparchus.ode.events.Action;
+import org.hipparchus.util.MathUtils;
 import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.bodies.OneAxisEllipsoid;
@@ -17,15 +20,16 @@ import org.orekit.propagation.SpacecraftState;
 import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.propagation.events.ElevationDetector;
 import org.orekit.propagation.events.EventDetector;
-import org.orekit.propagation.events.EventsLogger;
 import org.orekit.propagation.events.handlers.EventHandler;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
 import org.orekit.utils.PVCoordinates;
 import org.orekit.utils.PVCoordinatesProvider;
 
 import utils.Parameters;
 
 import constellation.Constellation;
+import constellation.EphemerisCache;
 import constellation.Satellite;
 import zone.Zone;
 
@@ -49,7 +53,9 @@ import zone.Zone;
  * 
  * WARNING Thread safety: the class is conditionally thread safe if and only if
  * Parameters are immutable and each thread has its own instance of Zone AND
- * Constellation AND Simulation
+ * Constellation AND Simulation. The satellites of one simulation can be
+ * propagated in parallel with the method setParallelPropagation. The
+ * simulations of a batch can share the same (immutable) BatchContext.
  * 
  * @author Julie Bayard
  * 
@@ -57,6 +63,12 @@ import zone.Zone;
  */
 public class Simulation {
 
+	/**
+	 * Angular margin (radian) added to the latitude band seen by a satellite (see
+	 * computeMaxVisibleLatitude)
+	 */
+	public static final double LATITUDE_MARGIN = 0.02;
+
 	
 	/**
 	 * Constellation which contains all the satellites of the studied constellation
@@ -75,36 +87,127 @@ public class Simulation {
 	/** Ending time of the simulation */
 	private AbsoluteDate tf;
 
+	/**
+	 * Ending time of the propagation. When the ground track of the constellation
+	 * repeats, the middle cycles of the simulation are not propagated and it is
+	 * before tf, otherwise it is tf.
+	 */
+	private AbsoluteDate propagationEnd;
+
 	/** Verbose option : if true display results */
 	private Boolean verbose = false;
 
 	/**
-	 * HashMap which contains all the dates at which a geodetic point is beginning
-	 * to be seen by a satellite of the constellation. It corresponds to the moment
-	 * at which the geodetic point enters into the field of view of the satellite.
-	 * This can be used to computes data such as the revisit time, etc.
+	 * The engine used to compute the visibilities of the mesh points (see
+	 * Parameters.visibilityEngine for the available engines)
 	 */
-	private HashMap<GeodeticPoint, ArrayList<AbsoluteDate>> listBegVisibilitiesMesh;// = new HashMap<GeodeticPoint,
-																					// ArrayList<AbsoluteDate>>();
+	private String visibilityEngine = Parameters.visibilityEngine;
 
 	/**
-	 * HashMap which contains all the dates at which a geodetic point is not seen
-	 * anymore by a satellite of the constellation. It corresponds to the moment at
-	 * which the geodetic point goes out of the field of view of the satellite. This
-	 * will be used to computes data such as the revisit time, etc.
+	 * Parallel option : if true each satellite is propagated in its own fork-join
+	 * task
 	 */
-	private HashMap<GeodeticPoint, ArrayList<AbsoluteDate>> listEndVisibilitiesMesh;// = new HashMap<GeodeticPoint,
-																					// ArrayList<AbsoluteDate>>();
+	private Boolean parallelPropagation = Parameters.parallelPropagation;
+
+	/** The pool in which the satellites are propagated in parallel */
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
 
 	/**
-	 * HashMap which contains all the event detectors (LoggedEvents and
-	 * EventDetector) and their corresponding geodetic point This will be used to
-	 * computes data such as the revisit time, etc.
+	 * Streaming option : if true the maximum revisit is computed online by a
+	 * RevisitAccumulator and the visibility events are not stored
 	 */
-	private HashMap<EventDetector, GeodeticPoint> eventDetPoint = new HashMap<EventDetector, GeodeticPoint>();
+	private Boolean streamingRevisit = Parameters.streamingRevisit;
 
+	/**
+	 * Coverage option : if true the maximum revisit is computed on a discretized
+	 * coverage of the mesh (see CoverageBitset) instead of the exact visibility
+	 * intervals
+	 */
+	private Boolean bitsetCoverage = Parameters.bitsetCoverage;
+
+	/** Time step of the discretized coverage (s) */
+	private double coverageTimeStep = Parameters.coverageTimeStep;
+
+	/**
+	 * Ephemeris option : if true, each satellite gets a sampled ephemeris over the
+	 * simulation (see EphemerisCache), read by the sweep visibility engines
+	 */
+	private Boolean ephemerisCache = Parameters.ephemerisCache;
+
+	/**
+	 * Cache of the events of the satellites shared between the simulations, null
+	 * if the events are always propagated
+	 */
+	private VisibilityCache visibilityCache = Parameters.visibilityCacheCapacity > 0
+			? VisibilityCache.getSharedCache()
+			: null;
+
+	/**
+	 * Symmetry option : if true (with the time stepped sweep engine), only one
+	 * satellite per orbit shape is propagated and the visibilities of the other
+	 * satellites are derived by a time shift and a longitude shift of the mesh
+	 */
+	private Boolean symmetricPropagation = Parameters.symmetricPropagation;
+
+	/**
+	 * Ground track repeat option : if true, the repeat cycle of the constellation
+	 * is searched before the propagation (see computeRepeatCycle)
+	 */
+	private Boolean groundTrackRepeat = Parameters.groundTrackRepeat;
+
+	/**
+	 * Prefilter option : if true, the detectors of a satellite are only created
+	 * for the mesh points it can see (see computeMaxVisibleLatitude)
+	 */
+	private Boolean latitudePrefilter = Parameters.latitudePrefilter;
+
+	/** Repeat cycle of the constellation given by the user (s), 0 if unknown */
+	private double repeatCycle = 0;
+
+	/**
+	 * Upper bound of the maximum revisit which is still of interest. As soon as the
+	 * revisit of a point is known to be greater, the propagation is stopped.
+	 * Double.MAX_VALUE (the default) disables the cutoff.
+	 */
+	private double revisitCutoff = Double.MAX_VALUE;
+
+	/**
+	 * Lower bound of the maximum revisit known when the propagation has been
+	 * stopped by the cutoff, -1 if the propagation went to the end
+	 */
+	private double cutoffRevisit = -1;
+
+	/**
+	 * The accumulator of the revisits. In streaming mode it is filled during the
+	 * propagation, otherwise it is computed from the stored events when needed.
+	 */
+	private RevisitAccumulator revisitAccumulator;
+
+	/**
+	 * The discretized coverage of the constellation in bitset mode, null otherwise
+	 */
+	private CoverageBitset coverage;
+
+	/** Events not merged yet into the accumulator in streaming mode */
+	private VisibilityEventBuffer pendingEvents;
+
+	/**
+	 * All the visibility events of the simulation (mesh point index, date since t0
+	 * and direction), when the streaming mode is disabled. This is used to compute
+	 * data such as the revisit time, etc.
+	 */
+	private VisibilityEventBuffer visibilityEvents = new VisibilityEventBuffer();
+
+	/** Index of each geodetic point in the list of the meshing points */
+	private Map<GeodeticPoint, Integer> pointIndices;
+
+	/**
+	 * State shared with the other simulations of a batch (model of the mesh and
+	 * sweep engine). If none is given, it is built for this simulation at the
+	 * beginning of the propagation.
+	 */
+	private BatchContext batchContext;
 
-	
 	/**
 	 * Default constructor Instantiates the simulation of a constellation.
 	 * 
@@ -119,15 +222,14 @@ public class Simulation {
 		this.constellation = constellation;
 		this.t0 = t0;
 		this.tf = tf;
+		this.propagationEnd = tf;
 		this.zone = zone;
 		this.verbose = verbose;
 
-		this.listBegVisibilitiesMesh = new HashMap<GeodeticPoint, ArrayList<AbsoluteDate>>();
-		this.listEndVisibilitiesMesh = new HashMap<GeodeticPoint, ArrayList<AbsoluteDate>>();
+		this.pointIndices = new HashMap<GeodeticPoint, Integer>();
 
 		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
-			listBegVisibilitiesMesh.put(meshPoint, new ArrayList<AbsoluteDate>());
-			listEndVisibilitiesMesh.put(meshPoint, new ArrayList<AbsoluteDate>());
+			pointIndices.put(meshPoint, pointIndices.size());
 		}
 	}
 
@@ -145,25 +247,46 @@ public class Simulation {
 		this.constellation = constellation;
 		this.t0 = t0;
 		this.tf = tf;
+		this.propagationEnd = tf;
 		this.zone = zone;
 
-		this.listBegVisibilitiesMesh = new HashMap<GeodeticPoint, ArrayList<AbsoluteDate>>();
-		this.listEndVisibilitiesMesh = new HashMap<GeodeticPoint, ArrayList<AbsoluteDate>>();
+		this.pointIndices = new HashMap<GeodeticPoint, Integer>();
 
 		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
-			listBegVisibilitiesMesh.put(meshPoint, new ArrayList<AbsoluteDate>());
-			listEndVisibilitiesMesh.put(meshPoint, new ArrayList<AbsoluteDate>());
+			pointIndices.put(meshPoint, pointIndices.size());
 		}
 	}
 
+	/**
+	 * Constructor of a simulation which belongs to a batch : the zone, the frames
+	 * of the mesh points and the sweep engine are read in the context shared by
+	 * the simulations of the batch instead of being computed again.
+	 * 
+	 * @param constellation : the constellation to simulate
+	 * @param t0            : the date corresponding to the beginning of the
+	 *                      simulation
+	 * @param tf            : the date which corresponds to the end of the
+	 *                      simulation
+	 * @param batchContext  : the state shared by the simulations of the batch
+	 */
+	public Simulation(Constellation constellation, AbsoluteDate t0, AbsoluteDate tf, BatchContext batchContext) {
+		this.constellation = constellation;
+		this.t0 = t0;
+		this.tf = tf;
+		this.propagationEnd = tf;
+		this.zone = batchContext.getZone();
+		this.batchContext = batchContext;
+		this.pointIndices = batchContext.getPointIndices();
+	}
+
 	public void addPointAndDateListEndVisibilitiesMesh(GeodeticPoint pointToAdd, AbsoluteDate dateToAdd) {
-		this.listEndVisibilitiesMesh.putIfAbsent(pointToAdd, new ArrayList<AbsoluteDate>());
-		this.listEndVisibilitiesMesh.get(pointToAdd).add(dateToAdd);
+		this.visibilityEvents.visibilityEvent(pointIndices.get(pointToAdd), dateToAdd.durationFrom(t0), false);
+		this.revisitAccumulator = null;
 	}
 
 	public void addPointAndDateListBegVisibilitiesMesh(GeodeticPoint pointToAdd, AbsoluteDate dateToAdd) {
-		this.listBegVisibilitiesMesh.putIfAbsent(pointToAdd, new ArrayList<AbsoluteDate>());
-		this.listBegVisibilitiesMesh.get(pointToAdd).add(dateToAdd);
+		this.visibilityEvents.visibilityEvent(pointIndices.get(pointToAdd), dateToAdd.durationFrom(t0), true);
+		this.revisitAccumulator = null;
 	}
 
 	/**
@@ -173,12 +296,14 @@ public class Simulation {
 	 * 
 	 * @param propagator the propagator used
 	 * 
+	 * @param listener   the listener which receives the visibility events
+	 * 
 	 * @param elevation  in radian it is the elevation at which the point begins to
 	 *                   be visible (90° - elevation) corresponds approximately to
 	 *                   the half extent of the FOV of the satellite if it is not
 	 *                   agile
 	 */
-	public void createEventsDetector(Propagator propagator, EventsLogger logger, double elevation) {
+	public void createEventsDetector(Propagator propagator, VisibilityListener listener, double elevation) {
 
 		double maxcheck = Parameters.maxcheck;
 		double threshold = Parameters.threshold;
@@ -189,20 +314,15 @@ public class Simulation {
 
 			GeodeticPoint meshPoint = this.zone.getListMeshingPoints().get(pointIndex);
 
-			TopocentricFrame staFrame = new TopocentricFrame(Parameters.earth, meshPoint, "mesh_point_" + pointIndex);
+			TopocentricFrame staFrame = getStationFrame(meshPoint, pointIndex);
 
+			// the handler writes the events directly in the listener, with the index of
+			// the point, so that no SpacecraftState is kept
 			EventDetector staVisi = new ElevationDetector(maxcheck, threshold, staFrame)
-					.withConstantElevation(elevation).withHandler(new VisibilityHandlerSilent());
-			if (this.verbose)
-				staVisi = new ElevationDetector(maxcheck, threshold, staFrame).withConstantElevation(elevation)
-						.withHandler(new VisibilityHandlerVerbose());
+					.withConstantElevation(elevation)
+					.withHandler(new VisibilityHandlerCapture(pointIndex, t0, listener, verbose));
 
-			// when we add an event detector, we monitor it to be able to retrieve it
-			EventDetector detector = logger.monitorDetector(staVisi);
-			// when we add an event detector, we monitor it to be able to retrieve it
-			propagator.addEventDetector(detector);
-			eventDetPoint.put(detector, meshPoint);
-			eventDetPoint.put(staVisi, meshPoint);
+			propagator.addEventDetector(staVisi);
 
 		}
 
@@ -219,18 +339,40 @@ public class Simulation {
 	 * 
 	 * @param propagator the propagator used
 	 * 
+	 * @param listener   the listener which receives the visibility events
+	 * 
 	 * @param halfFOV    in radian half FOV of the satellite
 	 * 
 	 * @param a          : satellite to center of the Earth distance
 	 */
-	public void createEventsDetectorSatellite(Propagator propagator, EventsLogger logger, double halfFOV, double a) {
+	public void createEventsDetectorSatellite(Propagator propagator, VisibilityListener listener, double halfFOV,
+			double a) {
+		int[] allPoints = new int[this.zone.getListMeshingPoints().size()];
+		for (int pointIndex = 0; pointIndex < allPoints.length; pointIndex++) {
+			allPoints[pointIndex] = pointIndex;
+		}
+		createEventsDetectorSatellite(propagator, listener, halfFOV, a, allPoints);
+	}
 
-		// angle between the direction from the center of the Earth to the mesh point
-		// and the direction from the center of the Earth to the satellite
-		double alpha = -halfFOV + Math.asin(a / Parameters.projectEarthEquatorialRadius * Math.sin(halfFOV));
+	/**
+	 * Same method, for some points of the mesh only : the points the satellite
+	 * can't see don't need a detector.
+	 * 
+	 * @param propagator the propagator used
+	 * 
+	 * @param listener   the listener which receives the visibility events
+	 * 
+	 * @param halfFOV    in radian half FOV of the satellite
+	 * 
+	 * @param a          : satellite to center of the Earth distance
+	 * 
+	 * @param points     : indices of the mesh points to detect
+	 */
+	public void createEventsDetectorSatellite(Propagator propagator, VisibilityListener listener, double halfFOV,
+			double a, int[] points) {
 
 		// elevation at which the point begins to be visible
-		double elevation = Math.PI / 2 - (halfFOV + alpha);
+		double elevation = computeElevation(halfFOV, a);
 
 		if (verbose) {
 			System.out.println("halfFOV is : " + halfFOV * 180 / Math.PI + " degree");
@@ -238,205 +380,1112 @@ public class Simulation {
 			System.out.println("computed elevation is : " + elevation * 180 / Math.PI + " degree");
 		}
 
-		// time window when the satellite is seen by the station (assuming the orbit is
-		// passing over the station)
-		double visibilityWindow = (alpha / Math.PI) * 2 * Math.PI
-				* Math.sqrt(Math.pow(a, 3) / Parameters.projectEarthMu);
-
-		// adaptative maxcheck : increases with altitude >> the higher the maxcheck, the
-		// faster the algorithm (the higher the probability of missing a satellite pass)
-		double maxcheck = visibilityWindow / 3; // the division factor to tune the frequency at which each detector
-												// checks if a satellite is passing over the mesh point
-		// double maxcheck = 60;
+		double maxcheck = computeMaxcheck(halfFOV, a) * getMaxcheckScale();
 		if (verbose) {
 			System.out.println("Maxcheck is : " + maxcheck);
 		}
 
 		double threshold = Parameters.threshold;// accuracy of 0.01 s
 
-		// we go through all the points of the meshing and add them as events to be
+		// we go through the points of the meshing and add them as events to be
 		// detected
-		for (int pointIndex = 0; pointIndex < this.zone.getListMeshingPoints().size(); pointIndex++) {
+		for (int pointIndex : points) {
 
 			GeodeticPoint meshPoint = this.zone.getListMeshingPoints().get(pointIndex);
 
-			TopocentricFrame staFrame = new TopocentricFrame(Parameters.earth, meshPoint, "mesh_point_" + pointIndex);
+			TopocentricFrame staFrame = getStationFrame(meshPoint, pointIndex);
 
+			// the handler writes the events directly in the listener, with the index of
+			// the point, so that no SpacecraftState is kept
 			EventDetector staVisi = new ElevationDetector(maxcheck, threshold, staFrame)
-					.withConstantElevation(elevation).withHandler(new VisibilityHandlerSilent());
-			if (this.verbose)
-				staVisi = new ElevationDetector(maxcheck, threshold, staFrame).withConstantElevation(elevation)
-						.withHandler(new VisibilityHandlerVerbose());
+					.withConstantElevation(elevation)
+					.withHandler(new VisibilityHandlerCapture(pointIndex, t0, listener, verbose));
 
-			// when we add an event detector, we monitor it to be able to retrieve it
-			EventDetector detector = logger.monitorDetector(staVisi);
-			// when we add an event detector, we monitor it to be able to retrieve it
-			propagator.addEventDetector(detector);
-			eventDetPoint.put(detector, meshPoint);
-			eventDetPoint.put(staVisi, meshPoint);
+			propagator.addEventDetector(staVisi);
 		}
 
 	}
 
 	/**
+	 * @return the factor applied to the adaptative maxcheck by the fidelity of the
+	 *         batch context, 1 if there is no context
+	 */
+	private double getMaxcheckScale() {
+		return batchContext == null ? 1.0 : batchContext.getFidelity().getMaxcheckScale();
+	}
 
+	/**
+	 * Get the topocentric frame of a mesh point, from the batch context if there is
+	 * one.
+	 */
+	private TopocentricFrame getStationFrame(GeodeticPoint meshPoint, int pointIndex) {
+		if (batchContext != null)
+			return batchContext.getStationFrame(pointIndex);
+		return new TopocentricFrame(Parameters.earth, meshPoint, "mesh_point_" + pointIndex);
+	}
+
+	/**
+	 * This method computes the maximum absolute geocentric latitude of the mesh
+	 * points which can see a satellite : the sub-satellite point doesn't go beyond
+	 * the inclination of the orbit (its supplement for a retrograde orbit), and a
+	 * point sees the satellite only if it is in its footprint, whose radius (seen
+	 * from the center of the Earth) is the largest at the apogee.
+	 * 
+	 * @param sat            : the satellite
+	 * @param halfFOV        : in radian half FOV of the satellite
+	 * @param minPointRadius : smallest distance from the center of the Earth to a
+	 *                       mesh point (m)
+	 * @return the maximum latitude in radian, at least PI/2 if every latitude can
+	 *         be seen
+	 */
+	public static double computeMaxVisibleLatitude(Satellite sat, double halfFOV, double minPointRadius) {
+
+		// highest latitude of the sub-satellite point
+		double inclination = MathUtils.normalizeAngle(sat.getI(), 0);
+		double maxSatLatitude = Math.min(Math.abs(inclination), Math.PI - Math.abs(inclination));
+
+		double footprintRadius = computeFootprintRadius(sat, halfFOV, minPointRadius);
+		if (footprintRadius >= Math.PI / 2)
+			return Math.PI / 2;
+
+		// the margin covers the difference between the inertial pole and the Earth
+		// pole, and the flattening of the Earth (the zenith of a point is geodetic)
+		return maxSatLatitude + footprintRadius + LATITUDE_MARGIN;
+	}
+
+	/**
+	 * This method computes the radius of the footprint of a satellite at its
+	 * apogee, seen from the center of the Earth : a mesh point can only see the
+	 * satellite if the angle between their directions is lower, the elevation of
+	 * the detectors being taken into account.
+	 * 
+	 * @param sat            : the satellite
+	 * @param halfFOV        : in radian half FOV of the satellite
+	 * @param minPointRadius : smallest distance from the center of the Earth to a
+	 *                       mesh point (m)
+	 * @return the radius in radian, PI/2 if the satellite is too close to the
+	 *         Earth for the footprint to be bounded
+	 */
+	public static double computeFootprintRadius(Satellite sat, double halfFOV, double minPointRadius) {
+		return computeFootprintRadius(sat.getA(), sat.getE(), halfFOV, minPointRadius);
+	}
+
+	/**
+	 * Same footprint radius, from the orbit parameters : it increases with the
+	 * semi-major axis and with the eccentricity.
+	 * 
+	 * @param a              : semi-major axis of the orbit (m)
+	 * @param e              : eccentricity of the orbit
+	 * @param halfFOV        : in radian half FOV of the satellite
+	 * @param minPointRadius : smallest distance from the center of the Earth to a
+	 *                       mesh point (m)
+	 * @return the radius in radian, PI/2 if the satellite is too close to the
+	 *         Earth for the footprint to be bounded
+	 */
+	public static double computeFootprintRadius(double a, double e, double halfFOV, double minPointRadius) {
+		double elevation = computeElevation(halfFOV, a);
+		double apogeeRadius = a * (1 + e);
+		double ratio = minPointRadius * Math.cos(elevation) / apogeeRadius;
+		if (ratio >= 1)
+			return Math.PI / 2;
+		return Math.acos(ratio) - elevation;
+	}
+
+	/**
+	 * WARNING for now, the orbit is assumed circular, thus the altitude of the
+	 * satellite is assumed constant
+	 * 
+	 * This method computes the elevation at which a mesh point begins to see a
+	 * satellite, so that the point is in the FOV of the satellite.
+	 * 
+	 * @param halfFOV in radian half FOV of the satellite
+	 * 
+	 * @param a       : satellite to center of the Earth distance
+	 * @return the elevation in radian
+	 */
+	public static double computeElevation(double halfFOV, double a) {
+
+		// angle between the direction from the center of the Earth to the mesh point
+		// and the direction from the center of the Earth to the satellite
+		double alpha = -halfFOV + Math.asin(a / Parameters.projectEarthEquatorialRadius * Math.sin(halfFOV));
+
+		return Math.PI / 2 - (halfFOV + alpha);
+	}
+
+	/**
+	 * WARNING for now, the orbit is assumed circular, thus the altitude of the
+	 * satellite is assumed constant
+	 * 
+	 * This method computes the adaptative maxcheck : the duration between two
+	 * checks of the visibility of a mesh point. It increases with the altitude : the
+	 * higher the maxcheck, the faster the algorithm (the higher the probability of
+	 * missing a satellite pass)
+	 * 
+	 * @param halfFOV in radian half FOV of the satellite
+	 * 
+	 * @param a       : satellite to center of the Earth distance
+	 * @return the maxcheck in seconds
+	 */
+	public static double computeMaxcheck(double halfFOV, double a) {
+
+		// angle between the direction from the center of the Earth to the mesh point
+		// and the direction from the center of the Earth to the satellite
+		double alpha = -halfFOV + Math.asin(a / Parameters.projectEarthEquatorialRadius * Math.sin(halfFOV));
+
+		// time window when the satellite is seen by the station (assuming the orbit is
+		// passing over the station)
+		double visibilityWindow = (alpha / Math.PI) * 2 * Math.PI
+				* Math.sqrt(Math.pow(a, 3) / Parameters.projectEarthMu);
+
+		// the division factor to tune the frequency at which each detector checks if a
+		// satellite is passing over the mesh point
+		return visibilityWindow / 3;
+	}
+
+	/**
 	 * This method computes the propagation of all satellites of the constellation and 
-	 * detect when each point of the mesh is seen by a satellite.
+	 * detect when each point of the mesh is seen by a satellite, with the
+	 * visibility engine of the simulation.
+	 * 
+	 * If the parallel propagation is enabled, each satellite is propagated in its
+	 * own fork-join task (with its own propagator and buffer of events), and the
+	 * events of all the tasks are merged once they are all done.
 	 * 
-	 * The dates at which each point of the mesh enters and exits the satellite view
-	 * are stored in the corresponding HashMaps.
+	 * By default, the events at which each point of the mesh enters and exits the
+	 * satellite view are stored in a VisibilityEventBuffer. In streaming mode,
+	 * the satellites are propagated together period by period
+	 * (Parameters.streamingChunkDuration) and the events of each period are merged
+	 * in chronological order into a RevisitAccumulator, so that no date is stored.
+	 * 
+	 * If the repeat cycle of the ground track of the constellation is known (or
+	 * found), the visibilities are periodic : the revisits of all the cycles but
+	 * the first one are the same, so only the first two cycles and the remaining
+	 * part of the simulation are propagated, which gives the same max revisit.
+	 * 
+	 * If a revisit cutoff has been given, the streaming mode is used and the
+	 * propagation of all the satellites is stopped at the end of the first period
+	 * after which the revisit of a point is known to exceed the cutoff.
 	 */
 	public void propagateOrbits() {
 
-		for (Satellite sat : constellation.getSatellitesList()) {
+		// the model of the zone (frames of the mesh points and sweep engine) is built
+		// once and shared by all the satellites, and by all the simulations of the
+		// batch if there is one
+		if (batchContext == null)
+			batchContext = new BatchContext(this.zone);
+
+		SweepVisibilityEngine sweepEngine = null;
+		if (visibilityEngine.equals("time_stepped_sweep")) {
+			sweepEngine = batchContext.getSweepEngine();
+		} else if (visibilityEngine.equals("time_stepped_raster")) {
+			sweepEngine = batchContext.getRasterSweepEngine();
+		} else if (!visibilityEngine.equals("elevation_detector")) {
+			System.out.println(
+					"The visibility engine " + visibilityEngine + " which has been given as input does not exist.");
+			return;
+		}
+
+		this.propagationEnd = computePropagationEnd();
+
+		// a point which can't see any satellite is never observed : with a cutoff,
+		// the max revisit is known without propagation
+		this.revisitAccumulator = null;
+		this.coverage = null;
+		this.cutoffRevisit = -1;
+		if (latitudePrefilter && revisitCutoff < Double.MAX_VALUE && hasUnreachablePoint()) {
+			this.cutoffRevisit = Double.MAX_VALUE;
+			if (verbose)
+				System.out.println("A mesh point can't see any satellite, the propagation is skipped");
+			return;
+		}
 
-			// The logger is different for each satellite
-			EventsLogger logger = new EventsLogger();
+		if (ephemerisCache)
+			attachEphemerisCaches();
 
-			// Definition of the propagator of the satellite trajectory
-			KeplerianPropagator propagator = sat.getPropagator();
+		ArrayList<SatellitePropagation> listPropagations = new ArrayList<SatellitePropagation>();
+		if (sweepEngine != null && symmetricPropagation) {
+			for (ArrayList<Satellite> group : groupByOrbitShape(constellation.getSatellitesList())) {
+				listPropagations.add(new SymmetricSweepPropagation(group));
+			}
+		} else {
+			for (Satellite sat : constellation.getSatellitesList()) {
+
+				// the satellites which are in the cache are not propagated
+				VisibilityCache.Key key = null;
+				if (visibilityCache != null) {
+					key = VisibilityCache.createKey(sat, this.t0, this.propagationEnd.durationFrom(this.t0),
+							Parameters.halfFOV, visibilityEngine, batchContext.getFidelity().getMaxcheckScale(),
+							Parameters.keplerianKernel, batchContext.getZoneModel());
+					VisibilityEventBuffer cachedEvents = visibilityCache.get(key);
+					if (cachedEvents != null) {
+						listPropagations.add(new CachedPropagation(cachedEvents));
+						continue;
+					}
+				}
+
+				SatellitePropagation propagation;
+				if (sweepEngine != null) {
+					propagation = new SweepPropagation(sweepEngine.startSweep(sat, this.t0, this.propagationEnd));
+				} else {
+					propagation = new DetectorPropagation(sat);
+				}
+				if (key != null)
+					propagation = new CachingPropagation(propagation, key);
+				listPropagations.add(propagation);
+			}
+		}
+		double maxDelay = 0;
+		for (SatellitePropagation propagation : listPropagations) {
+			maxDelay = Math.max(maxDelay, propagation.getMaxDelay());
+		}
 
-			// Addition of all event detectors : adaptative maxcheck version
-			createEventsDetectorSatellite(propagator, logger, Parameters.halfFOV, sat.getA());
-			// createEventsDetector(propagator, logger, Parameters.elevation);
+		double duration = this.propagationEnd.durationFrom(this.t0);
+		double chunkDuration = duration;
+		// the running revisits are only known in streaming mode
+		boolean streaming = !bitsetCoverage && (streamingRevisit || revisitCutoff < Double.MAX_VALUE);
+		if (streaming) {
+			chunkDuration = Parameters.streamingChunkDuration;
+			this.revisitAccumulator = new RevisitAccumulator(zone.getListMeshingPoints().size(), duration);
+			this.pendingEvents = new VisibilityEventBuffer();
+		}
+		CoverageBitset satelliteCoverage = null;
+		if (bitsetCoverage) {
+			this.coverage = new CoverageBitset(zone.getListMeshingPoints().size(), duration, coverageTimeStep);
+			satelliteCoverage = new CoverageBitset(zone.getListMeshingPoints().size(), duration, coverageTimeStep);
+		}
 
-			// Propagation of the orbit of the satellite
-			propagator.propagate(this.t0, this.tf);
+		double time = 0;
+		do {
+			time = Math.min(time + chunkDuration, duration);
 
-			// For each detector (associated to a point of the mesh) if the point is viewed
-			// by the satellite at the beginning of the simulation, it must be stored.
-			for (EventDetector detector : propagator.getEventsDetectors()) {
-				if (detector.g(propagator.getInitialState()) > 0) {
-					GeodeticPoint meshPoint = eventDetPoint.get(detector);
-					addPointAndDateListBegVisibilitiesMesh(meshPoint, this.t0);
-					if (this.verbose)
-						System.out.println(
-								"g>0 en debut de simulation pour " + sat.toString() + "   " + meshPoint.toString());
+			if (parallelPropagation) {
+				propagateChunkParallel(listPropagations, time);
+			} else {
+				for (SatellitePropagation propagation : listPropagations) {
+					propagation.propagateTo(time);
 				}
 			}
 
-			// Clear of the events detectors on the propagator (ESSENTIAL TO HAVE RELEVANT
-			// RESULTS !)
-			propagator.clearEventsDetectors();
+			if (streaming) {
+				// the events which can still be preceded by events of the next period are
+				// kept for the next merge
+				double watermark = time < duration ? time - maxDelay : Double.MAX_VALUE;
+				mergeEvents(listPropagations, watermark);
+
+				// stop the propagation once the cutoff is exceeded
+				double runningRevisit = revisitAccumulator.getRunningMaxRevisit(Math.min(watermark, time));
+				if (runningRevisit > revisitCutoff && time < duration) {
+					this.cutoffRevisit = runningRevisit;
+					if (verbose)
+						System.out.println("Propagation stopped at " + time + " s, revisit of " + runningRevisit
+								+ " s greater than the cutoff");
+					break;
+				}
+			} else if (bitsetCoverage) {
+				mergeCoverage(listPropagations, satelliteCoverage);
+			} else {
+				storeEvents(listPropagations);
+			}
+		} while (time < duration);
 
-			for (final EventsLogger.LoggedEvent event : logger.getLoggedEvents()) {
+		for (SatellitePropagation propagation : listPropagations) {
+			propagation.finish();
+		}
+	}
 
-				EventDetector detector = event.getEventDetector();
-				GeodeticPoint meshPoint = eventDetPoint.get(detector);
-				AbsoluteDate date = event.getState().getDate();
+	/**
+	 * Compute the end of the propagation. If the constellation has a repeat cycle,
+	 * the event sequence is periodic : removing whole cycles in the middle of the
+	 * simulation keeps the same set of revisits, as long as the first two cycles
+	 * (the first one begins at t0, the second one also contains the revisit
+	 * between two cycles) and the remainder before tf are kept.
+	 * 
+	 * @return the end of the propagation
+	 */
+	private AbsoluteDate computePropagationEnd() {
 
-				// The method isIncreasing returns a boolean which states
-				// whether the satellite is entering or exiting the elevation zone
-				if (event.isIncreasing())
-					addPointAndDateListBegVisibilitiesMesh(meshPoint, date);
-				else
-					addPointAndDateListEndVisibilitiesMesh(meshPoint, date);
+		double duration = this.tf.durationFrom(this.t0);
+
+		double cycle = repeatCycle;
+		if (cycle <= 0 && groundTrackRepeat)
+			cycle = computeRepeatCycle(constellation, duration);
+
+		// fallback to the whole simulation
+		if (cycle <= 0 || duration < 3 * cycle)
+			return this.tf;
+
+		int nbRemovedCycles = (int) Math.floor(duration / cycle) - 2;
+		if (verbose)
+			System.out.println("Repeat cycle of " + cycle + " s, " + nbRemovedCycles + " cycles are not propagated");
+		return new AbsoluteDate(this.tf, -nbRemovedCycles * cycle);
+	}
+
+	/**
+	 * WARNING the propagation is assumed Keplerian : the orbit of a satellite is
+	 * periodic in the inertial frame and the Earth rotates at constant speed.
+	 * 
+	 * This method searches the repeat cycle of the ground track of a constellation
+	 * : the smallest number of sidereal days after which each satellite has done a
+	 * whole number of revolutions, within a tolerance. At each cycle the ground
+	 * track of a satellite drifts of its ground speed times the difference between
+	 * the cycle and its whole number of revolutions, the total drift on the
+	 * simulation has to be lower than Parameters.groundTrackRepeatTolerance.
+	 * 
+	 * Only the cycles which are at most a third of the simulation are searched,
+	 * since the longer ones would not shorten the propagation.
+	 * 
+	 * @param constellation : the constellation
+	 * @param duration      : duration of the simulation (s)
+	 * @return the repeat cycle (s), -1 if there is none
+	 */
+	public static double computeRepeatCycle(Constellation constellation, double duration) {
+
+		if (constellation.getSatellitesList().isEmpty())
+			return -1;
+
+		double siderealDay = 2 * Math.PI / Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+		int maxNbDays = (int) Math.floor(duration / (3 * siderealDay));
+
+		for (int nbDays = 1; nbDays <= maxNbDays; nbDays++) {
+			double cycle = nbDays * siderealDay;
+			boolean repeat = true;
+
+			for (Satellite sat : constellation.getSatellitesList()) {
+				double period = sat.getInitialOrbit().getKeplerianPeriod();
+				double nbRevolutions = Math.rint(cycle / period);
+				double groundSpeed = 2 * Math.PI * Parameters.projectEarthEquatorialRadius / period;
+
+				double drift = Math.abs(cycle - nbRevolutions * period) * groundSpeed * duration / cycle;
+				if (drift > Parameters.groundTrackRepeatTolerance) {
+					repeat = false;
+					break;
+				}
 			}
+
+			if (repeat)
+				return cycle;
 		}
+		return -1;
 	}
 
-	public double getMaxRevisitPoint(GeodeticPoint meshPoint) {
+	/**
+	 * This method propagates each satellite up to the given date in its own
+	 * fork-join task. The tasks don't share any mutable data : the events are
+	 * merged by the calling thread, once all the tasks are done, so no lock is
+	 * needed.
+	 * 
+	 * @param listPropagations : the propagations of the satellites
+	 * @param time             : date up to which the satellites are propagated, in
+	 *                         seconds since t0
+	 */
+	private void propagateChunkParallel(ArrayList<SatellitePropagation> listPropagations, double time) {
+
+		ArrayList<SatellitePropagationTask> listTasks = new ArrayList<SatellitePropagationTask>();
+		for (SatellitePropagation propagation : listPropagations) {
+			listTasks.add(new SatellitePropagationTask(propagation, time));
+		}
+
+		forkJoinPool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(listTasks);
+			}
+		});
+	}
+
+	/**
+	 * Store the events of the satellites in the buffer of the simulation.
+	 * 
+	 * @param listPropagations : the propagations of the satellites
+	 */
+	private void storeEvents(ArrayList<SatellitePropagation> listPropagations) {
+		for (SatellitePropagation propagation : listPropagations) {
+			visibilityEvents.addAll(propagation.events);
+			propagation.events.clear();
+		}
+	}
+
+	/**
+	 * Mark the events of each satellite in its discretized coverage, and merge it
+	 * into the coverage of the constellation by a bitwise OR. The propagation is
+	 * done in a single period in this mode, so the visibilities of a satellite are
+	 * complete.
+	 * 
+	 * @param listPropagations  : the propagations of the satellites
+	 * @param satelliteCoverage : the coverage reused for each satellite
+	 */
+	private void mergeCoverage(ArrayList<SatellitePropagation> listPropagations, CoverageBitset satelliteCoverage) {
+		for (SatellitePropagation propagation : listPropagations) {
+			propagation.events.sortChronologically();
+			satelliteCoverage.clear();
+			satelliteCoverage.addEvents(propagation.events);
+			coverage.or(satelliteCoverage);
+			propagation.events.clear();
+		}
+	}
+
+	/**
+	 * Merge the events of the satellites in chronological order and add them to
+	 * the revisit accumulator. Only the events before the watermark are added, the
+	 * others are kept until the next merge.
+	 * 
+	 * @param listPropagations : the propagations of the satellites
+	 * @param watermark        : date (s since t0) up to which all the events are
+	 *                         known
+	 */
+	private void mergeEvents(ArrayList<SatellitePropagation> listPropagations, double watermark) {
 
-		double maxRevisit = -1;
+		for (SatellitePropagation propagation : listPropagations) {
+			pendingEvents.addAll(propagation.events);
+			propagation.events.clear();
+		}
+		pendingEvents.sortChronologically();
 
-		// a beginning of visibilty is seen as "(" and an end is seen as ")"
-		// nbParenthis is the current number of "(" minus the number of ")".
-		// It should always be positive.
-		int nbParenthesis = 0;
+		int nbMergedEvents = pendingEvents.countUntil(watermark);
+		pendingEvents.addTo(revisitAccumulator, nbMergedEvents);
+		pendingEvents.removeFirst(nbMergedEvents);
+	}
 
-		AbsoluteDate endDate = t0;
+	/**
+	 * Propagation of one satellite, period by period. The visibility events of the
+	 * satellite are stored in its buffer until the next merge.
+	 */
+	private abstract class SatellitePropagation {
+
+		/** Events of the satellite since the last merge */
+		protected final VisibilityEventBuffer events = new VisibilityEventBuffer();
+
+		/**
+		 * Propagate the satellite up to the given date.
+		 * 
+		 * @param time : date in seconds since t0
+		 */
+		protected abstract void propagateTo(double time);
+
+		/**
+		 * @return the maximum delay between the date given to propagateTo and the date
+		 *         of the events which can still be sent by the next calls
+		 */
+		protected abstract double getMaxDelay();
+
+		/**
+		 * Method called at the end of the propagation.
+		 */
+		protected void finish() {
+		}
+	}
 
-		ArrayList<AbsoluteDate> begDates = listBegVisibilitiesMesh.get(meshPoint);
+	/**
+	 * Propagation of one satellite with the time stepped sweep engine.
+	 */
+	private class SweepPropagation extends SatellitePropagation {
 
-		// Dans le cas ou le point n'est jamais vu : Double.MAX_VALUE
-		if (begDates.isEmpty())
-			return Double.MAX_VALUE;
+		private final SweepVisibilityEngine.SatelliteSweep sweep;
 
-		ArrayList<AbsoluteDate> endDates = listEndVisibilitiesMesh.get(meshPoint);
+		private SweepPropagation(SweepVisibilityEngine.SatelliteSweep sweep) {
+			this.sweep = sweep;
+		}
 
-		Collections.sort(endDates);
-		Collections.sort(begDates);
+		@Override
+		protected void propagateTo(double time) {
+			sweep.propagateTo(time, events);
+		}
 
-		while (!begDates.isEmpty() && !endDates.isEmpty()) {
+		@Override
+		protected double getMaxDelay() {
+			return sweep.getMaxDelay();
+		}
+	}
 
-			// If the next event is a beginning of view
-			if (begDates.get(0).compareTo(endDates.get(0)) < 0) {
-				AbsoluteDate date = begDates.remove(0);
-				if (nbParenthesis == 0) {
-					double revisit = date.durationFrom(endDate);
-					if (revisit > maxRevisit)
-						maxRevisit = revisit;
+	/**
+	 * Propagation of a satellite whose events are stored in the cache : the events
+	 * are only read, in chronological order.
+	 */
+	private class CachedPropagation extends SatellitePropagation {
+
+		/** The events of the satellite, sorted by date */
+		private final VisibilityEventBuffer cachedEvents;
+
+		/** Index of the next event to read */
+		private int nextEvent = 0;
+
+		private CachedPropagation(VisibilityEventBuffer cachedEvents) {
+			this.cachedEvents = cachedEvents;
+		}
+
+		@Override
+		protected void propagateTo(double time) {
+			while (nextEvent < cachedEvents.size() && cachedEvents.getTime(nextEvent) <= time) {
+				events.visibilityEvent(cachedEvents.getPointIndex(nextEvent), cachedEvents.getTime(nextEvent),
+						cachedEvents.isRising(nextEvent));
+				nextEvent++;
+			}
+		}
+
+		@Override
+		protected double getMaxDelay() {
+			return 0;
+		}
+	}
+
+	/**
+	 * Propagation of a satellite which is not in the cache : the events of the
+	 * propagation are recorded and stored in the cache if the satellite has been
+	 * propagated until the end of the simulation.
+	 */
+	private class CachingPropagation extends SatellitePropagation {
+
+		/** The propagation of the satellite */
+		private final SatellitePropagation propagation;
+
+		/** Key of the satellite in the cache */
+		private final VisibilityCache.Key key;
+
+		/** All the events of the satellite */
+		private final VisibilityEventBuffer record = new VisibilityEventBuffer();
+
+		/** Date up to which the satellite has been propagated (s since t0) */
+		private double currentTime = 0;
+
+		private CachingPropagation(SatellitePropagation propagation, VisibilityCache.Key key) {
+			this.propagation = propagation;
+			this.key = key;
+		}
+
+		@Override
+		protected void propagateTo(double time) {
+			propagation.propagateTo(time);
+			record.addAll(propagation.events);
+			events.addAll(propagation.events);
+			propagation.events.clear();
+			currentTime = time;
+		}
+
+		@Override
+		protected double getMaxDelay() {
+			return propagation.getMaxDelay();
+		}
+
+		@Override
+		protected void finish() {
+			propagation.finish();
+			// the propagations stopped by the cutoff are not complete
+			if (currentTime >= propagationEnd.durationFrom(t0)) {
+				record.sortChronologically();
+				visibilityCache.put(key, record);
+			}
+		}
+	}
+
+	/**
+	 * Group the satellites which have the same orbit shape (semi major axis,
+	 * eccentricity, inclination, argument of perigee and epoch). The satellites of
+	 * a group only differ by their right ascension of the ascending node and their
+	 * mean anomaly.
+	 * 
+	 * @param listSatellites : the satellites
+	 * @return the groups of satellites, in the order of the list
+	 */
+	private static ArrayList<ArrayList<Satellite>> groupByOrbitShape(ArrayList<Satellite> listSatellites) {
+
+		ArrayList<ArrayList<Satellite>> listGroups = new ArrayList<ArrayList<Satellite>>();
+		for (Satellite sat : listSatellites) {
+			ArrayList<Satellite> satGroup = null;
+			for (ArrayList<Satellite> group : listGroups) {
+				Satellite reference = group.get(0);
+				if (reference.getA() == sat.getA() && reference.getE() == sat.getE() && reference.getI() == sat.getI()
+						&& reference.getW() == sat.getW() && reference.getT0().equals(sat.getT0())) {
+					satGroup = group;
+					break;
 				}
-				nbParenthesis += 1;
 			}
-			// If the next event is an end of view
-			else {
-				AbsoluteDate date = endDates.remove(0);
-				nbParenthesis -= 1;
-				if (nbParenthesis < 0)
-
-					if (verbose) {
-						System.out.println("ERROR:Negative number of parenthesis during");
-					}
+			if (satGroup == null) {
+				satGroup = new ArrayList<Satellite>();
+				listGroups.add(satGroup);
+			}
+			satGroup.add(sat);
+		}
+		return listGroups;
+	}
+
+	/**
+	 * WARNING the propagation is assumed Keplerian and the Earth is assumed to
+	 * rotate at constant speed around its polar axis.
+	 * 
+	 * Propagation of a group of satellites with the same orbit shape, only the
+	 * first one (the reference) being propagated. A satellite of the group is the
+	 * reference shifted in time by dt = dM / n (dM being the difference of mean
+	 * anomaly and n the mean motion) and rotated around the polar axis of dRAAN. A
+	 * mesh point sees the satellite at t if and only if the point moved by
+	 * -(dRAAN + earthRotation * dt) in longitude sees the reference at t + dt.
+	 * 
+	 * The reference is thus swept once on a mesh which contains the moved points
+	 * of every satellite of the group, over the simulation extended by the largest
+	 * time shift, and the events are shifted back to the satellites.
+	 */
+	private class SymmetricSweepPropagation extends SatellitePropagation implements VisibilityListener {
+
+		/** The sweep of the reference satellite */
+		private final SweepVisibilityEngine.SatelliteSweep sweep;
+
+		/** Number of points of the mesh of the zone */
+		private final int nbPoints;
 
-				if (nbParenthesis == 0)
-					endDate = date;
+		/** Time shift of each satellite of the group (s) */
+		private final double[] timeShifts;
+
+		/** Largest time shift of the group (s) */
+		private final double maxTimeShift;
+
+		/** Duration of the propagation (s) */
+		private final double duration;
+
+		/**
+		 * Visibility of each moved point before the time shift of its satellite, and
+		 * true once the time shift of its satellite has been reached
+		 */
+		private final boolean[] open;
+		private final boolean[] started;
+
+		private SymmetricSweepPropagation(ArrayList<Satellite> group) {
+
+			ArrayList<GeodeticPoint> listMeshingPoints = zone.getListMeshingPoints();
+			this.nbPoints = listMeshingPoints.size();
+			this.duration = propagationEnd.durationFrom(t0);
+			this.timeShifts = new double[group.size()];
+
+			Satellite reference = group.get(0);
+			double meanMotion = reference.getInitialOrbit().getKeplerianMeanMotion();
+
+			ArrayList<GeodeticPoint> listMovedPoints = new ArrayList<GeodeticPoint>();
+			double maxShift = 0;
+			for (int satIndex = 0; satIndex < group.size(); satIndex++) {
+				Satellite sat = group.get(satIndex);
+
+				// time shift in [0, period[
+				double timeShift = MathUtils.normalizeAngle(sat.getM() - reference.getM(), Math.PI) / meanMotion;
+				double longitudeShift = sat.getRaan() - reference.getRaan()
+						+ Constants.WGS84_EARTH_ANGULAR_VELOCITY * timeShift;
+				timeShifts[satIndex] = timeShift;
+				maxShift = Math.max(maxShift, timeShift);
+
+				for (GeodeticPoint meshPoint : listMeshingPoints) {
+					listMovedPoints.add(new GeodeticPoint(meshPoint.getLatitude(),
+							MathUtils.normalizeAngle(meshPoint.getLongitude() - longitudeShift, 0),
+							meshPoint.getAltitude()));
+				}
 			}
+			this.maxTimeShift = maxShift;
+			this.open = new boolean[listMovedPoints.size()];
+			this.started = new boolean[listMovedPoints.size()];
+
+			SweepVisibilityEngine groupEngine = new SweepVisibilityEngine(listMovedPoints);
+			this.sweep = groupEngine.startSweep(reference, t0, new AbsoluteDate(propagationEnd, maxTimeShift));
 		}
 
-		if (begDates.isEmpty() && !endDates.isEmpty()) {
-			while (!endDates.isEmpty()) {
-				AbsoluteDate date = endDates.remove(0);
-				nbParenthesis -= 1;
-				if (nbParenthesis < 0)
+		@Override
+		protected void propagateTo(double time) {
+			sweep.propagateTo(time + maxTimeShift, this);
+
+			// the reference has been propagated after all the time shifts : the points
+			// which are seen by a satellite at t0 can now be known
+			for (int movedIndex = 0; movedIndex < started.length; movedIndex++) {
+				if (!started[movedIndex]) {
+					started[movedIndex] = true;
+					if (open[movedIndex])
+						events.visibilityEvent(movedIndex % nbPoints, 0, true);
+				}
+			}
+		}
 
-					if (verbose) {
-						System.out.println("ERROR:Negative number of parenthesis end");
-					}
+		@Override
+		public void visibilityEvent(int movedIndex, double time, boolean rising) {
 
-				if (nbParenthesis == 0)
-					endDate = date;
+			double timeShift = timeShifts[movedIndex / nbPoints];
+			if (time < timeShift) {
+				open[movedIndex] = rising;
+				return;
 			}
-			if (nbParenthesis == 0) {
-				double revisit = this.tf.durationFrom(endDate);
-				if (revisit > maxRevisit)
-					maxRevisit = revisit;
+
+			if (!started[movedIndex]) {
+				started[movedIndex] = true;
+				if (open[movedIndex])
+					events.visibilityEvent(movedIndex % nbPoints, 0, true);
 			}
+			if (time - timeShift <= duration)
+				events.visibilityEvent(movedIndex % nbPoints, time - timeShift, rising);
 		}
 
-		else if (nbParenthesis == 0 && !begDates.isEmpty() && endDates.isEmpty()) {
-			AbsoluteDate date = begDates.remove(0);
-			double revisit = date.durationFrom(endDate);
-			if (revisit > maxRevisit)
-				maxRevisit = revisit;
+		@Override
+		protected double getMaxDelay() {
+			return sweep.getMaxDelay();
 		}
+	}
 
-		if (maxRevisit == -1) {
-			System.out.println(
-					"ERROR maxRevisite = -1 s for constellation : \n" + constellation + "\nand point  " + meshPoint);
-			maxRevisit = Double.MAX_VALUE;
+	/**
+	 * Propagation of one satellite with one Orekit ElevationDetector per point of
+	 * the mesh. The handlers of the detectors write the events in the buffer of the
+	 * satellite.
+	 */
+	private class DetectorPropagation extends SatellitePropagation {
+
+		private final Satellite sat;
+
+		/** The propagator of the satellite trajectory */
+		private final KeplerianPropagator propagator;
+
+		/** Date up to which the satellite has been propagated (s since t0) */
+		private double currentTime = 0;
+
+		/** True once the satellite has been propagated */
+		private boolean started = false;
+
+		private DetectorPropagation(Satellite sat) {
+			this.sat = sat;
+			this.propagator = sat.getPropagator();
+
+			// Addition of the event detectors of the points which can see the satellite :
+			// adaptative maxcheck version
+			createEventsDetectorSatellite(propagator, events, Parameters.halfFOV, sat.getA(), getVisiblePoints(sat));
+			// createEventsDetector(propagator, events, Parameters.elevation);
 		}
-		return maxRevisit;
+
+		@Override
+		protected void propagateTo(double time) {
+
+			if (!started) {
+				// For each detector (associated to a point of the mesh) if the point is viewed
+				// by the satellite at the beginning of the simulation, it must be stored.
+				for (EventDetector detector : propagator.getEventsDetectors()) {
+					if (detector.g(propagator.getInitialState()) > 0) {
+						VisibilityHandlerCapture handler = (VisibilityHandlerCapture) ((ElevationDetector) detector)
+								.getHandler();
+						events.visibilityEvent(handler.getPointIndex(), 0, true);
+						if (verbose)
+							System.out.println("g>0 en debut de simulation pour " + sat.toString() + "   "
+									+ zone.getListMeshingPoints().get(handler.getPointIndex()).toString());
+					}
+				}
+				started = true;
+			}
+
+			// Propagation of the orbit of the satellite, the events are written in the
+			// buffer by the handlers of the detectors
+			propagator.propagate(new AbsoluteDate(t0, currentTime), new AbsoluteDate(t0, time));
+			currentTime = time;
+		}
+
+		@Override
+		protected double getMaxDelay() {
+			return 0;
+		}
+
+		@Override
+		protected void finish() {
+			// Clear of the events detectors on the propagator (ESSENTIAL TO HAVE RELEVANT
+			// RESULTS !)
+			propagator.clearEventsDetectors();
+		}
+	}
+
+	/**
+	 * Attach a sampled ephemeris to the satellites of the constellation whose
+	 * ephemeris doesn't cover the propagation yet. The ephemerides stay attached,
+	 * so that they are shared with the next simulations of the same satellites.
+	 */
+	private void attachEphemerisCaches() {
+		for (Satellite sat : constellation.getSatellitesList()) {
+			EphemerisCache cache = sat.getEphemerisCache();
+			if (cache == null || !cache.covers(t0, Parameters.earthFrame)
+					|| !cache.covers(propagationEnd, Parameters.earthFrame))
+				sat.setEphemerisCache(new EphemerisCache(sat, t0, propagationEnd));
+		}
+	}
+
+	/**
+	 * Get the mesh points which may see a satellite.
+	 * 
+	 * @param sat : the satellite
+	 * @return the indices of the points, all the points if the prefilter is
+	 *         disabled
+	 */
+	private int[] getVisiblePoints(Satellite sat) {
+		ZoneModel zoneModel = batchContext.getZoneModel();
+		double maxLatitude = Math.PI / 2;
+		if (latitudePrefilter)
+			maxLatitude = computeMaxVisibleLatitude(sat, Parameters.halfFOV, zoneModel.getMinPointRadius());
+		return zoneModel.getPointsInLatitudeBand(maxLatitude);
+	}
+
+	/**
+	 * Check whether each mesh point can be seen by at least one satellite of the
+	 * constellation.
+	 * 
+	 * @return true if a point can't see any satellite
+	 */
+	private boolean hasUnreachablePoint() {
+		boolean[] reachable = new boolean[zone.getListMeshingPoints().size()];
+		int nbReachable = 0;
+		for (Satellite sat : constellation.getSatellitesList()) {
+			for (int pointIndex : getVisiblePoints(sat)) {
+				if (!reachable[pointIndex]) {
+					reachable[pointIndex] = true;
+					nbReachable++;
+				}
+			}
+		}
+		return nbReachable < reachable.length;
+	}
+
+	/**
+	 * Fork-join task which propagates one satellite up to a given date.
+	 */
+	private static class SatellitePropagationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The propagation of the satellite */
+		private final SatellitePropagation propagation;
+
+		/** Date up to which the satellite is propagated (s since t0) */
+		private final double time;
+
+		private SatellitePropagationTask(SatellitePropagation propagation, double time) {
+			this.propagation = propagation;
+			this.time = time;
+		}
+
+		@Override
+		protected void compute() {
+			propagation.propagateTo(time);
+		}
+	}
+
+	/**
+	 * Get the engine used to compute the visibilities of the mesh points.
+	 * 
+	 * @return the name of the visibility engine
+	 */
+	public String getVisibilityEngine() {
+		return visibilityEngine;
+	}
+
+	/**
+	 * Set the engine used to compute the visibilities of the mesh points. It has to
+	 * be called before propagateOrbits.
+	 * 
+	 * @param visibilityEngine "elevation_detector", "time_stepped_sweep" or
+	 *                         "time_stepped_raster"
+	 */
+	public void setVisibilityEngine(String visibilityEngine) {
+		this.visibilityEngine = visibilityEngine;
+	}
+
+	/**
+	 * Enable or disable the parallel propagation of the satellites. It has to be
+	 * called before propagateOrbits.
+	 * 
+	 * @param parallelPropagation true to propagate each satellite in its own
+	 *                            fork-join task
+	 */
+	public void setParallelPropagation(Boolean parallelPropagation) {
+		this.parallelPropagation = parallelPropagation;
+	}
+
+	/**
+	 * Enable or disable the streaming computation of the maximum revisit. It has to
+	 * be called before propagateOrbits.
+	 * 
+	 * @param streamingRevisit true to compute the revisits online with a
+	 *                         RevisitAccumulator instead of storing the dates
+	 */
+	public void setStreamingRevisit(Boolean streamingRevisit) {
+		this.streamingRevisit = streamingRevisit;
+	}
+
+	/**
+	 * Enable or disable the discretized coverage (see CoverageBitset). It has to be
+	 * called before propagateOrbits.
+	 * 
+	 * @param bitsetCoverage true to compute the revisits on the discretized
+	 *                       coverage, a lower bound within 2 time steps of the
+	 *                       exact revisits, instead of the exact intervals
+	 */
+	public void setBitsetCoverage(Boolean bitsetCoverage) {
+		this.bitsetCoverage = bitsetCoverage;
+	}
+
+	/**
+	 * Set the time step of the discretized coverage. It has to be called before
+	 * propagateOrbits.
+	 * 
+	 * @param coverageTimeStep the time step (s)
+	 */
+	public void setCoverageTimeStep(double coverageTimeStep) {
+		this.coverageTimeStep = coverageTimeStep;
+	}
+
+	/**
+	 * Enable or disable the sampled ephemerides of the satellites (see
+	 * EphemerisCache). It has to be called before propagateOrbits.
+	 * 
+	 * @param ephemerisCache true to attach a sampled ephemeris to each satellite,
+	 *                       read by the sweep visibility engines
+	 */
+	public void setEphemerisCache(Boolean ephemerisCache) {
+		this.ephemerisCache = ephemerisCache;
+	}
+
+	/**
+	 * Set the cache of the events of the satellites. By default, it is the shared
+	 * cache if Parameters.visibilityCacheCapacity is positive.
+	 * 
+	 * @param visibilityCache the cache, null to always propagate the satellites
+	 */
+	public void setVisibilityCache(VisibilityCache visibilityCache) {
+		this.visibilityCache = visibilityCache;
+	}
+
+	/**
+	 * Enable or disable the propagation of one satellite per orbit shape (only
+	 * with the time stepped sweep engine). It has to be called before
+	 * propagateOrbits.
+	 * 
+	 * @param symmetricPropagation true to derive the visibilities of the satellites
+	 *                             which have the same orbit shape
+	 */
+	public void setSymmetricPropagation(Boolean symmetricPropagation) {
+		this.symmetricPropagation = symmetricPropagation;
+	}
+
+	/**
+	 * Enable or disable the search of the repeat cycle of the ground track. It has
+	 * to be called before propagateOrbits.
+	 * 
+	 * @param groundTrackRepeat true to search the repeat cycle
+	 */
+	public void setGroundTrackRepeat(Boolean groundTrackRepeat) {
+		this.groundTrackRepeat = groundTrackRepeat;
+	}
+
+	/**
+	 * Enable or disable the latitude prefilter of the mesh points.
+	 * 
+	 * @param latitudePrefilter : true to create the detectors of a satellite only
+	 *                          for the points of the latitude band it can see
+	 */
+	public void setLatitudePrefilter(Boolean latitudePrefilter) {
+		this.latitudePrefilter = latitudePrefilter;
+	}
+
+	/**
+	 * Give the repeat cycle of the ground track of the constellation, which is then
+	 * not searched. It has to be called before propagateOrbits.
+	 * 
+	 * @param repeatCycle the repeat cycle (s), 0 if unknown
+	 */
+	public void setRepeatCycle(double repeatCycle) {
+		this.repeatCycle = repeatCycle;
+	}
+
+	/**
+	 * Set the cutoff of the maximum revisit. When the revisit of a point is known
+	 * to be greater than the cutoff, the propagation is stopped and getMaxRevisit
+	 * returns the revisit known at that time, which is greater than the cutoff but
+	 * lower than the true maximum revisit. It has to be called before
+	 * propagateOrbits.
+	 * 
+	 * @param revisitCutoff the cutoff (s), Double.MAX_VALUE to disable it
+	 */
+	public void setRevisitCutoff(double revisitCutoff) {
+		this.revisitCutoff = revisitCutoff;
+	}
+
+	/**
+	 * @return true if the last propagation has been stopped by the revisit cutoff
+	 */
+	public boolean isCutOff() {
+		return cutoffRevisit != -1;
+	}
+
+	/**
+	 * Set the pool in which the satellites are propagated when the parallel
+	 * propagation is enabled (by default the common pool).
+	 * 
+	 * @param forkJoinPool the pool of the propagation tasks
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * This method computes the maximum time of revisit of a point of the mesh. A
+	 * beginning of visibilty is seen as "(" and an end as ")" : a revisit is the
+	 * duration between a ")" which closes all the parentheses and the next "(".
+	 * In bitset mode, it is computed on the discretized coverage.
+	 * 
+	 * @param meshPoint : the point of the mesh
+	 * @return the maximum time of revisit (s), Double.MAX_VALUE if the point is
+	 *         never seen
+	 */
+	public double getMaxRevisitPoint(GeodeticPoint meshPoint) {
+		if (coverage != null)
+			return coverage.getMaxRevisitPoint(pointIndices.get(meshPoint));
+		return getRevisitAccumulator().getMaxRevisitPoint(pointIndices.get(meshPoint));
+	}
+
+	/**
+	 * Get the accumulator of the revisits. In streaming mode it has been filled
+	 * during the propagation, otherwise it is computed once from the stored events,
+	 * sorted by date.
+	 */
+	private RevisitAccumulator getRevisitAccumulator() {
+		if (revisitAccumulator == null) {
+			revisitAccumulator = new RevisitAccumulator(zone.getListMeshingPoints().size(),
+					this.propagationEnd.durationFrom(this.t0));
+			visibilityEvents.sortChronologically();
+			visibilityEvents.addTo(revisitAccumulator, visibilityEvents.size());
+		}
+		return revisitAccumulator;
+	}
+
+	/**
+	 * Count the mesh points which never see a satellite. If the propagation has
+	 * been stopped by the revisit cutoff, only the point which stopped it is known.
+	 * 
+	 * @return the number of points whose max revisit is Double.MAX_VALUE
+	 */
+	public int getNbUnseenPoints() {
+		if (isCutOff())
+			return cutoffRevisit == Double.MAX_VALUE ? 1 : 0;
+		int nbUnseenPoints = 0;
+		for (int pointIndex = 0; pointIndex < zone.getListMeshingPoints().size(); pointIndex++) {
+			double maxRevisit = coverage != null ? coverage.getMaxRevisitPoint(pointIndex)
+					: getRevisitAccumulator().getMaxRevisitPoint(pointIndex);
+			if (maxRevisit == Double.MAX_VALUE)
+				nbUnseenPoints++;
+		}
+		return nbUnseenPoints;
 	}
 
 	/**
 	 * This method computes the maximum time of revisit on the specified zone of the
 	 * problem.
 	 * 
-	 * It uses the hashmaps of beginning and end of events previously computed
-	 * during the propagation.
+	 * It uses the visibility events previously computed during the propagation,
+	 * through the revisit accumulator. If the propagation has been stopped by the
+	 * revisit cutoff, it returns the revisit known at that time (see
+	 * setRevisitCutoff).
 	 */
 	public double getMaxRevisit() {
 
-		double maxRevisit = -1;
-
-		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+		if (isCutOff())
+			return cutoffRevisit;
 
-			double pointRevisit = getMaxRevisitPoint(meshPoint);
-			if (pointRevisit > maxRevisit)
-				maxRevisit = pointRevisit;
+		double maxRevisit = coverage != null ? coverage.getMaxRevisit() : getRevisitAccumulator().getMaxRevisit();
 
-		}
 		if (maxRevisit == -1) {
 			System.out.println("ERROR maxRevisite = -1 s for constellation : \n" + constellation);
 			maxRevisit = Double.MAX_VALUE;
@@ -447,40 +1496,36 @@ public class Simulation {
 }
 
 /**
- * That class is here to display when an event is detected.
+ * Visibility handler which writes each event (index of the mesh point, date in
+ * seconds since t0 and direction) in a VisibilityListener, without keeping the
+ * state of the satellite.
  *
  */
-class VisibilityHandlerVerbose implements EventHandler<ElevationDetector> {
+class VisibilityHandlerCapture implements EventHandler<ElevationDetector> {
 
-	public Action eventOccurred(final SpacecraftState s, final ElevationDetector detector, final boolean increasing) {
-		if (increasing) {
-			System.out.println(
-					" Visibility on " + detector.getTopocentricFrame().getName() + " begins at " + s.getDate());
-			return Action.CONTINUE;
-		} else {
-			System.out
-					.println(" Visibility on " + detector.getTopocentricFrame().getName() + " ends at " + s.getDate());
-			// we need to continue the simulation once a point is seen because we may have
-			// other points
-			// or may want to calculate the revisit time
-			return Action.CONTINUE;
-		}
+	/** Index of the mesh point of the detector */
+	private final int pointIndex;
 
-	}
+	/** Beginning of the simulation */
+	private final AbsoluteDate t0;
 
-	public SpacecraftState resetState(final ElevationDetector detector, final SpacecraftState oldState) {
-		return oldState;
-	}
+	/** The listener which receives the events */
+	private final VisibilityListener listener;
 
-}
+	private final Boolean verbose;
 
-/**
- * Visibility handler class.
- *
- */
-class VisibilityHandlerSilent implements EventHandler<ElevationDetector> {
+	VisibilityHandlerCapture(int pointIndex, AbsoluteDate t0, VisibilityListener listener, Boolean verbose) {
+		this.pointIndex = pointIndex;
+		this.t0 = t0;
+		this.listener = listener;
+		this.verbose = verbose;
+	}
 
 	public Action eventOccurred(final SpacecraftState s, final ElevationDetector detector, final boolean increasing) {
+		listener.visibilityEvent(pointIndex, s.getDate().durationFrom(t0), increasing);
+		if (verbose)
+			System.out.println(" Visibility on " + detector.getTopocentricFrame().getName()
+					+ (increasing ? " begins at " : " ends at ") + s.getDate());
 		return Action.CONTINUE;
 	}
 
@@ -488,4 +1533,7 @@ class VisibilityHandlerSilent implements EventHandler<ElevationDetector> {
 		return oldState;
 	}
 
+	int getPointIndex() {
+		return pointIndex;
+	}
 }
@@ -0,0 +1,618 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.hipparchus.analysis.UnivariateFunction;
+import org.hipparchus.analysis.solvers.AllowedSolution;
+import org.hipparchus.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.exception.MathIllegalStateException;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.optim.MaxEval;
+import org.hipparchus.optim.nonlinear.scalar.GoalType;
+import org.hipparchus.optim.univariate.BrentOptimizer;
+import org.hipparchus.optim.univariate.SearchInterval;
+import org.hipparchus.optim.univariate.UnivariateObjectiveFunction;
+import org.hipparchus.optim.univariate.UnivariatePointValuePair;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinatesProvider;
+
+import constellation.EphemerisCache;
+import constellation.KeplerianKernel;
+import constellation.Satellite;
+import utils.Parameters;
+import zone.GridFootprintRasterizer;
+import zone.HierarchicalCellIndex;
+import zone.Zone;
+
+/**
+ * The next class is a visibility engine which replaces the ElevationDetector
+ * created for each point of the mesh. Each satellite is propagated once on a
+ * time grid (the adaptative maxcheck of the simulation), the footprint of the
+ * satellite is computed at each step and only the mesh points which enter or
+ * leave the footprint are updated. The crossing times of these points are then
+ * refined with the same threshold as the detectors (Parameters.threshold).
+ *
+ * The visibility of a mesh point is the same as the one of the ElevationDetector
+ * : the elevation of the satellite in the topocentric frame of the point has to
+ * be higher than the elevation computed from the half FOV of the satellite.
+ *
+ * A pass shorter than the time step can happen between two steps. To find it,
+ * the elevation of the points near the footprint is kept for the last two
+ * steps: if it reaches a local maximum between them, the maximum is computed
+ * and a visibility is added if the satellite is seen at this maximum.
+ *
+ * These are the guidelines to follow to use this class :
+ *
+ * - Instantiate the engine with the zone to explore. The geometry of the mesh
+ * (positions, zenith directions, latitudes) is computed once in the
+ * constructor, or read in a ZoneModel shared by several engines.
+ *
+ * - Call the method computeVisibilities for each satellite. The dates of
+ * beginning and end of visibility are sent to a VisibilityListener. The method
+ * startSweep can be used instead to propagate the satellite period by period.
+ *
+ * WARNING Thread safety: the class is conditionally thread safe if and only if
+ * Parameters are immutable and each thread uses its own listeners and
+ * satellites. The geometry of the mesh is only read after the construction.
+ *
+ */
+public class SweepVisibilityEngine {
+
+	/**
+	 * Angular margin (radian) added to the footprint to take into account the
+	 * flattening of the Earth (the zenith of a mesh point is not exactly its
+	 * geocentric direction).
+	 */
+	private static final double FOOTPRINT_MARGIN = 0.01;
+
+	/**
+	 * Angular margin (radian) added to the footprint when the cell index or the
+	 * grid are queried : they work with the geodetic latitudes of the points, which
+	 * differ from their geocentric latitudes by less than 0.0034 radian.
+	 */
+	private static final double GEODETIC_MARGIN = 0.004;
+
+	/** Maximum number of evaluations to refine a crossing time */
+	private static final int MAX_EVALUATIONS = 100;
+
+	/** Points of the mesh of the zone */
+	private final ArrayList<GeodeticPoint> listMeshingPoints;
+
+	/** Positions of the mesh points in the Earth frame (m) */
+	private final double[] pointX, pointY, pointZ;
+
+	/** Zenith directions of the mesh points in the Earth frame */
+	private final double[] zenithX, zenithY, zenithZ;
+
+	/** Distance from the center of the Earth to the mesh points (m) */
+	private final double[] pointRadius;
+
+	/** Indices of the mesh points sorted by increasing geocentric latitude */
+	private final int[] sortedIndices;
+
+	/** Geocentric latitudes of the mesh points sorted by increasing value */
+	private final double[] sortedLatitudes;
+
+	/** Smallest distance from the center of the Earth to a mesh point (m) */
+	private final double minPointRadius;
+
+	/** Index of the mesh points in hierarchical cells, null if the zone has none */
+	private final HierarchicalCellIndex cellIndex;
+
+	/**
+	 * Rasterizer of the footprints on the grid of the standard meshing, null if the
+	 * rasterization is disabled or if the zone is not meshed as a grid
+	 */
+	private final GridFootprintRasterizer gridRasterizer;
+
+	/** Factor applied to the time step of the sweep (see FidelityLevel) */
+	private final double maxcheckScale;
+
+	/**
+	 * Constructor of the engine. It computes the geometry of the mesh of the zone
+	 * in the Earth frame.
+	 *
+	 * @param zone : the zone to explore on the Earth
+	 */
+	public SweepVisibilityEngine(Zone zone) {
+		this(new ZoneModel(zone.getListMeshingPoints(), false));
+	}
+
+	/**
+	 * Constructor of the engine from a list of points, the indices of the events
+	 * being the indices of the points in this list.
+	 *
+	 * @param listMeshingPoints : the points of the mesh
+	 */
+	public SweepVisibilityEngine(ArrayList<GeodeticPoint> listMeshingPoints) {
+		this(new ZoneModel(listMeshingPoints, false));
+	}
+
+	/**
+	 * Constructor of the engine from the precomputed model of the mesh, which is
+	 * only read.
+	 *
+	 * @param zoneModel : the model of the mesh
+	 */
+	public SweepVisibilityEngine(ZoneModel zoneModel) {
+		this(zoneModel, 1.0);
+	}
+
+	/**
+	 * Constructor of the engine from the precomputed model of the mesh, with a
+	 * scaled time step.
+	 *
+	 * @param zoneModel     : the model of the mesh
+	 * @param maxcheckScale : factor applied to the adaptative maxcheck used as time
+	 *                      step
+	 */
+	public SweepVisibilityEngine(ZoneModel zoneModel, double maxcheckScale) {
+		this(zoneModel, maxcheckScale, false);
+	}
+
+	/**
+	 * Constructor of the engine from the precomputed model of the mesh, with a
+	 * scaled time step, and which may rasterize the footprints on the grid of the
+	 * mesh (see GridFootprintRasterizer) to find the points under them.
+	 *
+	 * @param zoneModel     : the model of the mesh
+	 * @param maxcheckScale : factor applied to the adaptative maxcheck used as time
+	 *                      step
+	 * @param rasterization : true to rasterize the footprints when the zone is
+	 *                      meshed as a grid
+	 */
+	public SweepVisibilityEngine(ZoneModel zoneModel, double maxcheckScale, boolean rasterization) {
+
+		this.maxcheckScale = maxcheckScale;
+		this.listMeshingPoints = zoneModel.getListMeshingPoints();
+		this.pointX = zoneModel.getPointX();
+		this.pointY = zoneModel.getPointY();
+		this.pointZ = zoneModel.getPointZ();
+		this.zenithX = zoneModel.getZenithX();
+		this.zenithY = zoneModel.getZenithY();
+		this.zenithZ = zoneModel.getZenithZ();
+		this.pointRadius = zoneModel.getPointRadius();
+		this.sortedIndices = zoneModel.getSortedIndices();
+		this.sortedLatitudes = zoneModel.getSortedLatitudes();
+		this.minPointRadius = zoneModel.getMinPointRadius();
+		this.cellIndex = zoneModel.getCellIndex();
+		this.gridRasterizer = rasterization ? zoneModel.getGridRasterizer() : null;
+	}
+
+	/**
+	 * This method propagates the satellite between t0 and tf and sends to the
+	 * listener the dates at which each point of the mesh enters and exits the
+	 * satellite view. As with the detectors, a point which is seen at t0 gets a
+	 * beginning of visibility at t0, and no end of visibility is added at tf.
+	 *
+	 * @param sat      : the satellite to propagate
+	 * @param t0       : the date corresponding to the beginning of the simulation
+	 * @param tf       : the date corresponding to the end of the simulation
+	 * @param listener : the listener which receives the visibility events
+	 */
+	public void computeVisibilities(Satellite sat, AbsoluteDate t0, AbsoluteDate tf, VisibilityListener listener) {
+		SatelliteSweep sweep = startSweep(sat, t0, tf);
+		sweep.propagateTo(tf.durationFrom(t0), listener);
+	}
+
+	/**
+	 * Start the sweep of a satellite between t0 and tf. The sweep can then be
+	 * propagated step by step, for example to merge the events of several
+	 * satellites on a same period.
+	 *
+	 * @param sat : the satellite to propagate
+	 * @param t0  : the date corresponding to the beginning of the simulation
+	 * @param tf  : the date corresponding to the end of the simulation
+	 * @return the sweep of the satellite
+	 */
+	public SatelliteSweep startSweep(Satellite sat, AbsoluteDate t0, AbsoluteDate tf) {
+		return new SatelliteSweep(sat, t0, tf);
+	}
+
+	/**
+	 * Sweep of one satellite. It contains the state of the propagation : the points
+	 * in the footprint at the last step and the elevations of the mesh points at
+	 * the two last steps at which they were computed, used to find the short
+	 * passes. The state is local to the sweep, so that the engine can be shared by
+	 * several threads.
+	 */
+	public class SatelliteSweep {
+
+		/** Provider of the positions of the satellite */
+		private final PVCoordinatesProvider provider;
+
+		/**
+		 * Closed-form propagation of the satellite, used instead of the provider if
+		 * Parameters.keplerianKernel is set, null otherwise
+		 */
+		private final KeplerianKernel kernel;
+
+		/**
+		 * Sampled ephemeris of the satellite, used if it covers the sweep and if
+		 * the kernel is not, null otherwise
+		 */
+		private final EphemerisCache ephemeris;
+
+		/** Date of t0 in the ephemeris (s since its beginning) */
+		private final double ephemerisOffset;
+
+		/** Work array of the position given by the kernel or the ephemeris */
+		private final double[] workState = new double[6];
+
+		/** Beginning of the simulation */
+		private final AbsoluteDate t0;
+
+		/** Duration of the simulation (s) */
+		private final double duration;
+
+		/** Elevation at which a point begins to see the satellite (radian) */
+		private final double elevation;
+
+		/** Time step of the sweep (s) */
+		private final double step;
+
+		/** Solver used to refine the crossing dates */
+		private final BracketingNthOrderBrentSolver solver;
+
+		/** Points in the footprint at the previous and at the current step */
+		private int[] previousVisible;
+		private int[] currentVisible;
+		private int nbPreviousVisible;
+
+		/** Index of the last step at which each point was in the footprint */
+		private final int[] visibleStep;
+
+		/**
+		 * Elevation (minus the visibility elevation) of each mesh point at the last
+		 * step at which it was computed, and index of this step
+		 */
+		private final double[] lastG;
+		private final int[] lastGStep;
+
+		/**
+		 * Elevation (minus the visibility elevation) of each mesh point at the step
+		 * before the last one, and index of this step
+		 */
+		private final double[] previousG;
+		private final int[] previousGStep;
+
+		/**
+		 * Points under the footprint, found with the cell index or with the
+		 * rasterizer
+		 */
+		private final int[] candidates;
+
+		/** Work array of the ranges of the grid covered by the footprint */
+		private final int[] ranges;
+
+		/** Points which may have a short pass between the two last steps */
+		private final int[] grazingPoints;
+		private int nbGrazingPoints;
+
+		/** Dates (s since t0) of the two last steps */
+		private double beforePreviousTime = 0;
+		private double previousTime = 0;
+
+		/** Index of the next step, 0 if the sweep has not started yet */
+		private int stepIndex = 0;
+
+		private SatelliteSweep(Satellite sat, AbsoluteDate t0, AbsoluteDate tf) {
+
+			int nbPoints = listMeshingPoints.size();
+
+			this.provider = sat.getPropagator();
+			this.t0 = t0;
+			if (Parameters.keplerianKernel) {
+				ArrayList<Satellite> listSatellites = new ArrayList<Satellite>();
+				listSatellites.add(sat);
+				this.kernel = new KeplerianKernel(listSatellites, t0);
+			} else {
+				this.kernel = null;
+			}
+			EphemerisCache cache = sat.getEphemerisCache();
+			if (kernel == null && cache != null && cache.covers(t0, Parameters.earthFrame)
+					&& cache.covers(tf, Parameters.earthFrame)) {
+				this.ephemeris = cache;
+				this.ephemerisOffset = t0.durationFrom(cache.getStart());
+			} else {
+				this.ephemeris = null;
+				this.ephemerisOffset = 0;
+			}
+			this.duration = tf.durationFrom(t0);
+
+			// same elevation and time step as the detectors of the simulation
+			this.elevation = Simulation.computeElevation(Parameters.halfFOV, sat.getA());
+			this.step = Simulation.computeMaxcheck(Parameters.halfFOV, sat.getA()) * maxcheckScale;
+			this.solver = new BracketingNthOrderBrentSolver(0, Parameters.threshold, 0, 5);
+
+			this.previousVisible = new int[nbPoints];
+			this.currentVisible = new int[nbPoints];
+			this.visibleStep = new int[nbPoints];
+			this.lastG = new double[nbPoints];
+			this.lastGStep = new int[nbPoints];
+			this.previousG = new double[nbPoints];
+			this.previousGStep = new int[nbPoints];
+			this.grazingPoints = new int[nbPoints];
+			this.candidates = cellIndex == null && gridRasterizer == null ? null : new int[nbPoints];
+			this.ranges = gridRasterizer == null ? null : new int[gridRasterizer.getRangesLength()];
+			Arrays.fill(visibleStep, -1);
+			Arrays.fill(lastGStep, -1);
+			Arrays.fill(previousGStep, -1);
+		}
+
+		/**
+		 * Propagate the sweep up to the given date. The steps of the sweep are always
+		 * the same (multiples of the time step), whatever the dates given to this
+		 * method.
+		 *
+		 * @param time     : date up to which the satellite is propagated, in seconds
+		 *                 since t0
+		 * @param listener : the listener which receives the visibility events
+		 */
+		public void propagateTo(double time, VisibilityListener listener) {
+
+			if (stepIndex == 0) {
+				nbPreviousVisible = findVisiblePoints(getPosition(0), 0, previousVisible);
+				for (int k = 0; k < nbPreviousVisible; k++) {
+					visibleStep[previousVisible[k]] = 0;
+					listener.visibilityEvent(previousVisible[k], 0, true);
+				}
+				stepIndex = 1;
+			}
+
+			while (previousTime < duration && Math.min(stepIndex * step, duration) <= time) {
+				propagateStep(listener);
+			}
+		}
+
+		/**
+		 * Get the maximum delay between the date given to propagateTo and the date of
+		 * the events which can still be sent by the next calls (short passes and
+		 * crossings between the last step and the next one).
+		 *
+		 * @return the maximum delay (s)
+		 */
+		public double getMaxDelay() {
+			return 3 * step;
+		}
+
+		/**
+		 * Compute the next step of the sweep.
+		 */
+		private void propagateStep(VisibilityListener listener) {
+
+			double currentTime = Math.min(stepIndex * step, duration);
+			int nbCurrentVisible = findVisiblePoints(getPosition(currentTime), stepIndex, currentVisible);
+
+			// short passes between the two last steps
+			for (int k = 0; k < nbGrazingPoints; k++) {
+				addShortPass(grazingPoints[k], beforePreviousTime, currentTime, listener);
+			}
+
+			// the points which were not in the previous footprint are entering
+			for (int k = 0; k < nbCurrentVisible; k++) {
+				int pointIndex = currentVisible[k];
+				if (visibleStep[pointIndex] != stepIndex - 1) {
+					listener.visibilityEvent(pointIndex, refineCrossing(pointIndex, previousTime, currentTime),
+							true);
+				}
+			}
+			for (int k = 0; k < nbCurrentVisible; k++) {
+				visibleStep[currentVisible[k]] = stepIndex;
+			}
+
+			// the points of the previous footprint which are not in the current one are
+			// leaving
+			for (int k = 0; k < nbPreviousVisible; k++) {
+				int pointIndex = previousVisible[k];
+				if (visibleStep[pointIndex] != stepIndex) {
+					listener.visibilityEvent(pointIndex, refineCrossing(pointIndex, previousTime, currentTime),
+							false);
+				}
+			}
+
+			int[] swap = previousVisible;
+			previousVisible = currentVisible;
+			currentVisible = swap;
+			nbPreviousVisible = nbCurrentVisible;
+
+			beforePreviousTime = previousTime;
+			previousTime = currentTime;
+			stepIndex++;
+		}
+
+		/**
+		 * This method looks for the maximum of elevation of a mesh point between two
+		 * steps at which the point was not visible. If the satellite is seen at this
+		 * maximum, the beginning and the end of the pass are sent to the listener.
+		 */
+		private void addShortPass(int pointIndex, double startTime, double endTime, VisibilityListener listener) {
+
+			UnivariateFunction g = time -> getElevation(pointIndex, getPosition(time)) - elevation;
+
+			BrentOptimizer optimizer = new BrentOptimizer(1e-10, Parameters.threshold);
+			UnivariatePointValuePair maximum = optimizer.optimize(new MaxEval(MAX_EVALUATIONS),
+					new UnivariateObjectiveFunction(g), GoalType.MAXIMIZE,
+					new SearchInterval(startTime, endTime, 0.5 * (startTime + endTime)));
+
+			if (maximum.getValue() > 0) {
+				double maximumTime = maximum.getPoint();
+				listener.visibilityEvent(pointIndex, refineCrossing(pointIndex, startTime, maximumTime), true);
+				listener.visibilityEvent(pointIndex, refineCrossing(pointIndex, maximumTime, endTime), false);
+			}
+		}
+
+		/**
+		 * This method finds the points of the mesh which see the satellite above the
+		 * elevation. Only the points whose geocentric direction is close enough to
+		 * the satellite direction are tested : they are found in the cell index of
+		 * the zone when it has one, which touches only the cells under the
+		 * footprint, by rasterizing the footprint on the grid of the mesh when it is
+		 * enabled, or else in the latitude band of the footprint.
+		 *
+		 * @param satPosition : position of the satellite in the Earth frame
+		 * @param stepIndex   : index of the current step
+		 * @param visible     : array in which the indices of the visible points are
+		 *                    written
+		 * @return the number of visible points
+		 */
+		private int findVisiblePoints(Vector3D satPosition, int stepIndex, int[] visible) {
+
+			double satRadius = satPosition.getNorm();
+			double satLatitude = Math.asin(satPosition.getZ() / satRadius);
+
+			// angular radius of the footprint seen from the center of the Earth
+			double footprintRadius = Math.PI;
+			double ratio = minPointRadius * Math.cos(elevation) / satRadius;
+			if (ratio < 1) {
+				footprintRadius = Math.min(Math.PI, Math.acos(ratio) - elevation + FOOTPRINT_MARGIN);
+			}
+			double cosFootprintRadius = Math.cos(footprintRadius);
+
+			int nbVisible = 0;
+			nbGrazingPoints = 0;
+
+			// only the points of the cells or of the grid ranges under the footprint are
+			// tested
+			int nbCandidates = -1;
+			double satLongitude = Math.atan2(satPosition.getY(), satPosition.getX());
+			if (cellIndex != null) {
+				nbCandidates = cellIndex.findPointsInCap(satLatitude, satLongitude, footprintRadius + GEODETIC_MARGIN,
+						candidates);
+			} else if (gridRasterizer != null) {
+				nbCandidates = gridRasterizer.findPoints(satLatitude, satLongitude, footprintRadius + GEODETIC_MARGIN,
+						ranges, candidates);
+			}
+			if (nbCandidates >= 0) {
+				for (int c = 0; c < nbCandidates; c++) {
+					nbVisible = testPoint(candidates[c], satPosition, satRadius, cosFootprintRadius, stepIndex, visible,
+							nbVisible);
+				}
+				return nbVisible;
+			}
+
+			int k = lowerBound(satLatitude - footprintRadius);
+			double latitudeMax = satLatitude + footprintRadius;
+
+			while (k < sortedIndices.length && sortedLatitudes[k] <= latitudeMax) {
+				nbVisible = testPoint(sortedIndices[k], satPosition, satRadius, cosFootprintRadius, stepIndex, visible,
+						nbVisible);
+				k++;
+			}
+			return nbVisible;
+		}
+
+		/**
+		 * Test if a mesh point sees the satellite, and if it may have a short pass
+		 * between the two last steps.
+		 *
+		 * @return the number of visible points, the point included if it is visible
+		 */
+		private int testPoint(int pointIndex, Vector3D satPosition, double satRadius, double cosFootprintRadius,
+				int stepIndex, int[] visible, int nbVisible) {
+
+			// angle between the point and the satellite seen from the center of the
+			// Earth
+			double cosAngle = (pointX[pointIndex] * satPosition.getX() + pointY[pointIndex] * satPosition.getY()
+					+ pointZ[pointIndex] * satPosition.getZ()) / (pointRadius[pointIndex] * satRadius);
+
+			if (cosAngle >= cosFootprintRadius) {
+				double g = getElevation(pointIndex, satPosition) - elevation;
+
+				if (g > 0) {
+					visible[nbVisible] = pointIndex;
+					nbVisible++;
+				} else if (isLocalMaximum(pointIndex, stepIndex, g)) {
+					// the elevation has a local maximum between the two last steps
+					grazingPoints[nbGrazingPoints] = pointIndex;
+					nbGrazingPoints++;
+				}
+
+				previousG[pointIndex] = lastG[pointIndex];
+				previousGStep[pointIndex] = lastGStep[pointIndex];
+				lastG[pointIndex] = g;
+				lastGStep[pointIndex] = stepIndex;
+			}
+			return nbVisible;
+		}
+
+		/**
+		 * @return true if the elevation of the point, which is not visible at the
+		 *         current step, had a local maximum at the previous step
+		 */
+		private boolean isLocalMaximum(int pointIndex, int stepIndex, double g) {
+			return lastGStep[pointIndex] == stepIndex - 1 && previousGStep[pointIndex] == stepIndex - 2
+					&& lastG[pointIndex] <= 0 && lastG[pointIndex] > g && lastG[pointIndex] > previousG[pointIndex];
+		}
+
+		/**
+		 * This method refines the date at which a mesh point enters or exits the
+		 * satellite view, with an accuracy of Parameters.threshold.
+		 *
+		 * @return the crossing date in seconds since t0
+		 */
+		private double refineCrossing(int pointIndex, double previousTime, double currentTime) {
+
+			UnivariateFunction g = time -> getElevation(pointIndex, getPosition(time)) - elevation;
+
+			try {
+				return solver.solve(MAX_EVALUATIONS, g, previousTime, currentTime, AllowedSolution.ANY_SIDE);
+			} catch (MathIllegalArgumentException | MathIllegalStateException e) {
+				// the crossing can't be bracketed (rounding errors) : the step date is kept
+				return currentTime;
+			}
+		}
+
+		/**
+		 * @return the position of the satellite in the Earth frame at t0 + time
+		 */
+		private Vector3D getPosition(double time) {
+			if (kernel != null) {
+				kernel.computeEarthPosition(0, time, workState);
+				return new Vector3D(workState[0], workState[1], workState[2]);
+			}
+			if (ephemeris != null) {
+				ephemeris.getPVCoordinates(ephemerisOffset + time, true, workState);
+				return new Vector3D(workState[0], workState[1], workState[2]);
+			}
+			return provider.getPVCoordinates(new AbsoluteDate(t0, time), Parameters.earthFrame).getPosition();
+		}
+	}
+
+	/**
+	 * Compute the elevation of the satellite seen from a mesh point, as the
+	 * TopocentricFrame of Orekit does.
+	 *
+	 * @param pointIndex  : index of the mesh point
+	 * @param satPosition : position of the satellite in the Earth frame
+	 * @return the elevation in radian
+	 */
+	private double getElevation(int pointIndex, Vector3D satPosition) {
+		double dx = satPosition.getX() - pointX[pointIndex];
+		double dy = satPosition.getY() - pointY[pointIndex];
+		double dz = satPosition.getZ() - pointZ[pointIndex];
+		double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		double up = dx * zenithX[pointIndex] + dy * zenithY[pointIndex] + dz * zenithZ[pointIndex];
+		return Math.asin(up / distance);
+	}
+
+	/**
+	 * @return the index of the first sorted latitude higher or equal to latitude
+	 */
+	private int lowerBound(double latitude) {
+		int low = 0;
+		int high = sortedLatitudes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedLatitudes[middle] < latitude) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
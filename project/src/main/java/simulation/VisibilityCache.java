@@ -0,0 +1,218 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.orekit.time.AbsoluteDate;
+
+import constellation.Satellite;
+import utils.Parameters;
+
+/**
+ * Cache of the visibility events of satellites, shared by the simulations of
+ * an optimisation. The individuals of a generation often have satellites with
+ * the same Keplerian elements as the individuals of the previous ones : their
+ * events are then read from the cache instead of being propagated again.
+ *
+ * The key of a satellite contains everything its events depend on : its
+ * Keplerian elements and epoch, the beginning and the duration of the
+ * propagation, the half FOV, the visibility engine with its time step scale
+ * (see FidelityLevel) and its propagation model (see
+ * Parameters.keplerianKernel), and the mesh points of the zone. The value is
+ * the buffer of the events of the satellite, sorted by date.
+ *
+ * The cache is bounded by the total number of events it stores : the least
+ * recently used satellites are removed first. The numbers of hits and misses
+ * are counted to size the cache.
+ *
+ * Thread safety : the class is thread safe, the access to the storage being
+ * synchronized. The stored buffers must not be modified.
+ *
+ */
+public class VisibilityCache {
+
+	/** The cache shared by the simulations, created when first needed */
+	private static VisibilityCache sharedCache;
+
+	/** Maximum number of events stored in the cache */
+	private final long capacity;
+
+	/** Number of events currently stored */
+	private long nbEvents = 0;
+
+	/** The events of each satellite, by order of access */
+	private final LinkedHashMap<Key, VisibilityEventBuffer> storage = new LinkedHashMap<Key, VisibilityEventBuffer>(
+			16, 0.75f, true);
+
+	private final AtomicLong nbHits = new AtomicLong();
+	private final AtomicLong nbMisses = new AtomicLong();
+
+	/**
+	 * Constructor of the cache.
+	 *
+	 * @param capacity : maximum number of events stored in the cache
+	 */
+	public VisibilityCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Get the cache shared by all the simulations, with a capacity of
+	 * Parameters.visibilityCacheCapacity events.
+	 *
+	 * @return the shared cache
+	 */
+	public static synchronized VisibilityCache getSharedCache() {
+		if (sharedCache == null)
+			sharedCache = new VisibilityCache(Parameters.visibilityCacheCapacity);
+		return sharedCache;
+	}
+
+	/**
+	 * Get the events of a satellite.
+	 *
+	 * @param key : the key of the satellite
+	 * @return the events sorted by date, null if the satellite is not in the cache
+	 */
+	public synchronized VisibilityEventBuffer get(Key key) {
+		VisibilityEventBuffer events = storage.get(key);
+		if (events == null)
+			nbMisses.incrementAndGet();
+		else
+			nbHits.incrementAndGet();
+		return events;
+	}
+
+	/**
+	 * Store the events of a satellite and remove the least recently used ones if
+	 * the cache is full. The events of a satellite which are more than the
+	 * capacity are not stored.
+	 *
+	 * @param key    : the key of the satellite
+	 * @param events : the events sorted by date, not modified afterwards
+	 */
+	public synchronized void put(Key key, VisibilityEventBuffer events) {
+		if (events.size() > capacity)
+			return;
+
+		VisibilityEventBuffer previous = storage.put(key, events);
+		if (previous != null)
+			nbEvents -= previous.size();
+		nbEvents += events.size();
+
+		Iterator<VisibilityEventBuffer> iterator = storage.values().iterator();
+		while (nbEvents > capacity && iterator.hasNext()) {
+			VisibilityEventBuffer eldest = iterator.next();
+			if (eldest == events)
+				continue;
+			nbEvents -= eldest.size();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Remove all the satellites of the cache. The counters are kept.
+	 */
+	public synchronized void clear() {
+		storage.clear();
+		nbEvents = 0;
+	}
+
+	public long getNbHits() {
+		return nbHits.get();
+	}
+
+	public long getNbMisses() {
+		return nbMisses.get();
+	}
+
+	public synchronized int getNbSatellites() {
+		return storage.size();
+	}
+
+	public synchronized long getNbEvents() {
+		return nbEvents;
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public String toString() {
+		return "VisibilityCache : " + getNbSatellites() + " satellites, " + getNbEvents() + "/" + capacity
+				+ " events, " + getNbHits() + " hits, " + getNbMisses() + " misses";
+	}
+
+	/**
+	 * Create the key of a satellite.
+	 *
+	 * @param sat               : the satellite
+	 * @param t0                : beginning of the propagation
+	 * @param duration          : duration of the propagation (s)
+	 * @param halfFOV           : half FOV of the satellite (radian)
+	 * @param visibilityEngine  : name of the visibility engine
+	 * @param maxcheckScale     : factor applied to the time step of the engine
+	 * @param keplerianKernel   : true if the engine propagates the satellite with
+	 *                          the KeplerianKernel
+	 * @param zoneModel         : the model of the mesh of the zone
+	 * @return the key
+	 */
+	public static Key createKey(Satellite sat, AbsoluteDate t0, double duration, double halfFOV,
+			String visibilityEngine, double maxcheckScale, boolean keplerianKernel, ZoneModel zoneModel) {
+		return new Key(sat, t0, duration, halfFOV, visibilityEngine, maxcheckScale, keplerianKernel, zoneModel);
+	}
+
+	/**
+	 * Key of the events of a satellite. The mesh is identified by its model, whose
+	 * hash code is computed once : the mesh points of two different models are
+	 * compared one by one only if their hash codes are the same.
+	 */
+	public static final class Key {
+
+		private final double[] elements;
+		private final AbsoluteDate satEpoch;
+		private final AbsoluteDate t0;
+		private final String visibilityEngine;
+		private final ZoneModel zoneModel;
+		private final int hashCode;
+
+		private Key(Satellite sat, AbsoluteDate t0, double duration, double halfFOV, String visibilityEngine,
+				double maxcheckScale, boolean keplerianKernel, ZoneModel zoneModel) {
+			this.elements = new double[] { sat.getA(), sat.getE(), sat.getI(), sat.getRaan(), sat.getW(), sat.getM(),
+					duration, halfFOV, maxcheckScale, keplerianKernel ? 1 : 0 };
+			this.satEpoch = sat.getT0();
+			this.t0 = t0;
+			this.visibilityEngine = visibilityEngine;
+			this.zoneModel = zoneModel;
+
+			int hash = Arrays.hashCode(elements);
+			hash = 31 * hash + satEpoch.hashCode();
+			hash = 31 * hash + t0.hashCode();
+			hash = 31 * hash + visibilityEngine.hashCode();
+			hash = 31 * hash + zoneModel.getMeshHashCode();
+			this.hashCode = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof Key))
+				return false;
+			Key other = (Key) object;
+			return hashCode == other.hashCode && Arrays.equals(elements, other.elements)
+					&& satEpoch.equals(other.satEpoch) && t0.equals(other.t0)
+					&& visibilityEngine.equals(other.visibilityEngine)
+					&& (zoneModel == other.zoneModel
+							|| zoneModel.getListMeshingPoints().equals(other.zoneModel.getListMeshingPoints()));
+		}
+	}
+}
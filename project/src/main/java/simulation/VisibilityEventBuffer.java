@@ -0,0 +1,199 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of visibility events, stored in primitive arrays (one array
+ * per field of the event) : the index of the mesh point, the date in seconds
+ * since the beginning of the simulation and the direction of the event. No
+ * object is allocated per event, contrary to an EventsLogger which keeps a
+ * SpacecraftState for each event.
+ *
+ * Thread safety : the class is conditionally thread safe : it is safe to use
+ * the class only if each thread access to its own instance of the class.
+ *
+ */
+public class VisibilityEventBuffer implements VisibilityListener {
+
+	/** Initial capacity of the arrays */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** Index of the mesh point of each event */
+	private int[] pointIndices = new int[INITIAL_CAPACITY];
+
+	/** Date of each event (s since t0) */
+	private double[] times = new double[INITIAL_CAPACITY];
+
+	/** True for a beginning of visibility, false for an end */
+	private boolean[] risings = new boolean[INITIAL_CAPACITY];
+
+	/** Number of events in the buffer */
+	private int size = 0;
+
+	@Override
+	public void visibilityEvent(int pointIndex, double time, boolean rising) {
+		ensureCapacity(size + 1);
+		pointIndices[size] = pointIndex;
+		times[size] = time;
+		risings[size] = rising;
+		size++;
+	}
+
+	/**
+	 * Add all the events of another buffer at the end of this one.
+	 *
+	 * @param other : the buffer to copy
+	 */
+	public void addAll(VisibilityEventBuffer other) {
+		ensureCapacity(size + other.size);
+		System.arraycopy(other.pointIndices, 0, pointIndices, size, other.size);
+		System.arraycopy(other.times, 0, times, size, other.size);
+		System.arraycopy(other.risings, 0, risings, size, other.size);
+		size += other.size;
+	}
+
+	/**
+	 * Remove the first events of the buffer.
+	 *
+	 * @param nbEvents : number of events to remove
+	 */
+	public void removeFirst(int nbEvents) {
+		int nbRemaining = size - nbEvents;
+		System.arraycopy(pointIndices, nbEvents, pointIndices, 0, nbRemaining);
+		System.arraycopy(times, nbEvents, times, 0, nbRemaining);
+		System.arraycopy(risings, nbEvents, risings, 0, nbRemaining);
+		size = nbRemaining;
+	}
+
+	/**
+	 * Remove all the events, the arrays are kept to be reused.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Sort the events by date, an end of visibility being before a beginning at the
+	 * same date (as required by the RevisitAccumulator). The sort is a stable merge
+	 * sort on the primitive arrays.
+	 */
+	public void sortChronologically() {
+		if (size < 2)
+			return;
+
+		int[] bufferIndices = new int[size];
+		double[] bufferTimes = new double[size];
+		boolean[] bufferRisings = new boolean[size];
+
+		for (int width = 1; width < size; width *= 2) {
+			for (int low = 0; low < size - width; low += 2 * width) {
+				int middle = low + width;
+				int high = Math.min(low + 2 * width, size);
+				merge(low, middle, high, bufferIndices, bufferTimes, bufferRisings);
+			}
+		}
+	}
+
+	/**
+	 * Merge the sorted ranges [low, middle) and [middle, high).
+	 */
+	private void merge(int low, int middle, int high, int[] bufferIndices, double[] bufferTimes,
+			boolean[] bufferRisings) {
+
+		// nothing to do if the two ranges are already in order
+		if (!isBefore(middle, middle - 1))
+			return;
+
+		int i = low;
+		int j = middle;
+		int k = 0;
+		while (i < middle && j < high) {
+			int next = isBefore(j, i) ? j++ : i++;
+			bufferIndices[k] = pointIndices[next];
+			bufferTimes[k] = times[next];
+			bufferRisings[k] = risings[next];
+			k++;
+		}
+		while (i < middle) {
+			bufferIndices[k] = pointIndices[i];
+			bufferTimes[k] = times[i];
+			bufferRisings[k] = risings[i];
+			i++;
+			k++;
+		}
+		// the remaining events of the second range are already in place
+		System.arraycopy(bufferIndices, 0, pointIndices, low, k);
+		System.arraycopy(bufferTimes, 0, times, low, k);
+		System.arraycopy(bufferRisings, 0, risings, low, k);
+	}
+
+	/**
+	 * @return true if the event i has to be strictly before the event j
+	 */
+	private boolean isBefore(int i, int j) {
+		if (times[i] != times[j])
+			return times[i] < times[j];
+		return !risings[i] && risings[j];
+	}
+
+	/**
+	 * Make sure that the arrays can contain the given number of events.
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > times.length) {
+			int newCapacity = Math.max(capacity, 2 * times.length);
+			pointIndices = Arrays.copyOf(pointIndices, newCapacity);
+			times = Arrays.copyOf(times, newCapacity);
+			risings = Arrays.copyOf(risings, newCapacity);
+		}
+	}
+
+	/**
+	 * Add the events of the buffer to a revisit accumulator, in the order of the
+	 * buffer.
+	 *
+	 * @param accumulator : the accumulator to update
+	 * @param nbEvents    : number of events to add, from the first one
+	 */
+	public void addTo(RevisitAccumulator accumulator, int nbEvents) {
+		for (int i = 0; i < nbEvents; i++) {
+			accumulator.addEvent(pointIndices[i], times[i], risings[i]);
+		}
+	}
+
+	/**
+	 * Get the number of events which are before or at the given date, the buffer
+	 * being sorted.
+	 *
+	 * @param time : date in seconds since t0
+	 * @return the number of events
+	 */
+	public int countUntil(double time) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (times[middle] <= time)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getPointIndex(int i) {
+		return pointIndices[i];
+	}
+
+	public double getTime(int i) {
+		return times[i];
+	}
+
+	public boolean isRising(int i) {
+		return risings[i];
+	}
+}
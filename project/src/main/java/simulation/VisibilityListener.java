@@ -0,0 +1,21 @@
+package simulation;
+
+/**
+ * Interface implemented by the classes which receive the visibility events of
+ * the mesh points computed during the propagation of a satellite.
+ *
+ */
+public interface VisibilityListener {
+
+	/**
+	 * Method called when a mesh point enters or exits the view of a satellite.
+	 *
+	 * @param pointIndex : index of the mesh point in the list of the meshing
+	 *                   points of the zone
+	 * @param time       : date of the event in seconds since the beginning of the
+	 *                   simulation
+	 * @param rising     : true if the point begins to see the satellite, false if
+	 *                   it stops seeing it
+	 */
+	void visibilityEvent(int pointIndex, double time, boolean rising);
+}
@@ -0,0 +1,292 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.frames.TopocentricFrame;
+
+import utils.Parameters;
+import zone.GridFootprintRasterizer;
+import zone.HierarchicalCellIndex;
+import zone.Zone;
+
+/**
+ * Precomputed model of the mesh of a zone, used by the visibility engines : for
+ * each mesh point, its position and its zenith direction in the Earth frame,
+ * its distance to the center of the Earth, its geocentric latitude and its
+ * topocentric frame, stored in flat arrays indexed by the index of the point in
+ * the list of the meshing points. The points are also sorted by latitude, so
+ * that the points of a latitude band are found with a binary search, and
+ * indexed in hierarchical cells when the zone carries such an index (see
+ * Zone.computeHierarchicalMeshing).
+ *
+ * The model is built once per run (see DecisionVector.getBatchContext) instead
+ * of once per satellite and per evaluation.
+ *
+ * Thread safety : the class is immutable after the construction, it can be read
+ * by any number of threads. The arrays returned by the getters must not be
+ * modified.
+ *
+ */
+public class ZoneModel {
+
+	/** Zone of the mesh, null if the model is built from a list of points */
+	private final Zone zone;
+
+	/** Points of the mesh */
+	private final ArrayList<GeodeticPoint> listMeshingPoints;
+
+	/** Index of each geodetic point in the list of the meshing points */
+	private final Map<GeodeticPoint, Integer> pointIndices;
+
+	/** Positions of the mesh points in the Earth frame (m) */
+	private final double[] pointX, pointY, pointZ;
+
+	/** Zenith directions of the mesh points in the Earth frame */
+	private final double[] zenithX, zenithY, zenithZ;
+
+	/** Distance from the center of the Earth to the mesh points (m) */
+	private final double[] pointRadius;
+
+	/** Geocentric latitudes of the mesh points */
+	private final double[] latitudes;
+
+	/** Indices of the mesh points sorted by increasing geocentric latitude */
+	private final int[] sortedIndices;
+
+	/** Geocentric latitudes of the mesh points sorted by increasing value */
+	private final double[] sortedLatitudes;
+
+	/** Smallest distance from the center of the Earth to a mesh point (m) */
+	private final double minPointRadius;
+
+	/**
+	 * Index of the mesh points in hierarchical cells, carried by the zone, null if
+	 * it doesn't have one
+	 */
+	private final HierarchicalCellIndex cellIndex;
+
+	/**
+	 * Rasterizer of the grid of the standard meshing, carried by the zone, null if
+	 * it is not meshed as a grid
+	 */
+	private final GridFootprintRasterizer gridRasterizer;
+
+	/** Topocentric frame of each mesh point, null if they are not built */
+	private final TopocentricFrame[] stationFrames;
+
+	/** Hash code of the list of the mesh points, computed once */
+	private final int meshHashCode;
+
+	/**
+	 * Constructor of the model of a zone, with the topocentric frames of its mesh
+	 * points.
+	 *
+	 * @param zone : the zone to explore, already meshed
+	 */
+	public ZoneModel(Zone zone) {
+		this(zone, zone.getListMeshingPoints(), true);
+	}
+
+	/**
+	 * Constructor of the model of a list of points, the indices of the points
+	 * being their indices in this list.
+	 *
+	 * @param listMeshingPoints : the points of the mesh
+	 * @param withFrames        : true to build the topocentric frames of the
+	 *                          points (needed by the elevation detectors only)
+	 */
+	public ZoneModel(ArrayList<GeodeticPoint> listMeshingPoints, boolean withFrames) {
+		this(null, listMeshingPoints, withFrames);
+	}
+
+	private ZoneModel(Zone zone, ArrayList<GeodeticPoint> listMeshingPoints, boolean withFrames) {
+
+		this.zone = zone;
+		this.listMeshingPoints = listMeshingPoints;
+		this.cellIndex = zone == null ? null : zone.getCellIndex();
+		this.gridRasterizer = zone == null ? null : zone.getGridRasterizer();
+		int nbPoints = listMeshingPoints.size();
+
+		this.pointX = new double[nbPoints];
+		this.pointY = new double[nbPoints];
+		this.pointZ = new double[nbPoints];
+		this.zenithX = new double[nbPoints];
+		this.zenithY = new double[nbPoints];
+		this.zenithZ = new double[nbPoints];
+		this.pointRadius = new double[nbPoints];
+		this.latitudes = new double[nbPoints];
+		this.stationFrames = withFrames ? new TopocentricFrame[nbPoints] : null;
+
+		HashMap<GeodeticPoint, Integer> indices = new HashMap<GeodeticPoint, Integer>();
+		double radiusMin = Double.MAX_VALUE;
+
+		for (int pointIndex = 0; pointIndex < nbPoints; pointIndex++) {
+			GeodeticPoint meshPoint = listMeshingPoints.get(pointIndex);
+			indices.put(meshPoint, pointIndex);
+
+			Vector3D position = Parameters.earth.transform(meshPoint);
+			Vector3D zenith = meshPoint.getZenith();
+
+			pointX[pointIndex] = position.getX();
+			pointY[pointIndex] = position.getY();
+			pointZ[pointIndex] = position.getZ();
+			zenithX[pointIndex] = zenith.getX();
+			zenithY[pointIndex] = zenith.getY();
+			zenithZ[pointIndex] = zenith.getZ();
+			pointRadius[pointIndex] = position.getNorm();
+
+			latitudes[pointIndex] = Math.asin(position.getZ() / position.getNorm());
+			radiusMin = Math.min(radiusMin, position.getNorm());
+
+			if (withFrames)
+				stationFrames[pointIndex] = new TopocentricFrame(Parameters.earth, meshPoint,
+						"mesh_point_" + pointIndex);
+		}
+		this.minPointRadius = radiusMin;
+		this.pointIndices = Collections.unmodifiableMap(indices);
+		this.meshHashCode = listMeshingPoints.hashCode();
+
+		// sort the points by latitude, so that the points of a latitude band are found
+		// with a binary search
+		Integer[] order = new Integer[nbPoints];
+		for (int pointIndex = 0; pointIndex < nbPoints; pointIndex++) {
+			order[pointIndex] = pointIndex;
+		}
+		Arrays.sort(order, (p1, p2) -> Double.compare(latitudes[p1], latitudes[p2]));
+
+		this.sortedIndices = new int[nbPoints];
+		this.sortedLatitudes = new double[nbPoints];
+		for (int k = 0; k < nbPoints; k++) {
+			sortedIndices[k] = order[k];
+			sortedLatitudes[k] = latitudes[order[k]];
+		}
+	}
+
+	/**
+	 * Get the mesh points of a latitude band centered on the equator.
+	 *
+	 * @param maxLatitude : the maximum absolute geocentric latitude of the band
+	 *                    (radian)
+	 * @return the indices of the points whose geocentric latitude is in
+	 *         [-maxLatitude, maxLatitude], in increasing order
+	 */
+	public int[] getPointsInLatitudeBand(double maxLatitude) {
+		int first = lowerBound(-maxLatitude);
+		int last = first;
+		while (last < sortedLatitudes.length && sortedLatitudes[last] <= maxLatitude) {
+			last++;
+		}
+		int[] bandIndices = Arrays.copyOfRange(sortedIndices, first, last);
+		Arrays.sort(bandIndices);
+		return bandIndices;
+	}
+
+	/**
+	 * @return the index of the first sorted latitude higher or equal to latitude
+	 */
+	private int lowerBound(double latitude) {
+		int low = 0;
+		int high = sortedLatitudes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedLatitudes[middle] < latitude) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the topocentric frame of a mesh point.
+	 *
+	 * @param pointIndex : index of the point in the list of the meshing points
+	 * @return the frame, null if the frames have not been built
+	 */
+	public TopocentricFrame getStationFrame(int pointIndex) {
+		return stationFrames == null ? null : stationFrames[pointIndex];
+	}
+
+	public Zone getZone() {
+		return zone;
+	}
+
+	public HierarchicalCellIndex getCellIndex() {
+		return cellIndex;
+	}
+
+	public GridFootprintRasterizer getGridRasterizer() {
+		return gridRasterizer;
+	}
+
+	public ArrayList<GeodeticPoint> getListMeshingPoints() {
+		return listMeshingPoints;
+	}
+
+	public Map<GeodeticPoint, Integer> getPointIndices() {
+		return pointIndices;
+	}
+
+	public int getNbPoints() {
+		return listMeshingPoints.size();
+	}
+
+	/**
+	 * @return the hash code of the list of the mesh points, computed once in the
+	 *         constructor
+	 */
+	public int getMeshHashCode() {
+		return meshHashCode;
+	}
+
+	double[] getPointX() {
+		return pointX;
+	}
+
+	double[] getPointY() {
+		return pointY;
+	}
+
+	double[] getPointZ() {
+		return pointZ;
+	}
+
+	double[] getZenithX() {
+		return zenithX;
+	}
+
+	double[] getZenithY() {
+		return zenithY;
+	}
+
+	double[] getZenithZ() {
+		return zenithZ;
+	}
+
+	double[] getPointRadius() {
+		return pointRadius;
+	}
+
+	double[] getLatitudes() {
+		return latitudes;
+	}
+
+	int[] getSortedIndices() {
+		return sortedIndices;
+	}
+
+	double[] getSortedLatitudes() {
+		return sortedLatitudes;
+	}
+
+	public double getMinPointRadius() {
+		return minPointRadius;
+	}
+}
@@ -1,15 +1,13 @@
 package useCase;
 
-import java.io.File;
 import java.util.ArrayList;
 
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.bodies.GeodeticPoint;
-import org.orekit.data.DataProvidersManager;
-import org.orekit.data.DirectoryCrawler;
 
 import constellation.Constellation;
 import decisionVector.DecisionVariable;
-
+import simulation.Simulation;
 import utils.JsonReader;
 import utils.Parameters;
 
@@ -56,18 +54,13 @@ public abstract class UseCase {
 	protected ArrayList<DecisionVariable> variablesList;
 
 	/**
-	 * Load Orekit data, read the JSON input file, load the Zone and the list of
-	 * variables.
+	 * Read the JSON input file, load the Zone and the list of variables. The
+	 * Orekit data are loaded once by the initialization of Parameters.
 	 * 
 	 * @param inputFile:String The path of the JSON file with the input parameters
 	 */
 	public void loadParams(String inputFile) {
 
-		/* load Orekit data */
-		File orekitData = new File(Parameters.orekitDataPath);
-		DataProvidersManager manager = DataProvidersManager.getInstance();
-		manager.addProvider(new DirectoryCrawler(orekitData));
-
 		/** read the JSON in input */
 		JsonReader jsonReader = new JsonReader();
 		jsonReader.read(inputFile);
@@ -179,6 +172,142 @@ public abstract class UseCase {
 		}
 	}
 
+	/**
+	 * Tighten the minimum and maximum values of the variables before the
+	 * optimisation, so that the genotype only explores constellations which may
+	 * see the whole zone (see FeasibilityChecker). The values removed can't give a
+	 * feasible constellation :
+	 * 
+	 * - the eccentricity is lowered so that the perigee at the maximum semi-major
+	 * axis stays above Parameters.minPerigeeAltitude, and the semi-major axis is
+	 * raised so that the perigee at the minimum eccentricity does,
+	 * 
+	 * - the inclination is kept in the band [i, PI - i] of the orbits whose
+	 * ground track, widened by the largest footprint allowed by the semi-major axis
+	 * and the eccentricity, reaches the highest latitude of the zone,
+	 * 
+	 * - the semi-major axis is raised until the footprint is wide enough for the
+	 * inclinations allowed.
+	 * 
+	 * The variables which are tightened are replaced in variablesList. If the
+	 * bounds leave no feasible constellation, they are not modified.
+	 */
+	public void tightenOptimisationBoundariesVariables() {
+
+		int aIndex = findVariableIndex("a");
+		int eccentricityIndex = findVariableIndex("eccentricity");
+		int inclinationIndex = findVariableIndex("inclination");
+		if (aIndex < 0 || inclinationIndex < 0) {
+			System.out.println("WARNING : Decision variables of semi-major axis and inclination not found, "
+					+ "the boundaries are not tightened.");
+			return;
+		}
+
+		double minSemiMajorAxis = (Double) variablesList.get(aIndex).getMin();
+		double maxSemiMajorAxis = (Double) variablesList.get(aIndex).getMax();
+		double minInclination = (Double) variablesList.get(inclinationIndex).getMin();
+		double maxInclination = (Double) variablesList.get(inclinationIndex).getMax();
+		double minEccentricity = 0.;
+		double maxEccentricity = 0.;
+		if (eccentricityIndex >= 0) {
+			minEccentricity = (Double) variablesList.get(eccentricityIndex).getMin();
+			maxEccentricity = (Double) variablesList.get(eccentricityIndex).getMax();
+		}
+
+		// the perigee has to stay above the minimum altitude
+		double minPerigee = Parameters.projectEarthEquatorialRadius + Parameters.minPerigeeAltitude;
+		maxEccentricity = Math.min(maxEccentricity, 1 - minPerigee / maxSemiMajorAxis);
+		minSemiMajorAxis = Math.max(minSemiMajorAxis, minPerigee / (1 - minEccentricity));
+
+		// highest geocentric latitude of the zone, and smallest radius of the Earth
+		double maxLatitude = 0;
+		for (GeodeticPoint point : inputPolygon) {
+			Vector3D position = Parameters.earth.transform(point);
+			maxLatitude = Math.max(maxLatitude, Math.abs(Math.asin(position.getZ() / position.getNorm())));
+		}
+		double polarRadius = Parameters.projectEarthEquatorialRadius * (1 - Parameters.projectEarthFlattening);
+
+		// the ground track of the orbit has to reach the zone with the largest
+		// footprint
+		double maxFootprint = Simulation.computeFootprintRadius(maxSemiMajorAxis, maxEccentricity,
+				Parameters.halfFOV, polarRadius);
+		double minSatLatitude = maxLatitude - maxFootprint - Simulation.LATITUDE_MARGIN;
+		if (minSatLatitude > 0 && minInclination >= 0 && maxInclination <= Math.PI) {
+			minInclination = Math.max(minInclination, minSatLatitude);
+			maxInclination = Math.min(maxInclination, Math.PI - minSatLatitude);
+		}
+
+		// the footprint has to be wide enough for the highest ground track allowed
+		double maxSatLatitude = Math.max(Math.min(minInclination, Math.PI - minInclination),
+				Math.min(maxInclination, Math.PI - maxInclination));
+		if (minInclination <= Math.PI / 2 && maxInclination >= Math.PI / 2)
+			maxSatLatitude = Math.PI / 2;
+		double minFootprint = maxLatitude - maxSatLatitude - Simulation.LATITUDE_MARGIN;
+		if (Simulation.computeFootprintRadius(maxSemiMajorAxis, maxEccentricity, Parameters.halfFOV,
+				polarRadius) < minFootprint) {
+			System.out.println("WARNING : even the maximum semi-major axis doesn't give a footprint wide enough "
+					+ "to see the whole zone, the boundaries are not tightened.");
+			return;
+		}
+		if (Simulation.computeFootprintRadius(minSemiMajorAxis, maxEccentricity, Parameters.halfFOV,
+				polarRadius) < minFootprint) {
+			// the footprint increases with the semi-major axis : the bisection keeps the
+			// highest semi-major axis known to be too low
+			double tooLow = minSemiMajorAxis;
+			double highEnough = maxSemiMajorAxis;
+			for (int iteration = 0; iteration < 50; iteration++) {
+				double middle = (tooLow + highEnough) / 2;
+				if (Simulation.computeFootprintRadius(middle, maxEccentricity, Parameters.halfFOV,
+						polarRadius) < minFootprint) {
+					tooLow = middle;
+				} else {
+					highEnough = middle;
+				}
+			}
+			minSemiMajorAxis = tooLow;
+		}
+
+		// a variable fixed by the input keeps min == max : only an empty interval is
+		// infeasible
+		if (minSemiMajorAxis > maxSemiMajorAxis || minInclination > maxInclination
+				|| (eccentricityIndex >= 0 && minEccentricity > maxEccentricity)) {
+			System.out.println("WARNING : no constellation of the boundaries of the variables can see the whole "
+					+ "zone, the boundaries are not tightened.");
+			return;
+		}
+
+		replaceBoundaries(aIndex, minSemiMajorAxis, maxSemiMajorAxis);
+		replaceBoundaries(inclinationIndex, minInclination, maxInclination);
+		if (eccentricityIndex >= 0)
+			replaceBoundaries(eccentricityIndex, minEccentricity, maxEccentricity);
+	}
+
+	/**
+	 * @return the index of the variable in variablesList, -1 if there is none
+	 */
+	private int findVariableIndex(String name) {
+		for (int k = 0; k < variablesList.size(); k++) {
+			if (variablesList.get(k).getName().equals(name))
+				return k;
+		}
+		return -1;
+	}
+
+	/**
+	 * Replace a Double variable of variablesList by the same variable with new
+	 * boundaries, if they are tighter.
+	 */
+	private void replaceBoundaries(int index, double min, double max) {
+		DecisionVariable variable = variablesList.get(index);
+		if (min == (Double) variable.getMin() && max == (Double) variable.getMax())
+			return;
+		DecisionVariable<Double> tightenedVariable = new DecisionVariable<Double>(Double.class, variable.getName(),
+				min, max);
+		variablesList.set(index, tightenedVariable);
+		System.out.println("Boundaries of " + variable.getName() + " tightened from [" + variable.getMin() + ", "
+				+ variable.getMax() + "] to [" + min + ", " + max + "]");
+	}
+
 	/**
 	 * Optimize the type of constellation given in input. Since it depends of the
 	 * use case (type of constellation,type of optimizer,type of decision vector),
@@ -219,6 +348,8 @@ public abstract class UseCase {
 
 		// check whether the boundaries of the variables could be optimised or not
 		useCase.checkOptimisationBoundariesVariables();
+		if (Parameters.boundariesTightening)
+			useCase.tightenOptimisationBoundariesVariables();
 
 		// duration of the program : TOP
 		long startTime = System.nanoTime();
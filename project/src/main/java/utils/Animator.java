@@ -1,7 +1,7 @@
 package utils;
 
 import constellation.Constellation;
-import constellation.Satellite;
+import constellation.KeplerianKernel;
 import zone.Zone;
 
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
@@ -55,6 +55,12 @@ public class Animator extends Thread {
 	 */
 	private SenderServer senderServer;
 	
+	/**
+	 * Closed-form propagation of the satellites of the constellation,
+	 * the dates being counted from Parameters.t0.
+	 */
+	private KeplerianKernel kernel;
+	
 	/**
 	 * Constructor of the Animator
 	 * 
@@ -64,6 +70,7 @@ public class Animator extends Thread {
 	public Animator(Constellation constellation, Zone zone) {
 		this.constellation = constellation;
 		this.zone = zone;
+		this.kernel = new KeplerianKernel(constellation.getSatellitesList(), Parameters.t0);
 	}
 	
 	/**
@@ -138,10 +145,11 @@ public class Animator extends Thread {
 	private ArrayList<Vector3D> getPositionsAtTime(AbsoluteDate date) {
 		ArrayList<Vector3D> listPositions = new ArrayList<Vector3D>();
 		
-		ArrayList<Satellite> listSatellites = constellation.getSatellitesList();
-		
-		for (int sat = 0; sat < constellation.getNSat(); sat++) {
-			listPositions.add(listSatellites.get(sat).getVelocity(date, Parameters.earthFrame));
+		double[] position = new double[3];
+		double time = date.durationFrom(Parameters.t0);
+		for (int sat = 0; sat < kernel.getNbSatellites(); sat++) {
+			kernel.computeEarthPosition(sat, time, position);
+			listPositions.add(new Vector3D(position));
 		}
 		
 		return listPositions;
@@ -267,7 +267,7 @@ public class JsonReader {
 	/**
 	 * Read the Zone to cover in the problem and return an array of geodetic points.
 	 * The input Zone is a HashMap with a list of geodetic points and the meshing
-	 * style longitude and latitude. Example : "zone":{
+	 * style (see Parameters.meshingStyle). Example : "zone":{
 	 * "meshingStyle":"lat_lon_standard_meshing", "inputPolygon":[
 	 * 
 	 * {"lat":43.603950, "lon":1.444510, "alt":143 } ,
@@ -1,7 +1,12 @@
 package utils;
 
+import java.io.File;
+
 import org.orekit.bodies.BodyShape;
 import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.data.DataContext;
+import org.orekit.data.DataProvidersManager;
+import org.orekit.data.DirectoryCrawler;
 import org.orekit.frames.FramesFactory;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.IERSConventions;
@@ -41,6 +46,18 @@ public class Parameters {
 	 */
 	public static final double projectEarthMu = org.orekit.utils.Constants.WGS84_EARTH_MU;
 	
+	/*
+	 * The Orekit data (EOP, UTC-TAI history...) have to be loaded before the
+	 * Earth frame is built, otherwise the class can't be initialized. This is the
+	 * only place where they are registered.
+	 */
+	static {
+		DataProvidersManager manager = DataContext.getDefault().getDataProvidersManager();
+		if (manager.getProviders().isEmpty()) {
+			manager.addProvider(new DirectoryCrawler(new File(Parameters.orekitDataPath)));
+		}
+	}
+
 	/**
 	 * The Earth ITRF frame which should be used in all the project.
 	 */
@@ -96,13 +113,222 @@ public class Parameters {
 	 */
 	public static final double threshold = 0.001;
 
+	/**
+	 * The engine used by the simulation to compute the visibilities of the mesh
+	 * points. "elevation_detector" registers one Orekit ElevationDetector per mesh
+	 * point, "time_stepped_sweep" propagates each satellite once on a time grid and
+	 * only updates the mesh points entering or leaving its footprint,
+	 * "time_stepped_raster" does the same but enumerates the points under the
+	 * footprint from the grid of the standard meshing (see GridFootprintRasterizer)
+	 * instead of scanning its latitude band.
+	 */
+	public static String visibilityEngine = "elevation_detector";
+
+	/**
+	 * If true, each satellite of a simulation is propagated in its own fork-join
+	 * task. It is useful to evaluate a single large constellation.
+	 */
+	public static Boolean parallelPropagation = false;
+
+	/**
+	 * If true, the maximum revisit of a simulation is computed online while the
+	 * events arrive, without storing the dates of visibility.
+	 */
+	public static Boolean streamingRevisit = false;
+
+	/**
+	 * If true, the maximum revisit of a simulation is computed on a discretized
+	 * coverage (see CoverageBitset) instead of the exact visibility intervals : it
+	 * is then a lower bound within 2 time steps of the exact one. The revisit
+	 * cutoff is not applied in this mode.
+	 */
+	public static Boolean bitsetCoverage = false;
+
+	/** Time step (s) of the discretized coverage */
+	public static double coverageTimeStep = 10.0;
+
+	/**
+	 * Maximum size (bytes) of a discretized coverage, a simulation allocating two
+	 * of them
+	 */
+	public static long coverageMaxBytes = 256L << 20;
+
+	/**
+	 * If true, the sweep visibility engines propagate the satellites with the
+	 * closed-form KeplerianKernel instead of the Orekit propagator. The precession
+	 * and the nutation are then frozen at t0 (about 15 m per day in low Earth
+	 * orbit), which shifts the dates of visibility by a few milliseconds.
+	 */
+	public static Boolean keplerianKernel = false;
+
+	/**
+	 * If true, the simulations attach to each satellite a sampled ephemeris over
+	 * the simulation (see EphemerisCache), read by the sweep visibility engines.
+	 */
+	public static Boolean ephemerisCache = false;
+
+	/** Maximum time between two samples of an ephemeris cache (s) */
+	public static double ephemerisStep = 30.0;
+
+	/**
+	 * Maximum number of blocks of samples (EphemerisCache.BLOCK_SIZE intervals, 25
+	 * kB) of an ephemeris cache in memory
+	 */
+	public static int ephemerisCacheBlocks = 64;
+
+	/**
+	 * In streaming mode, the satellites are propagated together period by period,
+	 * the events of each period being merged before the next one. This is the
+	 * duration of a period (s).
+	 */
+	public static final double streamingChunkDuration = 86400.0;
+
+	/**
+	 * If true, during the optimisation the simulation of an individual is stopped
+	 * as soon as its cost is known to be worse than the worst fitness of the last
+	 * generation.
+	 */
+	public static Boolean cutoffEvaluation = false;
+
+	/**
+	 * Maximum number of visibility events stored in the cache shared by the
+	 * simulations (see VisibilityCache), 0 to disable the cache.
+	 */
+	public static long visibilityCacheCapacity = 0;
+
+	/**
+	 * Number of individuals evaluated in parallel during an optimisation, 0 to use
+	 * the default executor of Jenetics (the common pool).
+	 */
+	public static int optimisationParallelism = 0;
+
+	/**
+	 * If true, the optimisation prints each genotype evaluated and the
+	 * constellation built from it.
+	 */
+	public static Boolean verboseEvaluation = false;
+
+	/**
+	 * Maximum number of individuals whose fitness is stored during an
+	 * optimisation, to not simulate again the duplicated individuals (0 to
+	 * disable the cache).
+	 */
+	public static int fitnessCacheSize = 10000;
+
+	/**
+	 * Fraction of the domain of a double decision variable under which two values
+	 * are considered the same by the fitness cache.
+	 */
+	public static final double fitnessCacheTolerance = 1e-9;
+
+	/**
+	 * If true, with the time stepped sweep engine, only one satellite per orbit
+	 * shape is propagated, the visibilities of the other satellites being derived
+	 * by symmetry.
+	 */
+	public static Boolean symmetricPropagation = false;
+
+	/**
+	 * If true, the repeat cycle of the ground track of the constellation is
+	 * searched before each simulation, and only its first cycles are propagated.
+	 */
+	public static Boolean groundTrackRepeat = false;
+
+	/**
+	 * Maximum drift of the ground track on the whole simulation for which the
+	 * ground track is considered repeating (m).
+	 */
+	public static final double groundTrackRepeatTolerance = 1000.0;
+
+	/**
+	 * If true, the elevation detectors of a satellite are only created for the
+	 * mesh points of the latitude band it can see (see
+	 * Simulation.computeMaxVisibleLatitude).
+	 */
+	public static Boolean latitudePrefilter = true;
+
+	/**
+	 * If true, the decision vectors check the feasibility of each constellation
+	 * before its simulation : an infeasible one gets a penalty instead (see
+	 * FeasibilityChecker).
+	 */
+	public static Boolean feasibilityCheck = false;
+
+	/**
+	 * Minimum altitude of the perigee of a satellite above the equatorial radius
+	 * of the Earth (m) for the constellation to be feasible.
+	 */
+	public static double minPerigeeAltitude = 0.0;
+
+	/**
+	 * If true, the decision vectors compute a lower bound of the max revisit of
+	 * each constellation before its simulation : a constellation whose bound
+	 * exceeds the cutoff is not simulated (see RevisitLowerBound).
+	 */
+	public static Boolean lowerBoundPruning = true;
+
+	/**
+	 * Duration (s) of the beginning of the simulation swept by the lower bound of
+	 * the max revisit : the longer, the tighter and the more expensive the bound.
+	 */
+	public static double lowerBoundDuration = 2 * 86400.0;
+
+	/**
+	 * If true, the minimum and maximum values of the decision variables are
+	 * tightened before the optimisation (see
+	 * UseCase.tightenOptimisationBoundariesVariables).
+	 */
+	public static Boolean boundariesTightening = false;
+
+	/**
+	 * If true, the optimisation evaluates each generation at the screening levels
+	 * first, and only simulates at full fidelity the individuals ranked in the top
+	 * promotionFraction of every level (see FidelityLevel).
+	 */
+	public static Boolean multiFidelity = false;
+
+	/**
+	 * Screening levels, from the cheapest one : factor applied to
+	 * standardMeshResolution, duration of the simulation (s) and factor applied
+	 * to the adaptative maxcheck of each level.
+	 */
+	public static double[] screeningMeshFactors = { 4.0 };
+	public static double[] screeningDurations = { 3 * 86400.0 };
+	public static double[] screeningMaxcheckScales = { 2.0 };
+
+	/**
+	 * Fraction of the individuals of a screening level which are promoted to the
+	 * next one.
+	 */
+	public static double promotionFraction = 0.25;
+
+	/**
+	 * If true, the decision vectors compute the max revisit on an adaptive subset
+	 * of the mesh, refined around the worst points (see AdaptiveMeshRevisit).
+	 */
+	public static Boolean adaptiveMeshing = false;
+
+	/**
+	 * Number of refinements from the coarse grid of the adaptive meshing to the
+	 * mesh : the coarse grid keeps one row and one column out of 2^levels.
+	 */
+	public static int adaptiveMeshLevels = 3;
+
+	/** Tolerance (s) of the max revisit computed on the adaptive mesh */
+	public static double adaptiveMeshTolerance = 60.0;
+
 	/**
 	 * ---- Simulation parameters which can also be loaded from the JSON file ----
 	 */
 
 	/**
 	 * The style of meshing which has to be used to convert a polygon into a list of
-	 * meshing points
+	 * meshing points : "lat_lon_standard_meshing" (the bounding box of the
+	 * polygon), "polygon_clipped_meshing" (the points of the standard meshing
+	 * inside the polygon), "equal_area_meshing" (the points inside the polygon,
+	 * with longitudes spaced by the cosine of the latitude) or
+	 * "hierarchical_equal_area_meshing" (the centers of the hierarchical
+	 * equal-area cells inside the polygon, indexed in these cells)
 	 */
 	public static String meshingStyle = "lat_lon_standard_meshing";
 
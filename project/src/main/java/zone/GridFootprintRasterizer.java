@@ -0,0 +1,155 @@
+package zone;
+
+/**
+ * Rasterization of a circular footprint on the regular latitude/longitude grid
+ * of the standard meshing (see Zone.computeLatLonStandardMeshing) : the mesh
+ * points covered by the footprint are enumerated by index arithmetic, row by
+ * row, instead of being tested one by one. The cost is proportional to the
+ * number of rows crossed by the footprint, whatever the size of the zone.
+ *
+ * The point of row r and column c of the grid has the latitude latMin + r *
+ * step, the longitude lonMin + c * step and the index r * nbCols + c in the
+ * list of the meshing points. For each row, the footprint covers the
+ * longitudes within an angle of the subsatellite longitude given by the
+ * spherical law of cosines, which gives a range of columns.
+ *
+ * The coordinates are the geodetic latitude and longitude of the points, taken
+ * as spherical coordinates : the radius of the footprint is an angle on the
+ * unit sphere.
+ *
+ * Thread safety : the class is immutable. The arrays given to the methods are
+ * written, each thread has to use its own arrays.
+ *
+ */
+public class GridFootprintRasterizer {
+
+	/** Margin (radian) on the longitudes covered, against the rounding errors */
+	private static final double LONGITUDE_MARGIN = 1e-9;
+
+	/** Latitude and longitude of the first point of the grid (radian) */
+	private final double latMin, lonMin;
+
+	/** Step between two rows and between two columns (radian) */
+	private final double step;
+
+	private final int nbRows, nbCols;
+
+	/**
+	 * Constructor of the rasterizer of a grid.
+	 *
+	 * @param latMin : latitude of the first row (radian)
+	 * @param lonMin : longitude of the first column (radian)
+	 * @param step   : step between two rows and between two columns (radian)
+	 * @param nbRows : number of rows
+	 * @param nbCols : number of columns
+	 */
+	public GridFootprintRasterizer(double latMin, double lonMin, double step, int nbRows, int nbCols) {
+		this.latMin = latMin;
+		this.lonMin = lonMin;
+		this.step = step;
+		this.nbRows = nbRows;
+		this.nbCols = nbCols;
+	}
+
+	/**
+	 * Compute the ranges of the grid covered by a footprint. A row can hold 2
+	 * ranges when the footprint crosses the antimeridian.
+	 *
+	 * @param subLatitude  : latitude of the subsatellite point (radian)
+	 * @param subLongitude : longitude of the subsatellite point (radian)
+	 * @param radius       : angular radius of the footprint (radian)
+	 * @param ranges       : array in which the ranges are written as (row, first
+	 *                     column, last column) triplets, at least 6 * nbRows long
+	 * @return the number of ranges
+	 */
+	public int computeCoveredRanges(double subLatitude, double subLongitude, double radius, int[] ranges) {
+
+		int firstRow = Math.max(0, (int) Math.ceil((subLatitude - radius - latMin) / step));
+		int lastRow = Math.min(nbRows - 1, (int) Math.floor((subLatitude + radius - latMin) / step));
+
+		double sinSubLatitude = Math.sin(subLatitude);
+		double cosSubLatitude = Math.cos(subLatitude);
+		double cosRadius = Math.cos(radius);
+		double lonMax = lonMin + (nbCols - 1) * step;
+
+		int nbRanges = 0;
+		for (int row = firstRow; row <= lastRow; row++) {
+			double latitude = latMin + row * step;
+
+			// half width in longitude of the footprint on the parallel of the row
+			double denominator = cosSubLatitude * Math.cos(latitude);
+			double halfWidth;
+			if (denominator <= 0) {
+				halfWidth = Math.PI;
+			} else {
+				double cosHalfWidth = (cosRadius - sinSubLatitude * Math.sin(latitude)) / denominator;
+				if (cosHalfWidth > 1)
+					continue;
+				halfWidth = cosHalfWidth <= -1 ? Math.PI : Math.acos(cosHalfWidth) + LONGITUDE_MARGIN;
+			}
+
+			if (halfWidth >= Math.PI) {
+				nbRanges = addRange(ranges, nbRanges, row, 0, nbCols - 1);
+				continue;
+			}
+
+			// the covered longitudes, shifted by a turn to be compared with the grid
+			for (int turn = -1; turn <= 1; turn++) {
+				double west = subLongitude - halfWidth + turn * 2 * Math.PI;
+				double east = subLongitude + halfWidth + turn * 2 * Math.PI;
+				if (east < lonMin || west > lonMax)
+					continue;
+				int firstCol = Math.max(0, (int) Math.ceil((west - lonMin) / step));
+				int lastCol = Math.min(nbCols - 1, (int) Math.floor((east - lonMin) / step));
+				if (firstCol <= lastCol)
+					nbRanges = addRange(ranges, nbRanges, row, firstCol, lastCol);
+			}
+		}
+		return nbRanges;
+	}
+
+	/**
+	 * Find the mesh points covered by a footprint.
+	 *
+	 * @param subLatitude  : latitude of the subsatellite point (radian)
+	 * @param subLongitude : longitude of the subsatellite point (radian)
+	 * @param radius       : angular radius of the footprint (radian)
+	 * @param ranges       : work array, at least 6 * nbRows long
+	 * @param result       : array in which the indices of the points are written,
+	 *                     as long as the number of points
+	 * @return the number of points found
+	 */
+	public int findPoints(double subLatitude, double subLongitude, double radius, int[] ranges, int[] result) {
+		int nbRanges = computeCoveredRanges(subLatitude, subLongitude, radius, ranges);
+		int count = 0;
+		for (int k = 0; k < nbRanges; k++) {
+			int rowStart = ranges[3 * k] * nbCols;
+			for (int col = ranges[3 * k + 1]; col <= ranges[3 * k + 2]; col++) {
+				result[count++] = rowStart + col;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the size of the work array of the ranges
+	 */
+	public int getRangesLength() {
+		return 6 * nbRows;
+	}
+
+	public int getNbRows() {
+		return nbRows;
+	}
+
+	public int getNbCols() {
+		return nbCols;
+	}
+
+	private static int addRange(int[] ranges, int nbRanges, int row, int firstCol, int lastCol) {
+		ranges[3 * nbRanges] = row;
+		ranges[3 * nbRanges + 1] = firstCol;
+		ranges[3 * nbRanges + 2] = lastCol;
+		return nbRanges + 1;
+	}
+}
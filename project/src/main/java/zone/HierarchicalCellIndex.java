@@ -0,0 +1,425 @@
+package zone;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.orekit.bodies.GeodeticPoint;
+
+/**
+ * Hierarchical equal-area cells of the sphere, and spatial index of the mesh
+ * points of a zone in these cells.
+ *
+ * The cells are those of the cylindrical equal-area projection (sine of the
+ * latitude, longitude) : the sphere is split into 3 faces of 120 degrees of
+ * longitude, and each cell of a level is split into 4 cells of the next level
+ * by halving its ranges of sine of latitude and of longitude. All the cells of
+ * a level have the same area, 4 pi / (3 * 4^level) steradians, and are nearly
+ * square at the equator. They get narrower in longitude and longer in latitude
+ * towards the poles (a 4:1 aspect at 60 degrees), where HEALPix would switch to
+ * another projection.
+ *
+ * A cell is identified by a long : its face, the Morton code of its row and
+ * column in the face (the bits of the row and of the column interleaved) and
+ * its level. The Morton codes of the descendants of a cell at a given level are
+ * contiguous, so with the mesh points sorted by the identifier of their leaf
+ * cell, the points of any cell are a range found by binary search. The queries
+ * descend the cells from the faces and skip the empty cells and the cells out of
+ * the queried region : their cost is proportional to the number of points found
+ * plus the number of cells crossing the border of the region.
+ *
+ * The coordinates are the geodetic latitude and longitude of the points, taken
+ * as spherical coordinates : the angles of the queries are measured on the
+ * unit sphere.
+ *
+ * Thread safety : the class is immutable once built. The arrays given to the
+ * queries are written, each thread has to use its own arrays.
+ *
+ */
+public class HierarchicalCellIndex {
+
+	/** Number of cells of the level 0 */
+	public static final int NB_FACES = 3;
+
+	/** Highest level : the Morton code of a cell uses 2 bits per level */
+	public static final int MAX_LEVEL = 28;
+
+	/** Longitude span of a face (radian) */
+	private static final double FACE_SPAN = 2 * Math.PI / NB_FACES;
+
+	/** Bits of an identifier holding the level, then the Morton code */
+	private static final int LEVEL_BITS = 5;
+	private static final int FACE_SHIFT = 61;
+
+	/** Level of the cells of the points */
+	private final int level;
+
+	/** Leaf cells of the points, by index in the list of the meshing points */
+	private final long[] pointCells;
+
+	/** Leaf cells of the points sorted by increasing identifier */
+	private final long[] sortedCells;
+
+	/** Indices of the points in the order of sortedCells */
+	private final int[] sortedIndices;
+
+	/** Geodetic latitudes of the points */
+	private final double[] latitudes;
+
+	/** Unit vectors of the points on the sphere */
+	private final double[] pointX, pointY, pointZ;
+
+	/**
+	 * Constructor of the index of a list of points, the indices of the points
+	 * being their indices in this list.
+	 *
+	 * @param listMeshingPoints : the points to index
+	 * @param level             : level of the leaf cells (see computeLevel)
+	 */
+	public HierarchicalCellIndex(ArrayList<GeodeticPoint> listMeshingPoints, int level) {
+		this.level = level;
+		int nbPoints = listMeshingPoints.size();
+		this.pointCells = new long[nbPoints];
+		this.latitudes = new double[nbPoints];
+		this.pointX = new double[nbPoints];
+		this.pointY = new double[nbPoints];
+		this.pointZ = new double[nbPoints];
+
+		Integer[] order = new Integer[nbPoints];
+		for (int pointIndex = 0; pointIndex < nbPoints; pointIndex++) {
+			GeodeticPoint point = listMeshingPoints.get(pointIndex);
+			double latitude = point.getLatitude();
+			double longitude = point.getLongitude();
+			pointCells[pointIndex] = getCellId(latitude, longitude, level);
+			latitudes[pointIndex] = latitude;
+			pointX[pointIndex] = Math.cos(latitude) * Math.cos(longitude);
+			pointY[pointIndex] = Math.cos(latitude) * Math.sin(longitude);
+			pointZ[pointIndex] = Math.sin(latitude);
+			order[pointIndex] = pointIndex;
+		}
+		Arrays.sort(order, (p1, p2) -> Long.compare(pointCells[p1], pointCells[p2]));
+
+		this.sortedCells = new long[nbPoints];
+		this.sortedIndices = new int[nbPoints];
+		for (int k = 0; k < nbPoints; k++) {
+			sortedIndices[k] = order[k];
+			sortedCells[k] = pointCells[order[k]];
+		}
+	}
+
+	/**
+	 * Compute the level whose cells have about the area of a square of the given
+	 * side.
+	 *
+	 * @param resolution : side of the square (radian)
+	 * @return the level, between 0 and MAX_LEVEL
+	 */
+	public static int computeLevel(double resolution) {
+		double nbCells = 4 * Math.PI / (NB_FACES * resolution * resolution);
+		int level = (int) Math.round(Math.log(nbCells) / Math.log(4));
+		return Math.max(0, Math.min(MAX_LEVEL, level));
+	}
+
+	/**
+	 * @return the number of rows (and of columns) of a face at the level
+	 */
+	public static int getNbRows(int level) {
+		return 1 << level;
+	}
+
+	/**
+	 * Get the cell of a level which contains a point.
+	 *
+	 * @param latitude  : latitude of the point (radian)
+	 * @param longitude : longitude of the point (radian)
+	 * @param level     : level of the cell
+	 * @return the identifier of the cell
+	 */
+	public static long getCellId(double latitude, double longitude, int level) {
+		int nbRows = getNbRows(level);
+		double normalizedLon = (longitude + Math.PI) % (2 * Math.PI);
+		if (normalizedLon < 0)
+			normalizedLon += 2 * Math.PI;
+		int column = Math.min(NB_FACES * nbRows - 1, (int) (normalizedLon / FACE_SPAN * nbRows));
+		int row = Math.max(0, Math.min(nbRows - 1, (int) ((Math.sin(latitude) + 1) / 2 * nbRows)));
+		return createCellId(column / nbRows, row, column % nbRows, level);
+	}
+
+	/**
+	 * Get the identifier of a cell.
+	 *
+	 * @param face   : face of the cell, from 0 to NB_FACES - 1
+	 * @param row    : row of the cell in the face, by increasing latitude
+	 * @param column : column of the cell in the face, by increasing longitude
+	 * @param level  : level of the cell
+	 * @return the identifier of the cell
+	 */
+	public static long createCellId(int face, int row, int column, int level) {
+		long morton = 0;
+		for (int bit = 0; bit < level; bit++) {
+			morton |= ((long) ((row >> bit) & 1)) << (2 * bit + 1);
+			morton |= ((long) ((column >> bit) & 1)) << (2 * bit);
+		}
+		return ((long) face << FACE_SHIFT) | (morton << LEVEL_BITS) | level;
+	}
+
+	public static int getLevel(long cellId) {
+		return (int) (cellId & ((1 << LEVEL_BITS) - 1));
+	}
+
+	public static int getFace(long cellId) {
+		return (int) (cellId >>> FACE_SHIFT);
+	}
+
+	public static int getRow(long cellId) {
+		return deinterleave(getMorton(cellId) >>> 1);
+	}
+
+	public static int getColumn(long cellId) {
+		return deinterleave(getMorton(cellId));
+	}
+
+	/**
+	 * @param cellId : a cell of level higher than 0
+	 * @return the cell of the previous level which contains it
+	 */
+	public static long getParent(long cellId) {
+		int level = getLevel(cellId);
+		return createCellId(getFace(cellId), getRow(cellId) >> 1, getColumn(cellId) >> 1, level - 1);
+	}
+
+	/**
+	 * @param cellId : a cell of level lower than MAX_LEVEL
+	 * @return the 4 cells of the next level which split it
+	 */
+	public static long[] getChildren(long cellId) {
+		int level = getLevel(cellId);
+		int face = getFace(cellId);
+		int row = getRow(cellId);
+		int column = getColumn(cellId);
+		return new long[] { createCellId(face, 2 * row, 2 * column, level + 1),
+				createCellId(face, 2 * row, 2 * column + 1, level + 1),
+				createCellId(face, 2 * row + 1, 2 * column, level + 1),
+				createCellId(face, 2 * row + 1, 2 * column + 1, level + 1) };
+	}
+
+	/**
+	 * @return the latitude and the longitude (radian) of the center of the cell,
+	 *         the middle of its ranges of sine of latitude and of longitude
+	 */
+	public static double[] getCellCenter(long cellId) {
+		int nbRows = getNbRows(getLevel(cellId));
+		double sinLatitude = -1 + (getRow(cellId) + 0.5) * 2 / nbRows;
+		double longitude = -Math.PI + getFace(cellId) * FACE_SPAN + (getColumn(cellId) + 0.5) * FACE_SPAN / nbRows;
+		return new double[] { Math.asin(sinLatitude), longitude };
+	}
+
+	/**
+	 * Get the points of a cell of any level up to the one of the index.
+	 *
+	 * @param cellId : the cell
+	 * @return the indices of the points in the cell
+	 */
+	public int[] getPointsInCell(long cellId) {
+		int[] range = getRange(getFace(cellId), getMorton(cellId), getLevel(cellId));
+		int[] indices = Arrays.copyOfRange(sortedIndices, range[0], range[1]);
+		Arrays.sort(indices);
+		return indices;
+	}
+
+	/**
+	 * Find the points within an angle of a direction, for example the points under
+	 * the footprint of a satellite.
+	 *
+	 * @param latitude  : latitude of the center of the cap (radian)
+	 * @param longitude : longitude of the center of the cap (radian)
+	 * @param radius    : angular radius of the cap (radian)
+	 * @param result    : array in which the indices of the points are written, as
+	 *                  long as the number of points
+	 * @return the number of points found
+	 */
+	public int findPointsInCap(double latitude, double longitude, double radius, int[] result) {
+		Query query = new Query();
+		query.capX = Math.cos(latitude) * Math.cos(longitude);
+		query.capY = Math.cos(latitude) * Math.sin(longitude);
+		query.capZ = Math.sin(latitude);
+		query.radius = radius;
+		query.cosRadius = Math.cos(radius);
+		query.latMin = latitude - radius;
+		query.latMax = latitude + radius;
+		return findPoints(query, result);
+	}
+
+	/**
+	 * Find the points of a latitude strip.
+	 *
+	 * @param latMin : lowest latitude of the strip (radian)
+	 * @param latMax : highest latitude of the strip (radian)
+	 * @param result : array in which the indices of the points are written, as
+	 *               long as the number of points
+	 * @return the number of points found
+	 */
+	public int findPointsInStrip(double latMin, double latMax, int[] result) {
+		Query query = new Query();
+		query.latMin = latMin;
+		query.latMax = latMax;
+		return findPoints(query, result);
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public int getNbPoints() {
+		return pointCells.length;
+	}
+
+	/**
+	 * @return the leaf cell of a point
+	 */
+	public long getCellId(int pointIndex) {
+		return pointCells[pointIndex];
+	}
+
+	/**
+	 * Region of a query : a latitude strip, restricted to a cap if it has a radius.
+	 */
+	private static class Query {
+		private double latMin, latMax;
+		private double capX, capY, capZ;
+		private double radius = -1;
+		private double cosRadius;
+	}
+
+	private int findPoints(Query query, int[] result) {
+		int count = 0;
+		for (int face = 0; face < NB_FACES; face++) {
+			count = collect(query, face, 0, 0, 0, 0, result, count);
+		}
+		return count;
+	}
+
+	/**
+	 * Add to the result the points of a cell which are in the region of the query,
+	 * descending into the cells crossing its border.
+	 *
+	 * @return the number of points in the result
+	 */
+	private int collect(Query query, int face, int row, int column, long morton, int cellLevel, int[] result,
+			int count) {
+
+		int[] range = getRange(face, morton, cellLevel);
+		if (range[0] == range[1])
+			return count;
+
+		int nbRows = getNbRows(cellLevel);
+		double cellLatMin = Math.asin(-1 + 2. * row / nbRows);
+		double cellLatMax = Math.asin(Math.min(1, -1 + 2. * (row + 1) / nbRows));
+		if (cellLatMax < query.latMin || cellLatMin > query.latMax)
+			return count;
+
+		boolean inside = cellLatMin >= query.latMin && cellLatMax <= query.latMax;
+		if (query.radius >= 0) {
+			// below the level 2, the cells are too large for the test of their corners
+			inside = false;
+			if (cellLevel >= 2) {
+				double lonMin = -Math.PI + face * FACE_SPAN + column * FACE_SPAN / nbRows;
+				double lonMax = lonMin + FACE_SPAN / nbRows;
+				double centerLat = Math.asin(-1 + (row + 0.5) * 2 / nbRows);
+				double centerLon = 0.5 * (lonMin + lonMax);
+				double centerDistance = angleTo(query, centerLat, centerLon);
+				double cellRadius = Math.max(
+						Math.max(angle(centerLat, centerLon, cellLatMin, lonMin),
+								angle(centerLat, centerLon, cellLatMin, lonMax)),
+						Math.max(angle(centerLat, centerLon, cellLatMax, lonMin),
+								angle(centerLat, centerLon, cellLatMax, lonMax)));
+				if (centerDistance - cellRadius > query.radius)
+					return count;
+				inside = centerDistance + cellRadius <= query.radius;
+			}
+		}
+
+		if (inside) {
+			for (int k = range[0]; k < range[1]; k++) {
+				result[count++] = sortedIndices[k];
+			}
+		} else if (cellLevel == level) {
+			for (int k = range[0]; k < range[1]; k++) {
+				int pointIndex = sortedIndices[k];
+				if (contains(query, pointIndex))
+					result[count++] = pointIndex;
+			}
+		} else {
+			// the children in the order of their Morton codes
+			for (int child = 0; child < 4; child++) {
+				count = collect(query, face, 2 * row + (child >> 1), 2 * column + (child & 1), (morton << 2) | child,
+						cellLevel + 1, result, count);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return true if the point is in the region of the query
+	 */
+	private boolean contains(Query query, int pointIndex) {
+		if (latitudes[pointIndex] < query.latMin || latitudes[pointIndex] > query.latMax)
+			return false;
+		if (query.radius < 0)
+			return true;
+		return pointX[pointIndex] * query.capX + pointY[pointIndex] * query.capY
+				+ pointZ[pointIndex] * query.capZ >= query.cosRadius;
+	}
+
+	/**
+	 * @return the range of sortedCells holding the points of a cell
+	 */
+	private int[] getRange(int face, long morton, int cellLevel) {
+		int shift = 2 * (level - cellLevel);
+		long first = ((long) face << FACE_SHIFT) | ((morton << shift) << LEVEL_BITS) | level;
+		long last = ((long) face << FACE_SHIFT) | ((((morton + 1) << shift) - 1) << LEVEL_BITS) | level;
+		return new int[] { lowerBound(first), lowerBound(last + 1) };
+	}
+
+	/**
+	 * @return the index of the first sorted cell higher or equal to cellId
+	 */
+	private int lowerBound(long cellId) {
+		int low = 0;
+		int high = sortedCells.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedCells[middle] < cellId) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static double angleTo(Query query, double latitude, double longitude) {
+		double dot = Math.cos(latitude) * Math.cos(longitude) * query.capX
+				+ Math.cos(latitude) * Math.sin(longitude) * query.capY + Math.sin(latitude) * query.capZ;
+		return Math.acos(Math.max(-1, Math.min(1, dot)));
+	}
+
+	private static double angle(double lat1, double lon1, double lat2, double lon2) {
+		double dot = Math.sin(lat1) * Math.sin(lat2) + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon2 - lon1);
+		return Math.acos(Math.max(-1, Math.min(1, dot)));
+	}
+
+	private static long getMorton(long cellId) {
+		return (cellId & ((1L << FACE_SHIFT) - 1)) >>> LEVEL_BITS;
+	}
+
+	/**
+	 * @return the even bits of the Morton code, packed
+	 */
+	private static int deinterleave(long morton) {
+		int value = 0;
+		for (int bit = 0; bit < MAX_LEVEL; bit++) {
+			value |= (int) ((morton >>> (2 * bit)) & 1) << bit;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,142 @@
+package zone;
+
+import java.util.ArrayList;
+
+import org.orekit.bodies.GeodeticPoint;
+
+/**
+ * Point-in-polygon test of the mesh points of a zone, in latitude/longitude.
+ * The edges of the polygon are indexed by bands of latitude, so that a point is
+ * only tested against the few edges which cross its latitude, instead of all
+ * the edges of the polygon : meshing a zone is then linear in the number of
+ * points.
+ *
+ * A point is inside when a ray towards the increasing longitudes crosses an odd
+ * number of edges. The points on an edge are inside, so that the border of the
+ * polygon is meshed.
+ *
+ * A polygon with less than 3 points doesn't have any area : as for the
+ * standard meshing, it stands for its latitude/longitude bounding box, which
+ * contains every mesh point.
+ *
+ * The longitudes are not wrapped, the polygon must not cross the antimeridian.
+ *
+ * Thread safety : the class is immutable once built.
+ *
+ */
+public class PolygonEdgeIndex {
+
+	/** Tolerance (radian) to consider that a point is on an edge */
+	private static final double EDGE_TOLERANCE = 1e-12;
+
+	/** Vertices of the polygon, the last one being linked to the first one */
+	private final double[] latitudes, longitudes;
+
+	/** Lowest latitude and height of the bands (radian) */
+	private final double latMin, bandHeight;
+
+	/** Indices of the edges which cross each band, an edge k going from vertex k */
+	private final int[][] bandEdges;
+
+	/**
+	 * Constructor of the index.
+	 *
+	 * @param inputPolygon : the vertices of the polygon, in order
+	 */
+	public PolygonEdgeIndex(ArrayList<GeodeticPoint> inputPolygon) {
+		int nbVertices = inputPolygon.size();
+		this.latitudes = new double[nbVertices];
+		this.longitudes = new double[nbVertices];
+		double minLat = Double.MAX_VALUE;
+		double maxLat = -Double.MAX_VALUE;
+		for (int k = 0; k < nbVertices; k++) {
+			latitudes[k] = inputPolygon.get(k).getLatitude();
+			longitudes[k] = inputPolygon.get(k).getLongitude();
+			minLat = Math.min(minLat, latitudes[k]);
+			maxLat = Math.max(maxLat, latitudes[k]);
+		}
+		this.latMin = minLat;
+
+		// as many bands as edges, so that a band holds a few edges on average
+		int nbBands = Math.max(nbVertices, 1);
+		this.bandHeight = nbVertices > 0 && maxLat > minLat ? (maxLat - minLat) / nbBands : 1;
+		ArrayList<ArrayList<Integer>> listBands = new ArrayList<ArrayList<Integer>>();
+		for (int band = 0; band < nbBands; band++) {
+			listBands.add(new ArrayList<Integer>());
+		}
+		if (nbVertices >= 3) {
+			for (int k = 0; k < nbVertices; k++) {
+				int next = (k + 1) % nbVertices;
+				int firstBand = getBand(Math.min(latitudes[k], latitudes[next]), nbBands);
+				int lastBand = getBand(Math.max(latitudes[k], latitudes[next]), nbBands);
+				for (int band = firstBand; band <= lastBand; band++) {
+					listBands.get(band).add(k);
+				}
+			}
+		}
+		this.bandEdges = new int[nbBands][];
+		for (int band = 0; band < nbBands; band++) {
+			ArrayList<Integer> listEdges = listBands.get(band);
+			bandEdges[band] = new int[listEdges.size()];
+			for (int i = 0; i < listEdges.size(); i++) {
+				bandEdges[band][i] = listEdges.get(i);
+			}
+		}
+	}
+
+	/**
+	 * Test if a point is inside the polygon.
+	 *
+	 * @param latitude  : latitude of the point (radian)
+	 * @param longitude : longitude of the point (radian)
+	 * @return true if the point is inside the polygon or on one of its edges
+	 */
+	public boolean contains(double latitude, double longitude) {
+		int nbVertices = latitudes.length;
+		if (nbVertices < 3)
+			return true;
+		if (latitude < latMin - EDGE_TOLERANCE || latitude > latMin + bandHeight * bandEdges.length + EDGE_TOLERANCE)
+			return false;
+
+		boolean inside = false;
+		for (int k : bandEdges[getBand(latitude, bandEdges.length)]) {
+			int next = (k + 1) % nbVertices;
+			double lat1 = latitudes[k];
+			double lon1 = longitudes[k];
+			double lat2 = latitudes[next];
+			double lon2 = longitudes[next];
+
+			if (isOnEdge(latitude, longitude, lat1, lon1, lat2, lon2))
+				return true;
+
+			// half-open rule : a vertex on the ray is counted once
+			if ((lat1 > latitude) != (lat2 > latitude)) {
+				double crossingLon = lon1 + (latitude - lat1) * (lon2 - lon1) / (lat2 - lat1);
+				if (crossingLon > longitude)
+					inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	/**
+	 * @return the band of a latitude, clipped to the existing bands
+	 */
+	private int getBand(double latitude, int nbBands) {
+		int band = (int) Math.floor((latitude - latMin) / bandHeight);
+		return Math.max(0, Math.min(nbBands - 1, band));
+	}
+
+	/**
+	 * @return true if the point is on the segment between the 2 vertices
+	 */
+	private static boolean isOnEdge(double latitude, double longitude, double lat1, double lon1, double lat2,
+			double lon2) {
+		if (latitude < Math.min(lat1, lat2) - EDGE_TOLERANCE || latitude > Math.max(lat1, lat2) + EDGE_TOLERANCE
+				|| longitude < Math.min(lon1, lon2) - EDGE_TOLERANCE || longitude > Math.max(lon1, lon2) + EDGE_TOLERANCE)
+			return false;
+		double cross = (lat2 - lat1) * (longitude - lon1) - (lon2 - lon1) * (latitude - lat1);
+		double length = Math.hypot(lat2 - lat1, lon2 - lon1);
+		return Math.abs(cross) <= EDGE_TOLERANCE * Math.max(length, 1);
+	}
+}
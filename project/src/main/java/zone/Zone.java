@@ -60,6 +60,18 @@ public class Zone {
 	 */
 	private String meshingStyle;
 
+	/**
+	 * Index of the meshing points in hierarchical cells, built by the hierarchical
+	 * meshing only, null otherwise
+	 */
+	private HierarchicalCellIndex cellIndex;
+
+	/**
+	 * Rasterizer of the footprints on the grid of the meshing points, built by the
+	 * standard meshing only, null otherwise
+	 */
+	private GridFootprintRasterizer gridRasterizer;
+
 	/**
 	 * Default constructor Computes the meshing of the input polygon.
 	 * 
@@ -68,11 +80,30 @@ public class Zone {
 	 * 
 	 */
 	public Zone(ArrayList<GeodeticPoint> inputPolygon) {
+		this(inputPolygon, Parameters.standardMeshResolution);
+	}
+
+	/**
+	 * Constructor with the resolution of the mesh, for example a coarser one to
+	 * screen the constellations (see FidelityLevel).
+	 * 
+	 * @param inputPolygon   List of the geodetic points which form the polygon we
+	 *                       want to monitor.
+	 * @param meshResolution The resolution of the standard mesh in radian
+	 */
+	public Zone(ArrayList<GeodeticPoint> inputPolygon, double meshResolution) {
 		super();
 		this.inputPolygon = inputPolygon;
+		this.standardMeshResolution = meshResolution;
 		this.meshingStyle = Parameters.meshingStyle;
 		if (meshingStyle.equals("lat_lon_standard_meshing")) {
 			computeLatLonStandardMeshing();
+		} else if (meshingStyle.equals("polygon_clipped_meshing")) {
+			computePolygonClippedMeshing(false);
+		} else if (meshingStyle.equals("equal_area_meshing")) {
+			computePolygonClippedMeshing(true);
+		} else if (meshingStyle.equals("hierarchical_equal_area_meshing")) {
+			computeHierarchicalMeshing();
 		} else {
 			System.out.println("The meshing style " + meshingStyle + " which has been given as input does not exist.");
 		}
@@ -113,9 +144,115 @@ public class Zone {
 			row += 1;
 			col = 0;
 		}
+		// every row has the same longitudes
+		if (row > 0)
+			gridRasterizer = new GridFootprintRasterizer(latMin, lonMin, standardMeshResolution, row,
+					nb_of_points / row);
 		System.out.println("Nb of points to map the input polygon is " + nb_of_points);
 	}
 
+	/**
+	 * This method computes a meshing which keeps only the points inside the input
+	 * polygon (see PolygonEdgeIndex), instead of its whole bounding box. The
+	 * latitudes are the ones of the standard meshing. With equalArea, the step
+	 * between the longitudes of a row is the standard resolution divided by the
+	 * cosine of its latitude, so that the points are spaced by the same distance
+	 * on the ground at any latitude instead of getting closer towards the poles.
+	 * 
+	 * @param equalArea true to space the longitudes by the cosine of the latitude
+	 */
+	public void computePolygonClippedMeshing(boolean equalArea) {
+		double latMin, latMax, lonMin, lonMax, meanAltitude;
+
+		ArrayList<Double> latLonMinMaxAltitude = computeLatLonMinMaxAltitude();
+
+		latMin = latLonMinMaxAltitude.get(0);
+		latMax = latLonMinMaxAltitude.get(1);
+		lonMin = latLonMinMaxAltitude.get(2);
+		lonMax = latLonMinMaxAltitude.get(3);
+		meanAltitude = latLonMinMaxAltitude.get(4);
+
+		PolygonEdgeIndex edgeIndex = new PolygonEdgeIndex(inputPolygon);
+		listMeshingPoints = new ArrayList<GeodeticPoint>();
+
+		int row = 0;
+		while ((latMin + row * standardMeshResolution) <= latMax) {
+			double latitude = latMin + row * standardMeshResolution;
+
+			// the step is bounded near the poles, where a row is a single point
+			double lonStep = standardMeshResolution;
+			if (equalArea) {
+				lonStep /= Math.max(Math.cos(latitude), standardMeshResolution);
+			}
+
+			int col = 0;
+			while ((lonMin + col * lonStep) <= lonMax) {
+				double longitude = lonMin + col * lonStep;
+				if (edgeIndex.contains(latitude, longitude)) {
+					listMeshingPoints.add(new GeodeticPoint(latitude, longitude, meanAltitude));
+				}
+				col += 1;
+			}
+			row += 1;
+		}
+		System.out.println("Nb of points to map the input polygon is " + listMeshingPoints.size());
+	}
+
+	/**
+	 * This method computes a meshing made of the centers of the hierarchical
+	 * equal-area cells (see HierarchicalCellIndex) which are inside the input
+	 * polygon, at the level whose cells have about the area of a square of the
+	 * standard resolution. The meshing points are indexed in these cells, so that
+	 * the points under a footprint are found without scanning the whole mesh.
+	 * 
+	 * A polygon smaller than a cell is meshed with the center of the cell which
+	 * contains the center of its bounding box.
+	 */
+	public void computeHierarchicalMeshing() {
+		double latMin, latMax, lonMin, lonMax, meanAltitude;
+
+		ArrayList<Double> latLonMinMaxAltitude = computeLatLonMinMaxAltitude();
+
+		latMin = latLonMinMaxAltitude.get(0);
+		latMax = latLonMinMaxAltitude.get(1);
+		lonMin = latLonMinMaxAltitude.get(2);
+		lonMax = latLonMinMaxAltitude.get(3);
+		meanAltitude = latLonMinMaxAltitude.get(4);
+
+		int level = HierarchicalCellIndex.computeLevel(standardMeshResolution);
+		long firstCell = HierarchicalCellIndex.getCellId(latMin, lonMin, level);
+		long lastCell = HierarchicalCellIndex.getCellId(latMax, lonMax, level);
+		int nbRows = HierarchicalCellIndex.getNbRows(level);
+
+		PolygonEdgeIndex edgeIndex = new PolygonEdgeIndex(inputPolygon);
+		listMeshingPoints = new ArrayList<GeodeticPoint>();
+
+		// the columns are numbered across the faces
+		int firstColumn = HierarchicalCellIndex.getFace(firstCell) * nbRows
+				+ HierarchicalCellIndex.getColumn(firstCell);
+		int lastColumn = HierarchicalCellIndex.getFace(lastCell) * nbRows + HierarchicalCellIndex.getColumn(lastCell);
+		int firstRow = HierarchicalCellIndex.getRow(firstCell);
+		int lastRow = HierarchicalCellIndex.getRow(lastCell);
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				long cellId = HierarchicalCellIndex.createCellId(column / nbRows, row, column % nbRows, level);
+				double[] center = HierarchicalCellIndex.getCellCenter(cellId);
+				if (center[0] >= latMin && center[0] <= latMax && center[1] >= lonMin && center[1] <= lonMax
+						&& edgeIndex.contains(center[0], center[1])) {
+					listMeshingPoints.add(new GeodeticPoint(center[0], center[1], meanAltitude));
+				}
+			}
+		}
+		if (listMeshingPoints.isEmpty()) {
+			double[] center = HierarchicalCellIndex.getCellCenter(
+					HierarchicalCellIndex.getCellId(0.5 * (latMin + latMax), 0.5 * (lonMin + lonMax), level));
+			listMeshingPoints.add(new GeodeticPoint(center[0], center[1], meanAltitude));
+		}
+
+		cellIndex = new HierarchicalCellIndex(listMeshingPoints, level);
+		System.out.println("Nb of points to map the input polygon is " + listMeshingPoints.size());
+	}
+
 	/**
 	 * This method computes the minimum and maximum latitude and longitude of the
 	 * geodetic points of the input polygon. It also computes the mean altitude of
@@ -181,10 +318,30 @@ public class Zone {
 
 	public void setListMeshingPoints(ArrayList<GeodeticPoint> listMeshingPoints) {
 		this.listMeshingPoints = listMeshingPoints;
+		this.cellIndex = null;
+		this.gridRasterizer = null;
 	}
 
 	public void addPointListMeshingPoints(GeodeticPoint pointToAdd) {
 		this.listMeshingPoints.add(pointToAdd);
+		this.cellIndex = null;
+		this.gridRasterizer = null;
+	}
+
+	/**
+	 * @return the index of the meshing points in hierarchical cells, null if the
+	 *         zone is not meshed with the hierarchical meshing
+	 */
+	public HierarchicalCellIndex getCellIndex() {
+		return cellIndex;
+	}
+
+	/**
+	 * @return the rasterizer of the footprints on the grid of the meshing points,
+	 *         null if the zone is not meshed with the standard meshing
+	 */
+	public GridFootprintRasterizer getGridRasterizer() {
+		return gridRasterizer;
 	}
 
 	public double getStandardMeshResolution() {
@@ -0,0 +1,85 @@
+package constellation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+import utils.Parameters;
+
+public class EphemerisCacheTest {
+
+	@Test
+
+	/**
+	 * The interpolated states have to agree with the propagator in GCRF and in the
+	 * Earth frame, and the satellite has to use its cache.
+	 */
+	void testInterpolation() {
+		// Arrange
+		Satellite sat = new Satellite(7000000, 0.001, 1.0, 0.5, 0, 0.3, Parameters.t0);
+		Satellite reference = new Satellite(7000000, 0.001, 1.0, 0.5, 0, 0.3, Parameters.t0);
+		AbsoluteDate tf = new AbsoluteDate(Parameters.t0, 86400.);
+		Frame[] frames = { FramesFactory.getGCRF(), Parameters.earthFrame };
+
+		// Act
+		EphemerisCache cache = new EphemerisCache(sat, Parameters.t0, tf, 30., 64);
+		sat.setEphemerisCache(cache);
+		double maxPositionError = 0;
+		double maxVelocityError = 0;
+		for (Frame frame : frames) {
+			for (double time = 0; time <= 86400.; time += 86400. / 997) {
+				AbsoluteDate date = new AbsoluteDate(Parameters.t0, time);
+				PVCoordinates expected = reference.getPropagator().getPVCoordinates(date, frame);
+				maxPositionError = Math.max(maxPositionError,
+						Vector3D.distance(expected.getPosition(), sat.getPosition(date, frame)));
+				maxVelocityError = Math.max(maxVelocityError,
+						Vector3D.distance(expected.getVelocity(), sat.getVelocity(date, frame)));
+			}
+		}
+		System.out.println("Ephemeris errors : " + maxPositionError + " m, " + maxVelocityError + " m/s");
+
+		// Assert
+		assertEquals(12, cache.getNbBlocksInMemory());
+		assert cache.covers(tf, Parameters.earthFrame);
+		assert !cache.covers(new AbsoluteDate(tf, 1.), Parameters.earthFrame);
+		assert maxPositionError < 0.1;
+		assert maxVelocityError < 1e-2;
+	}
+
+	@Test
+
+	/**
+	 * With a long horizon, the number of blocks in memory has to stay bounded and
+	 * the evicted blocks have to be computed again when they are read.
+	 */
+	void testEviction() {
+		// Arrange
+		Satellite sat = new Satellite(7000000, 0, 1.0, 0.5, 0, 0.3, Parameters.t0);
+		double step = 10.;
+		double duration = 20 * EphemerisCache.BLOCK_SIZE * step;
+		AbsoluteDate tf = new AbsoluteDate(Parameters.t0, duration);
+		double[] pv = new double[6];
+
+		// Act
+		EphemerisCache cache = new EphemerisCache(sat, Parameters.t0, tf, step, 3);
+		double maxPositionError = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			for (double time = 0; time <= duration; time += 77.) {
+				cache.getPVCoordinates(time, true, pv);
+				Vector3D expected = sat.getPosition(new AbsoluteDate(Parameters.t0, time), Parameters.earthFrame);
+				maxPositionError = Math.max(maxPositionError,
+						Vector3D.distance(expected, new Vector3D(pv[0], pv[1], pv[2])));
+				assert cache.getNbBlocksInMemory() <= 3;
+			}
+		}
+
+		// Assert
+		assertEquals(3, cache.getNbBlocksInMemory());
+		assert maxPositionError < 0.1;
+	}
+}
@@ -0,0 +1,107 @@
+package constellation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+
+import utils.Parameters;
+
+public class KeplerianKernelTest {
+
+	@Test
+
+	/**
+	 * Compare the positions of the kernel with the positions of the Orekit
+	 * propagator, in GCRF and in the Earth frame, over 2 days.
+	 */
+	void testAgreementWithPropagator() {
+		// Arrange
+		ArrayList<Satellite> listSatellites = new ArrayList<Satellite>();
+		listSatellites.add(new Satellite(7000000, 0, 1.0, 0.5, 0, 0.3, Parameters.t0));
+		listSatellites.add(new Satellite(7200000, 0.01, 1.7, 4.0, 1.2, 5.0, Parameters.t0));
+		listSatellites.add(new Satellite(26000000, 0.7, 1.1, 2.0, 4.5, 2.5, new AbsoluteDate(Parameters.t0, -3600)));
+		int nbTimes = 200;
+		double[] times = new double[nbTimes];
+		for (int k = 0; k < nbTimes; k++) {
+			times[k] = k * 2 * 86400.0 / nbTimes;
+		}
+		double[] x = new double[listSatellites.size() * nbTimes];
+		double[] y = new double[listSatellites.size() * nbTimes];
+		double[] z = new double[listSatellites.size() * nbTimes];
+		double[] position = new double[3];
+
+		// Act
+		KeplerianKernel kernel = new KeplerianKernel(listSatellites, Parameters.t0);
+		double maxInertialError = 0;
+		double maxEarthError = 0;
+		kernel.computeInertialPositions(times, x, y, z);
+		for (int sat = 0; sat < listSatellites.size(); sat++) {
+			for (int k = 0; k < nbTimes; k++) {
+				AbsoluteDate date = new AbsoluteDate(Parameters.t0, times[k]);
+				Vector3D expected = listSatellites.get(sat).getPosition(date, FramesFactory.getGCRF());
+				Vector3D actual = new Vector3D(x[sat * nbTimes + k], y[sat * nbTimes + k], z[sat * nbTimes + k]);
+				maxInertialError = Math.max(maxInertialError, Vector3D.distance(expected, actual));
+			}
+		}
+		kernel.computeEarthPositions(times, x, y, z);
+		for (int sat = 0; sat < listSatellites.size(); sat++) {
+			for (int k = 0; k < nbTimes; k++) {
+				AbsoluteDate date = new AbsoluteDate(Parameters.t0, times[k]);
+				Vector3D expected = listSatellites.get(sat).getPosition(date, Parameters.earthFrame);
+				kernel.computeEarthPosition(sat, times[k], position);
+				assertEquals(x[sat * nbTimes + k], position[0]);
+				assertEquals(z[sat * nbTimes + k], position[2]);
+				double error = Vector3D.distance(expected, new Vector3D(position)) / expected.getNorm();
+				maxEarthError = Math.max(maxEarthError, error);
+			}
+		}
+		System.out.println("Kernel errors : " + maxInertialError + " m (GCRF), " + maxEarthError + " (Earth frame)");
+
+		// Assert
+		assert maxInertialError < 1e-3;
+		// 2 days of precession and nutation frozen, relative to the radius
+		assert maxEarthError < 1e-5;
+	}
+
+	@Test
+
+	/**
+	 * Time the kernel against the Orekit propagator.
+	 */
+	void testPerformance() {
+		// Arrange
+		ArrayList<Satellite> listSatellites = new ArrayList<Satellite>();
+		for (int sat = 0; sat < 30; sat++) {
+			listSatellites.add(new Satellite(7000000, 0, 1.0, 0.2 * sat, 0, 0.1 * sat, Parameters.t0));
+		}
+		int nbTimes = 10000;
+		double[] times = new double[nbTimes];
+		for (int k = 0; k < nbTimes; k++) {
+			times[k] = k * 10.0;
+		}
+		double[] x = new double[listSatellites.size() * nbTimes];
+		double[] y = new double[listSatellites.size() * nbTimes];
+		double[] z = new double[listSatellites.size() * nbTimes];
+		KeplerianKernel kernel = new KeplerianKernel(listSatellites, Parameters.t0);
+
+		// Act
+		long start = System.nanoTime();
+		kernel.computeEarthPositions(times, x, y, z);
+		double kernelDuration = (System.nanoTime() - start) * 1e-9;
+		start = System.nanoTime();
+		for (int k = 0; k < 1000; k++) {
+			listSatellites.get(0).getPosition(new AbsoluteDate(Parameters.t0, times[k]), Parameters.earthFrame);
+		}
+		double propagatorDuration = (System.nanoTime() - start) * 1e-9 * nbTimes * listSatellites.size() / 1000;
+		System.out.println("Kernel : " + kernelDuration + " s, propagator (extrapolated) : " + propagatorDuration
+				+ " s for " + listSatellites.size() * nbTimes + " positions");
+
+		// Assert
+		assert kernelDuration < propagatorDuration;
+	}
+}
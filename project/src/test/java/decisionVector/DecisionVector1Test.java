@@ -0,0 +1,142 @@
+package decisionVector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+
+import constellation.Constellation;
+import simulation.BatchContext;
+import simulation.FidelityLevel;
+import simulation.ZoneModel;
+import utils.Parameters;
+import zone.Zone;
+
+class DecisionVector1Test {
+
+	/**
+	 * Create a decision vector of the use case 1 with 3 potential satellites.
+	 */
+	private DecisionVector createDecisionVector() {
+		ArrayList<DecisionVariable> variableList = new ArrayList<DecisionVariable>();
+		variableList.add(new DecisionVariable<Double>(Double.class, "inclination", 1., 1.1));
+		variableList.add(new DecisionVariable<Integer>(Integer.class, "nbSat", 1, 4));
+		for (int i = 0; i < 3; i++) {
+			variableList.add(new DecisionVariable<Double>(Double.class, "anomaly" + i, 0., 2 * Math.PI));
+		}
+
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(-0.005, 44, 143));
+		inputPolygon.add(new GeodeticPoint(0.005, 44.005, 144));
+		return new DecisionVector1(variableList, inputPolygon);
+	}
+
+	/**
+	 * Create the values of a vector.
+	 */
+	private ArrayList<Object> createValues(double inclination, int nbSat, double anomaly0, double anomaly1,
+			double anomaly2) {
+		ArrayList<Object> listValues = new ArrayList<Object>();
+		listValues.add(inclination);
+		listValues.add(nbSat);
+		listValues.add(anomaly0);
+		listValues.add(anomaly1);
+		listValues.add(anomaly2);
+		return listValues;
+	}
+
+	@Test
+	/**
+	 * The anomalies of the satellites beyond nbSat and the order of the anomalies
+	 * must not change the key, contrary to the other values.
+	 */
+	void testGetCanonicalKey() {
+
+		// Arrange
+		DecisionVector decisionVector = createDecisionVector();
+		double tolerance = 1e-9;
+
+		// Act
+		ArrayList<Object> key = decisionVector.getCanonicalKey(createValues(1.05, 2, 1., 2., 3.), tolerance);
+		ArrayList<Object> otherUnusedAnomaly = decisionVector.getCanonicalKey(createValues(1.05, 2, 1., 2., 5.),
+				tolerance);
+		ArrayList<Object> swappedAnomalies = decisionVector.getCanonicalKey(createValues(1.05, 2, 2., 1., 3.),
+				tolerance);
+		ArrayList<Object> closeInclination = decisionVector
+				.getCanonicalKey(createValues(1.05 + 1e-13, 2, 1., 2., 3.), tolerance);
+		ArrayList<Object> otherNbSat = decisionVector.getCanonicalKey(createValues(1.05, 3, 1., 2., 3.), tolerance);
+		ArrayList<Object> otherInclination = decisionVector.getCanonicalKey(createValues(1.06, 2, 1., 2., 3.),
+				tolerance);
+
+		// Assert
+		assertEquals(key, otherUnusedAnomaly);
+		assertEquals(key, swappedAnomalies);
+		assertEquals(key, closeInclination);
+		assertNotEquals(key, otherNbSat);
+		assertNotEquals(key, otherInclination);
+	}
+
+	@Test
+	/**
+	 * The conversion into primitive values has to keep the values, and give the
+	 * same canonical key as the list of values.
+	 */
+	void testDecisionValues() {
+
+		// Arrange
+		DecisionVector decisionVector = createDecisionVector();
+		ArrayList<Object> listValues = createValues(1.05, 2, 2., 1., 3.);
+
+		// Act
+		DecisionValues values = decisionVector.toDecisionValues(listValues);
+
+		// Assert
+		assertEquals(1.05, values.getDouble(0));
+		assertEquals(2, values.getInt(1));
+		assertEquals(3., values.getDouble(4));
+		assertEquals(listValues, decisionVector.toListValues(values));
+		assertEquals(decisionVector.getCanonicalKey(listValues, 1e-9), decisionVector.getCanonicalKey(values, 1e-9));
+	}
+
+	@Test
+	/**
+	 * An infeasible constellation has to cost more than a feasible constellation
+	 * which leaves a mesh point unseen, itself costing more than the duration.
+	 * Without the feasibility check, the unseen point costs Double.MAX_VALUE.
+	 */
+	void testInfeasibleRankedAfterUnseen() {
+
+		// Arrange
+		DecisionVector decisionVector = createDecisionVector();
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.3), Math.toRadians(1.2), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.9), Math.toRadians(1.8), 150));
+		double duration = 600.;
+		BatchContext batchContext = new BatchContext(new ZoneModel(new Zone(inputPolygon)),
+				new FidelityLevel(Parameters.standardMeshResolution, duration, 1.));
+
+		Constellation feasible = new Constellation();
+		feasible.addSatellite(7157000., 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+		Constellation underground = new Constellation();
+		underground.addSatellite(6800000., 0.5, 1.719, 0.5, 0., 0., Parameters.t0);
+
+		// Act
+		Boolean feasibilityCheck = Parameters.feasibilityCheck;
+		Parameters.feasibilityCheck = false;
+		double uncheckedCost = decisionVector.evaluateConstellation(feasible, batchContext, Double.MAX_VALUE);
+		Parameters.feasibilityCheck = true;
+		double unseenCost = decisionVector.evaluateConstellation(feasible, batchContext, Double.MAX_VALUE);
+		double infeasibleCost = decisionVector.evaluateConstellation(underground, batchContext, Double.MAX_VALUE);
+		Parameters.feasibilityCheck = feasibilityCheck;
+
+		// Assert
+		assertEquals(1, decisionVector.getFeasibilityChecker().getNbRejections());
+		assert unseenCost > duration;
+		assert unseenCost <= duration + batchContext.getZoneModel().getNbPoints();
+		assert infeasibleCost > unseenCost;
+		assertEquals(Double.MAX_VALUE, uncheckedCost);
+	}
+
+}
@@ -0,0 +1,68 @@
+package optimisation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+class FitnessCacheTest {
+
+	/**
+	 * Create the key of an individual.
+	 */
+	private ArrayList<Object> createKey(int value) {
+		ArrayList<Object> key = new ArrayList<Object>();
+		key.add(value);
+		return key;
+	}
+
+	@Test
+	/**
+	 * An exact fitness is always returned, a lower bound only when it is greater
+	 * than the cutoff.
+	 */
+	void testGet() {
+
+		// Arrange
+		FitnessCache cache = new FitnessCache(10);
+		cache.put(createKey(1), 100., true);
+		cache.put(createKey(2), 500., false);
+
+		// Act
+		Double exact = cache.get(createKey(1), 50.);
+		Double lowerBoundAboveCutoff = cache.get(createKey(2), 400.);
+		Double lowerBoundUnderCutoff = cache.get(createKey(2), 600.);
+		Double missing = cache.get(createKey(3), Double.MAX_VALUE);
+
+		// Assert
+		assertEquals(100., exact);
+		assertEquals(500., lowerBoundAboveCutoff);
+		assertNull(lowerBoundUnderCutoff);
+		assertNull(missing);
+		assertEquals(2, cache.getNbHits());
+		assertEquals(2, cache.getNbMisses());
+	}
+
+	@Test
+	/**
+	 * The least recently used individual has to be removed when the cache is full.
+	 */
+	void testEviction() {
+
+		// Arrange
+		FitnessCache cache = new FitnessCache(2);
+
+		// Act
+		cache.put(createKey(1), 1., true);
+		cache.put(createKey(2), 2., true);
+		cache.get(createKey(1), Double.MAX_VALUE);
+		cache.put(createKey(3), 3., true);
+
+		// Assert
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get(createKey(1), Double.MAX_VALUE));
+		assertNull(cache.get(createKey(2), Double.MAX_VALUE));
+	}
+
+}
@@ -0,0 +1,121 @@
+package optimisation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+
+import constellation.Constellation;
+import decisionVector.DecisionValues;
+import decisionVector.DecisionVariable;
+import decisionVector.DecisionVector;
+import simulation.BatchContext;
+import simulation.FidelityLevel;
+import utils.Parameters;
+
+class OptimisationTest {
+
+	/**
+	 * Decision vector whose cost is the distance of its only variable to a target,
+	 * so that no simulation is needed.
+	 */
+	private static class TargetDecisionVector extends DecisionVector {
+
+		private final double target;
+
+		private TargetDecisionVector(ArrayList<DecisionVariable> listDecisionVariables, double target) {
+			super(listDecisionVariables, new ArrayList<GeodeticPoint>());
+			this.target = target;
+		}
+
+		@Override
+		public Constellation createConstellationFromVector(DecisionValues values) {
+			return new Constellation();
+		}
+
+		@Override
+		public Double costFunction(DecisionValues values, BatchContext batchContext, double cutoff) {
+			return Math.abs(values.getDouble(0) - target);
+		}
+
+		@Override
+		protected BatchContext createBatchContext(FidelityLevel fidelity) {
+			return null;
+		}
+	}
+
+	/**
+	 * Create an optimisation which looks for the target in [0, 10].
+	 */
+	private Optimisation createOptimisation(double target) {
+		ArrayList<DecisionVariable> variableList = new ArrayList<DecisionVariable>();
+		variableList.add(new DecisionVariable<Double>(Double.class, "x", 0., 10.));
+		Optimisation optimisation = new Optimisation(new TargetDecisionVector(variableList, target));
+		optimisation.setParallelism(2);
+		optimisation.setDisplayPlot(false);
+		return optimisation;
+	}
+
+	@Test
+	/**
+	 * Two optimisations run at the same time in the same JVM have to keep their own
+	 * state.
+	 */
+	void testConcurrentOptimisations() throws Exception {
+
+		// Arrange
+		Optimisation firstOptimisation = createOptimisation(2.);
+		Optimisation secondOptimisation = createOptimisation(8.);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		// Act
+		Future<ArrayList<Object>> firstResult = executor.submit(
+				() -> firstOptimisation.optimize(firstOptimisation.getDecisionVector(), 20, 15));
+		Future<ArrayList<Object>> secondResult = executor.submit(
+				() -> secondOptimisation.optimize(secondOptimisation.getDecisionVector(), 20, 10));
+		double firstValue = (Double) firstResult.get().get(0);
+		double secondValue = (Double) secondResult.get().get(0);
+		executor.shutdown();
+
+		// Assert
+		assertEquals(2., firstValue, 0.5);
+		assertEquals(8., secondValue, 0.5);
+		assertEquals(15, firstOptimisation.getFitnessValues().size());
+		assertEquals(10, secondOptimisation.getFitnessValues().size());
+		assertNotNull(firstOptimisation.getStatistics());
+	}
+
+	@Test
+	/**
+	 * With the multi-fidelity evaluation, only the top fraction of each
+	 * generation is evaluated at full fidelity, and the optimisation still
+	 * converges when the screening ranks the individuals correctly.
+	 */
+	void testMultiFidelity() {
+
+		// Arrange
+		Optimisation optimisation = createOptimisation(3.);
+		ArrayList<FidelityLevel> screeningLevels = new ArrayList<FidelityLevel>();
+		screeningLevels.add(new FidelityLevel(Parameters.standardMeshResolution * 4, 86400., 2.));
+		optimisation.setMultiFidelity(true);
+		optimisation.setScreeningLevels(screeningLevels);
+		optimisation.setPromotionFraction(0.25);
+
+		// Act
+		double value = (Double) optimisation.optimize(optimisation.getDecisionVector(), 20, 15).get(0);
+		PromotionStatistics statistics = optimisation.getPromotionStatistics();
+
+		// Assert
+		assertEquals(3., value, 0.5);
+		assert statistics.getNbPromoted(0) > 0;
+		assert statistics.getNbPromoted(0) < statistics.getNbScreened(0);
+		assertEquals(statistics.getNbPromoted(0), statistics.getNbFullEvaluations());
+		assert statistics.getWorstBestRank(0) < 0.25;
+	}
+
+}
@@ -0,0 +1,120 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+
+import constellation.Constellation;
+import utils.Parameters;
+import zone.Zone;
+
+class AdaptiveMeshRevisitTest {
+
+	/**
+	 * Create a zone over the south of France.
+	 */
+	private Zone createZone() {
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(42.), Math.toRadians(-1.), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(46.), Math.toRadians(5.), 150));
+		return new Zone(inputPolygon);
+	}
+
+	/**
+	 * Create a constellation of 4 planes of 2 satellites.
+	 */
+	private Constellation createConstellation() {
+		Constellation constellation = new Constellation();
+		for (int plane = 0; plane < 4; plane++) {
+			constellation.addSatellite(7800000., 0.001, 1.2, 1.5 * plane, 0., plane, Parameters.t0);
+			constellation.addSatellite(7800000., 0.001, 1.2, 1.5 * plane, 0., plane + Math.PI, Parameters.t0);
+		}
+		return constellation;
+	}
+
+	@Test
+	/**
+	 * The max revisit on the adaptive mesh has to be the one of the full mesh
+	 * within the tolerance, with fewer points simulated.
+	 */
+	void testComputeMaxRevisit() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 3 * 86400.);
+		Zone zone = createZone();
+		double tolerance = 60.;
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		simulation.setVisibilityEngine("time_stepped_sweep");
+		AdaptiveMeshRevisit adaptiveMesh = new AdaptiveMeshRevisit(zone, 3, tolerance);
+
+		// Act
+		simulation.propagateOrbits();
+		double fullRevisit = simulation.getMaxRevisit();
+		AdaptiveMeshRevisit.Computation computation = adaptiveMesh.compute(createConstellation(), t0, tf,
+				Double.MAX_VALUE);
+		double adaptiveRevisit = computation.getMaxRevisit();
+
+		// Assert
+		System.out.println("full mesh: " + fullRevisit + " s on " + zone.getListMeshingPoints().size()
+				+ " points, adaptive mesh: " + adaptiveRevisit + " s on " + computation.getNbPointsSimulated()
+				+ " points after " + computation.getNbRefinements() + " refinements");
+		assert fullRevisit < Double.MAX_VALUE;
+		assert adaptiveRevisit <= fullRevisit + 1e-3;
+		assert adaptiveRevisit >= fullRevisit - tolerance;
+		assert computation.getNbPointsSimulated() < zone.getListMeshingPoints().size();
+	}
+
+	@Test
+	/**
+	 * The computation stops with a lower bound greater than the cutoff.
+	 */
+	void testCutoff() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 86400.);
+		AdaptiveMeshRevisit adaptiveMesh = new AdaptiveMeshRevisit(createZone(), 3, 60.);
+
+		// Act
+		AdaptiveMeshRevisit.Computation computation = adaptiveMesh.compute(createConstellation(), t0, tf, 100.);
+
+		// Assert
+		assert computation.getMaxRevisit() > 100.;
+		assert computation.getNbRefinements() == 0;
+	}
+
+	@Test
+	/**
+	 * The adaptive mesh of a batch context is built once and keeps no state
+	 * between two computations : a computation cut off doesn't change the next
+	 * one.
+	 */
+	void testBatchContextReuse() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 86400.);
+		Zone zone = createZone();
+		BatchContext batchContext = new BatchContext(zone);
+		AdaptiveMeshRevisit adaptiveMesh = batchContext.getAdaptiveMesh();
+
+		// Act
+		adaptiveMesh.compute(createConstellation(), t0, tf, 100.);
+		AdaptiveMeshRevisit.Computation computation = adaptiveMesh.compute(createConstellation(), t0, tf,
+				Double.MAX_VALUE);
+		AdaptiveMeshRevisit.Computation reference = new AdaptiveMeshRevisit(zone, Parameters.adaptiveMeshLevels,
+				Parameters.adaptiveMeshTolerance).compute(createConstellation(), t0, tf, Double.MAX_VALUE);
+
+		// Assert
+		assert batchContext.getAdaptiveMesh() == adaptiveMesh;
+		assertEquals(reference.getMaxRevisit(), computation.getMaxRevisit());
+		assertEquals(reference.getNbPointsSimulated(), computation.getNbPointsSimulated());
+		assertEquals(reference.getNbRefinements(), computation.getNbRefinements());
+	}
+
+}
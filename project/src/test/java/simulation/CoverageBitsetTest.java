@@ -0,0 +1,109 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CoverageBitsetTest {
+
+	@Test
+	/**
+	 * The runs of uncovered steps, across the words of the bitset, have to give
+	 * the revisits with the rules of the simulation.
+	 */
+	void testGetMaxRevisitPoint() {
+
+		// Arrange : 200 steps of 10 s, i.e. 4 words per point
+		CoverageBitset coverage = new CoverageBitset(3, 1995., 10.);
+		coverage.markVisibility(0, 100., 120.);
+		coverage.markVisibility(0, 1500., 1510.);
+		coverage.markVisibility(1, 0., 1995.);
+
+		// Act
+		double revisit0 = coverage.getMaxRevisitPoint(0);
+		double revisit1 = coverage.getMaxRevisitPoint(1);
+		double revisit2 = coverage.getMaxRevisitPoint(2);
+
+		// Assert
+		assertEquals(200, coverage.getNbSteps());
+		assert coverage.isCovered(0, 10) && coverage.isCovered(0, 11) && !coverage.isCovered(0, 12);
+		// exact gap : from 120 s to 1500 s
+		assertEquals(1380., revisit0, 1e-9);
+		assertEquals(0., revisit1, 1e-9);
+		assertEquals(Double.MAX_VALUE, revisit2);
+		assertEquals(Double.MAX_VALUE, coverage.getMaxRevisit());
+	}
+
+	@Test
+	/**
+	 * The coverages of several satellites are merged by a bitwise OR, and the
+	 * discretized revisit is a lower bound within 2 steps of the exact one.
+	 */
+	void testOr() {
+
+		// Arrange
+		double duration = 86400.;
+		double timeStep = 60.;
+		int nbPoints = 100000;
+		CoverageBitset coverage = new CoverageBitset(nbPoints, duration, timeStep);
+		CoverageBitset satelliteCoverage = new CoverageBitset(nbPoints, duration, timeStep);
+		RevisitAccumulator accumulator = new RevisitAccumulator(nbPoints, duration);
+		VisibilityEventBuffer allEvents = new VisibilityEventBuffer();
+		long mergeNanos = 0;
+
+		// Act : 30 satellites seeing each point every 3 hours for 5 minutes, with
+		// different phases
+		for (int sat = 0; sat < 30; sat++) {
+			VisibilityEventBuffer events = new VisibilityEventBuffer();
+			for (int pointIndex = 0; pointIndex < nbPoints; pointIndex += 97) {
+				double phase = (1237. * sat + 31. * pointIndex) % 10800.;
+				for (double start = phase; start < duration; start += 10800.) {
+					events.visibilityEvent(pointIndex, start, true);
+					events.visibilityEvent(pointIndex, Math.min(start + 300., duration), false);
+				}
+			}
+			events.sortChronologically();
+			allEvents.addAll(events);
+			satelliteCoverage.clear();
+			satelliteCoverage.addEvents(events);
+			long start = System.nanoTime();
+			coverage.or(satelliteCoverage);
+			mergeNanos += System.nanoTime() - start;
+		}
+		allEvents.sortChronologically();
+		allEvents.addTo(accumulator, allEvents.size());
+
+		// Assert
+		System.out.println("merge of 30 satellites over " + nbPoints + " points in " + mergeNanos / 1e6 + " ms");
+		for (int pointIndex = 0; pointIndex < nbPoints; pointIndex += 97) {
+			double exactRevisit = accumulator.getMaxRevisitPoint(pointIndex);
+			double revisit = coverage.getMaxRevisitPoint(pointIndex);
+			assert revisit <= exactRevisit + 1e-9;
+			assert revisit > exactRevisit - 2 * timeStep;
+		}
+		assertEquals(Double.MAX_VALUE, coverage.getMaxRevisitPoint(1));
+	}
+
+	@Test
+	/**
+	 * A coverage larger than Parameters.coverageMaxBytes is rejected before its
+	 * size overflows : 100000 points over a year with a step of 1 s would need
+	 * more than 2^31 longs.
+	 */
+	void testMaxSize() {
+
+		// Arrange
+		int nbPoints = 100000;
+		double duration = 365 * 86400.;
+
+		// Act
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+				() -> new CoverageBitset(nbPoints, duration, 1.));
+		CoverageBitset coverage = new CoverageBitset(nbPoints, 86400., 600.);
+
+		// Assert
+		assert exception.getMessage().contains("Parameters.coverageMaxBytes");
+		assertEquals(144, coverage.getNbSteps());
+	}
+
+}
@@ -0,0 +1,67 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+
+import constellation.Constellation;
+import utils.Parameters;
+import zone.Zone;
+
+class FeasibilityCheckerTest {
+
+	/**
+	 * Create the model of a small zone around Toulouse.
+	 */
+	private ZoneModel createZoneModel() {
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.3), Math.toRadians(1.2), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.9), Math.toRadians(1.8), 150));
+		return new ZoneModel(new Zone(inputPolygon));
+	}
+
+	/**
+	 * Create a constellation of one satellite.
+	 */
+	private Constellation createConstellation(double a, double e, double i) {
+		Constellation constellation = new Constellation();
+		constellation.addSatellite(a, e, i, 0.5, 0., 0., Parameters.t0);
+		return constellation;
+	}
+
+	@Test
+	/**
+	 * A constellation which can see the zone has no penalty. The penalty of the
+	 * other ones is greater than the cost of any feasible constellation (the
+	 * duration plus the number of mesh points) and grows with the violation.
+	 */
+	void testComputePenalty() {
+
+		// Arrange
+		FeasibilityChecker checker = new FeasibilityChecker();
+		ZoneModel zoneModel = createZoneModel();
+		double duration = 86400.;
+
+		// Act
+		double sunSynchronous = checker.computePenalty(createConstellation(7157000., 0.001, 1.719), zoneModel,
+				duration);
+		double lowPerigee = checker.computePenalty(createConstellation(6800000., 0.5, 1.719), zoneModel, duration);
+		double lowerPerigee = checker.computePenalty(createConstellation(6800000., 0.6, 1.719), zoneModel, duration);
+		double lowInclination = checker.computePenalty(createConstellation(7157000., 0.001, 0.4), zoneModel,
+				duration);
+		double equatorial = checker.computePenalty(createConstellation(7157000., 0.001, 0.1), zoneModel, duration);
+
+		// Assert
+		assertEquals(0., sunSynchronous);
+		assert lowPerigee > FeasibilityChecker.computeUnseenCost(zoneModel.getNbPoints(), duration);
+		assert lowerPerigee > lowPerigee;
+		assert lowInclination > FeasibilityChecker.computeUnseenCost(zoneModel.getNbPoints(), duration);
+		assert equatorial > lowInclination;
+		assertEquals(5, checker.getNbChecks());
+		assertEquals(4, checker.getNbRejections());
+	}
+
+}
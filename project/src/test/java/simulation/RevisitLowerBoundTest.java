@@ -0,0 +1,108 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+
+import constellation.Constellation;
+import utils.Parameters;
+import zone.Zone;
+
+class RevisitLowerBoundTest {
+
+	/**
+	 * Create a zone around Toulouse.
+	 */
+	private Zone createZone() {
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(42.5), Math.toRadians(0.5), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(44.5), Math.toRadians(2.5), 150));
+		return new Zone(inputPolygon);
+	}
+
+	/**
+	 * Create the constellations to check : sun synchronous, inclined, eccentric
+	 * and with several planes.
+	 */
+	private ArrayList<Constellation> createConstellations() {
+		ArrayList<Constellation> listConstellations = new ArrayList<Constellation>();
+
+		Constellation sunSynchronous = new Constellation();
+		sunSynchronous.addSatellite(7157000., 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+		sunSynchronous.addSatellite(7157000., 0.001, 1.719, 0.5, 0., Math.PI, Parameters.t0);
+		listConstellations.add(sunSynchronous);
+
+		Constellation inclined = new Constellation();
+		inclined.addSatellite(7000000., 0.001, 0.9, 2., 1., 3., Parameters.t0);
+		listConstellations.add(inclined);
+
+		Constellation eccentric = new Constellation();
+		eccentric.addSatellite(8000000., 0.15, 1.1, 4., 2., 1., Parameters.t0);
+		listConstellations.add(eccentric);
+
+		Constellation severalPlanes = new Constellation();
+		for (int plane = 0; plane < 3; plane++) {
+			severalPlanes.addSatellite(7200000., 0.001, 1., 2 * plane, 0., plane, Parameters.t0);
+		}
+		listConstellations.add(severalPlanes);
+
+		return listConstellations;
+	}
+
+	@Test
+	/**
+	 * The bound of each mesh point must never exceed its max revisit computed by
+	 * the simulation, and has to be positive.
+	 */
+	void testLowerBound() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		double duration = 86400.;
+		AbsoluteDate tf = new AbsoluteDate(t0, duration);
+		Zone zone = createZone();
+		ZoneModel zoneModel = new ZoneModel(zone);
+		RevisitLowerBound lowerBound = new RevisitLowerBound();
+
+		for (Constellation constellation : createConstellations()) {
+
+			// Act
+			Simulation simulation = new Simulation(constellation, t0, tf, zone);
+			simulation.propagateOrbits();
+			double[] bounds = lowerBound.computePoints(constellation, zoneModel, t0, duration);
+			double bound = lowerBound.compute(constellation, zoneModel, t0, duration);
+
+			// Assert
+			for (int pointIndex = 0; pointIndex < zoneModel.getNbPoints(); pointIndex++) {
+				double maxRevisit = simulation.getMaxRevisitPoint(zone.getListMeshingPoints().get(pointIndex));
+				System.out.println("bound: " + bounds[pointIndex] + " max revisit: " + maxRevisit);
+				assert bounds[pointIndex] > 0;
+				assert bounds[pointIndex] <= maxRevisit;
+			}
+			assert bound <= simulation.getMaxRevisit();
+		}
+	}
+
+	@Test
+	/**
+	 * A point which can't be seen gets an infinite bound.
+	 */
+	void testPointNeverSeen() {
+
+		// Arrange
+		ZoneModel zoneModel = new ZoneModel(createZone());
+		Constellation equatorial = new Constellation();
+		equatorial.addSatellite(7157000., 0.001, 0.1, 0.5, 0., 0., Parameters.t0);
+
+		// Act
+		double bound = new RevisitLowerBound().compute(equatorial, zoneModel, Parameters.t0, 86400.);
+
+		// Assert
+		assertEquals(Double.MAX_VALUE, bound);
+	}
+
+}
@@ -0,0 +1,521 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+import constellation.Constellation;
+import constellation.Satellite;
+import utils.Parameters;
+import zone.Zone;
+
+class SimulationTest {
+
+	/**
+	 * Create a small zone around Toulouse.
+	 */
+	private Zone createZone() {
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.3), Math.toRadians(1.2), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.9), Math.toRadians(1.8), 150));
+		return new Zone(inputPolygon);
+	}
+
+	/**
+	 * Create a constellation of 2 satellites on a sun synchronous orbit.
+	 */
+	private Constellation createConstellation() {
+		Constellation constellation = new Constellation();
+		constellation.addSatellite(7157000., 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+		constellation.addSatellite(7157000., 0.001, 1.719, 0.5, 0., Math.PI, Parameters.t0);
+		return constellation;
+	}
+
+	@Test
+	/**
+	 * The time stepped sweep engine has to give the same max revisit as the
+	 * elevation detectors.
+	 */
+	void testSweepVisibilityEngine() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 5 * 86400.);
+		Zone zone = createZone();
+
+		Simulation detectorSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation sweepSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		sweepSimulation.setVisibilityEngine("time_stepped_sweep");
+
+		// Act
+		detectorSimulation.propagateOrbits();
+		sweepSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			double detectorRevisit = detectorSimulation.getMaxRevisitPoint(meshPoint);
+			double sweepRevisit = sweepSimulation.getMaxRevisitPoint(meshPoint);
+			System.out.println("detector: " + detectorRevisit + " sweep: " + sweepRevisit);
+			assertEquals(detectorRevisit, sweepRevisit, 1e-2);
+		}
+	}
+
+	@Test
+	/**
+	 * The parallel propagation has to give the same visibilities as the sequential
+	 * one.
+	 */
+	void testParallelPropagation() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		Zone zone = createZone();
+
+		Simulation sequentialSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation parallelSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		parallelSimulation.setParallelPropagation(true);
+
+		// Act
+		sequentialSimulation.propagateOrbits();
+		parallelSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(sequentialSimulation.getMaxRevisitPoint(meshPoint),
+					parallelSimulation.getMaxRevisitPoint(meshPoint));
+		}
+	}
+
+	@Test
+	/**
+	 * The streaming computation of the revisit has to give the same max revisit as
+	 * the HashMaps of visibilities, with both engines.
+	 */
+	void testStreamingRevisit() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 3.5 * 86400.);
+		Zone zone = createZone();
+
+		Simulation mapSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation streamingSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		streamingSimulation.setStreamingRevisit(true);
+		Simulation streamingSweepSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		streamingSweepSimulation.setStreamingRevisit(true);
+		streamingSweepSimulation.setVisibilityEngine("time_stepped_sweep");
+		streamingSweepSimulation.setParallelPropagation(true);
+
+		// Act
+		mapSimulation.propagateOrbits();
+		streamingSimulation.propagateOrbits();
+		streamingSweepSimulation.propagateOrbits();
+
+		// Assert
+		assertEquals(mapSimulation.getMaxRevisit(), streamingSimulation.getMaxRevisit(), Parameters.threshold);
+		assertEquals(streamingSimulation.getMaxRevisit(), streamingSweepSimulation.getMaxRevisit(), 1e-2);
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(streamingSimulation.getMaxRevisitPoint(meshPoint),
+					streamingSweepSimulation.getMaxRevisitPoint(meshPoint), 1e-2);
+		}
+	}
+
+	@Test
+	/**
+	 * With a cutoff lower than the max revisit, the simulation has to stop early
+	 * and return a value greater than the cutoff. With a greater cutoff, the result
+	 * has to be unchanged.
+	 */
+	void testRevisitCutoff() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 5 * 86400.);
+		Zone zone = createZone();
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation lowCutoffSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		lowCutoffSimulation.setRevisitCutoff(10000.);
+		Simulation highCutoffSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		highCutoffSimulation.setRevisitCutoff(5 * 86400.);
+
+		// Act
+		simulation.propagateOrbits();
+		lowCutoffSimulation.propagateOrbits();
+		highCutoffSimulation.propagateOrbits();
+
+		// Assert
+		assert lowCutoffSimulation.isCutOff();
+		assert lowCutoffSimulation.getMaxRevisit() > 10000.;
+		assert lowCutoffSimulation.getMaxRevisit() <= simulation.getMaxRevisit();
+		assertFalse(highCutoffSimulation.isCutOff());
+		assertEquals(simulation.getMaxRevisit(), highCutoffSimulation.getMaxRevisit(), Parameters.threshold);
+	}
+
+	@Test
+	/**
+	 * For an orbit which does 14 revolutions per sidereal day, the repeat cycle has
+	 * to be found and the simulation of its first cycles has to give the same max
+	 * revisit as the whole simulation.
+	 */
+	void testGroundTrackRepeat() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 10 * 86400.);
+		Zone zone = createZone();
+
+		double siderealDay = 2 * Math.PI / Constants.WGS84_EARTH_ANGULAR_VELOCITY;
+		double period = siderealDay / 14;
+		double a = Math.cbrt(Constants.EGM96_EARTH_MU * Math.pow(period / (2 * Math.PI), 2));
+
+		Constellation constellation = new Constellation();
+		constellation.addSatellite(a, 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+		Constellation repeatConstellation = new Constellation();
+		repeatConstellation.addSatellite(a, 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+
+		Simulation simulation = new Simulation(constellation, t0, tf, zone);
+		Simulation repeatSimulation = new Simulation(repeatConstellation, t0, tf, zone);
+		repeatSimulation.setGroundTrackRepeat(true);
+
+		// Act
+		double repeatCycle = Simulation.computeRepeatCycle(repeatConstellation, 10 * 86400.);
+		double noRepeatCycle = Simulation.computeRepeatCycle(createConstellation(), 10 * 86400.);
+		simulation.propagateOrbits();
+		repeatSimulation.propagateOrbits();
+
+		// Assert
+		assertEquals(siderealDay, repeatCycle, 1e-6);
+		assertEquals(-1, noRepeatCycle);
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), repeatSimulation.getMaxRevisitPoint(meshPoint), 1.);
+		}
+	}
+
+	@Test
+	/**
+	 * The visibilities derived by symmetry from one satellite per orbit shape have
+	 * to give the same max revisit as the propagation of every satellite.
+	 */
+	void testSymmetricPropagation() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 3 * 86400.);
+		Zone zone = createZone();
+
+		Constellation constellation = createConstellation();
+		constellation.addSatellite(7157000., 0.001, 1.719, 1.2, 0., 1., Parameters.t0);
+		Constellation symmetricConstellation = createConstellation();
+		symmetricConstellation.addSatellite(7157000., 0.001, 1.719, 1.2, 0., 1., Parameters.t0);
+
+		Simulation simulation = new Simulation(constellation, t0, tf, zone);
+		simulation.setVisibilityEngine("time_stepped_sweep");
+		Simulation symmetricSimulation = new Simulation(symmetricConstellation, t0, tf, zone);
+		symmetricSimulation.setVisibilityEngine("time_stepped_sweep");
+		symmetricSimulation.setSymmetricPropagation(true);
+
+		// Act
+		simulation.propagateOrbits();
+		symmetricSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), symmetricSimulation.getMaxRevisitPoint(meshPoint),
+					1.);
+		}
+	}
+
+	@Test
+	/**
+	 * The second simulation of the same satellites has to read their events in the
+	 * cache and give the same max revisit.
+	 */
+	void testVisibilityCache() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		VisibilityCache cache = new VisibilityCache(100000);
+
+		Simulation firstSimulation = new Simulation(createConstellation(), t0, tf, createZone());
+		firstSimulation.setVisibilityCache(cache);
+		Simulation secondSimulation = new Simulation(createConstellation(), t0, tf, createZone());
+		secondSimulation.setVisibilityCache(cache);
+
+		// Act
+		firstSimulation.propagateOrbits();
+		secondSimulation.propagateOrbits();
+
+		// Assert
+		assertEquals(2, cache.getNbMisses());
+		assertEquals(2, cache.getNbHits());
+		assertEquals(2, cache.getNbSatellites());
+		assertEquals(firstSimulation.getMaxRevisit(), secondSimulation.getMaxRevisit());
+	}
+
+	@Test
+	/**
+	 * The simulations which share a batch context have to give the same max revisit
+	 * as a simulation which computes its own frames, with both engines.
+	 */
+	void testBatchContext() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		Zone zone = createZone();
+		BatchContext batchContext = new BatchContext(zone);
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation detectorSimulation = new Simulation(createConstellation(), t0, tf, batchContext);
+		Simulation sweepSimulation = new Simulation(createConstellation(), t0, tf, batchContext);
+		sweepSimulation.setVisibilityEngine("time_stepped_sweep");
+
+		// Act
+		simulation.propagateOrbits();
+		detectorSimulation.propagateOrbits();
+		sweepSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), detectorSimulation.getMaxRevisitPoint(meshPoint));
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), sweepSimulation.getMaxRevisitPoint(meshPoint),
+					1e-2);
+		}
+	}
+
+	@Test
+	/**
+	 * The latitude prefilter must not change the revisits, and a zone which can't
+	 * be seen has to be known as never observed without propagation.
+	 */
+	void testLatitudePrefilter() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 86400.);
+		Zone zone = createZone();
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		simulation.setLatitudePrefilter(false);
+		Simulation prefilteredSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		prefilteredSimulation.setLatitudePrefilter(true);
+
+		// equatorial satellite, which can't see Toulouse
+		Constellation equatorialConstellation = new Constellation();
+		equatorialConstellation.addSatellite(7157000., 0.001, 0.1, 0.5, 0., 0., Parameters.t0);
+		Simulation equatorialSimulation = new Simulation(equatorialConstellation, t0, tf, zone);
+		equatorialSimulation.setLatitudePrefilter(true);
+		equatorialSimulation.setRevisitCutoff(3600.);
+
+		// Act
+		simulation.propagateOrbits();
+		prefilteredSimulation.propagateOrbits();
+		equatorialSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), prefilteredSimulation.getMaxRevisitPoint(meshPoint));
+		}
+		assert equatorialSimulation.isCutOff();
+		assertEquals(Double.MAX_VALUE, equatorialSimulation.getMaxRevisit());
+	}
+
+	@Test
+	/**
+	 * A screening fidelity meshes the zone with its resolution, and its scaled
+	 * maxcheck has to give the same max revisit on this mesh.
+	 */
+	void testFidelityLevel() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 86400.);
+		Zone zone = createZone();
+		FidelityLevel fidelity = new FidelityLevel(Parameters.standardMeshResolution * 2, 86400., 2.);
+		Zone coarseZone = new Zone(zone.getInputPolygon(), fidelity.getMeshResolution());
+		BatchContext coarseContext = new BatchContext(new ZoneModel(coarseZone), fidelity);
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, coarseZone);
+		Simulation coarseSimulation = new Simulation(createConstellation(), t0, tf, coarseContext);
+
+		// Act
+		simulation.propagateOrbits();
+		coarseSimulation.propagateOrbits();
+
+		// Assert
+		assert coarseZone.getListMeshingPoints().size() < zone.getListMeshingPoints().size();
+		for (GeodeticPoint meshPoint : coarseZone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), coarseSimulation.getMaxRevisitPoint(meshPoint),
+					1e-2);
+		}
+	}
+
+	@Test
+	/**
+	 * With a hierarchical meshing, the sweep engine finds the points under the
+	 * footprint with the cell index of the zone : it has to give the same max
+	 * revisit as the elevation detectors.
+	 */
+	void testCellIndex() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 86400.);
+		String meshingStyle = Parameters.meshingStyle;
+		Parameters.meshingStyle = "hierarchical_equal_area_meshing";
+		Zone zone = createZone();
+		Parameters.meshingStyle = meshingStyle;
+
+		Simulation detectorSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		Simulation sweepSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		sweepSimulation.setVisibilityEngine("time_stepped_sweep");
+
+		// Act
+		detectorSimulation.propagateOrbits();
+		sweepSimulation.propagateOrbits();
+
+		// Assert
+		assert zone.getCellIndex() != null;
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			double detectorRevisit = detectorSimulation.getMaxRevisitPoint(meshPoint);
+			assertEquals(detectorRevisit, sweepSimulation.getMaxRevisitPoint(meshPoint), 1e-2);
+		}
+	}
+
+	@Test
+	/**
+	 * The rasterization of the footprints on the grid of the mesh has to give the
+	 * same max revisit as the sweep of the latitude band.
+	 */
+	void testRasterSweep() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		Zone zone = createZone();
+
+		Simulation sweepSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		sweepSimulation.setVisibilityEngine("time_stepped_sweep");
+		Simulation rasterSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		rasterSimulation.setVisibilityEngine("time_stepped_raster");
+
+		// Act
+		sweepSimulation.propagateOrbits();
+		rasterSimulation.propagateOrbits();
+
+		// Assert
+		assert zone.getGridRasterizer() != null;
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(sweepSimulation.getMaxRevisitPoint(meshPoint), rasterSimulation.getMaxRevisitPoint(meshPoint));
+		}
+	}
+
+	@Test
+	/**
+	 * The max revisits computed on the discretized coverage have to be lower
+	 * bounds within 2 time steps of the exact ones.
+	 */
+	void testBitsetCoverage() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 5 * 86400.);
+		Zone zone = createZone();
+		double timeStep = 30.;
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		simulation.setVisibilityEngine("time_stepped_sweep");
+		Simulation bitsetSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		bitsetSimulation.setVisibilityEngine("time_stepped_sweep");
+		bitsetSimulation.setBitsetCoverage(true);
+		bitsetSimulation.setCoverageTimeStep(timeStep);
+
+		// Act
+		simulation.propagateOrbits();
+		bitsetSimulation.propagateOrbits();
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			double exactRevisit = simulation.getMaxRevisitPoint(meshPoint);
+			double bitsetRevisit = bitsetSimulation.getMaxRevisitPoint(meshPoint);
+			System.out.println("exact: " + exactRevisit + " bitset: " + bitsetRevisit);
+			assert exactRevisit < Double.MAX_VALUE;
+			assert bitsetRevisit <= exactRevisit + 1e-9;
+			assert bitsetRevisit > exactRevisit - 2 * timeStep;
+		}
+		assert bitsetSimulation.getMaxRevisit() <= simulation.getMaxRevisit() + 1e-9;
+	}
+
+	@Test
+	/**
+	 * The sweep with the closed-form propagation of the satellites has to give the
+	 * same revisits as the sweep with the Orekit propagator, up to the frozen
+	 * precession and nutation.
+	 */
+	void testKeplerianKernelSweep() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		Zone zone = createZone();
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		simulation.setVisibilityEngine("time_stepped_sweep");
+		Simulation kernelSimulation = new Simulation(createConstellation(), t0, tf, zone);
+		kernelSimulation.setVisibilityEngine("time_stepped_sweep");
+
+		// Act
+		simulation.propagateOrbits();
+		Boolean keplerianKernel = Parameters.keplerianKernel;
+		Parameters.keplerianKernel = true;
+		kernelSimulation.propagateOrbits();
+		Parameters.keplerianKernel = keplerianKernel;
+
+		// Assert
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), kernelSimulation.getMaxRevisitPoint(meshPoint), 0.1);
+		}
+	}
+
+	@Test
+	/**
+	 * The sweep reading the sampled ephemerides of the satellites has to give the
+	 * same revisits as the sweep with the Orekit propagator.
+	 */
+	void testEphemerisCache() {
+
+		// Arrange
+		AbsoluteDate t0 = Parameters.t0;
+		AbsoluteDate tf = new AbsoluteDate(t0, 2 * 86400.);
+		Zone zone = createZone();
+
+		Simulation simulation = new Simulation(createConstellation(), t0, tf, zone);
+		simulation.setVisibilityEngine("time_stepped_sweep");
+		Constellation constellation = createConstellation();
+		Simulation ephemerisSimulation = new Simulation(constellation, t0, tf, zone);
+		ephemerisSimulation.setVisibilityEngine("time_stepped_sweep");
+		ephemerisSimulation.setEphemerisCache(true);
+
+		// Act
+		simulation.propagateOrbits();
+		ephemerisSimulation.propagateOrbits();
+
+		// Assert
+		for (Satellite sat : constellation.getSatellitesList()) {
+			assert sat.getEphemerisCache() != null;
+		}
+		for (GeodeticPoint meshPoint : zone.getListMeshingPoints()) {
+			assertEquals(simulation.getMaxRevisitPoint(meshPoint), ephemerisSimulation.getMaxRevisitPoint(meshPoint),
+					0.01);
+		}
+	}
+
+}
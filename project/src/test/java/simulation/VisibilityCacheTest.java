@@ -0,0 +1,93 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+
+import constellation.Satellite;
+import utils.Parameters;
+
+class VisibilityCacheTest {
+
+	/**
+	 * Create a buffer with the given number of events.
+	 */
+	private VisibilityEventBuffer createEvents(int nbEvents) {
+		VisibilityEventBuffer events = new VisibilityEventBuffer();
+		for (int i = 0; i < nbEvents; i++) {
+			events.visibilityEvent(0, i, i % 2 == 0);
+		}
+		return events;
+	}
+
+	@Test
+	/**
+	 * When the cache is full, the least recently used satellite has to be removed.
+	 */
+	void testEviction() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> listMeshingPoints = new ArrayList<GeodeticPoint>();
+		listMeshingPoints.add(new GeodeticPoint(0.7, 0.02, 0));
+		ZoneModel zoneModel = new ZoneModel(listMeshingPoints, false);
+		VisibilityCache cache = new VisibilityCache(10);
+		VisibilityCache.Key[] keys = new VisibilityCache.Key[3];
+		for (int i = 0; i < 3; i++) {
+			Satellite sat = new Satellite(7157000., 0.001, 1.719, 0.5, 0., i, Parameters.t0);
+			keys[i] = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV, "time_stepped_sweep",
+					1., false, zoneModel);
+		}
+
+		// Act
+		cache.put(keys[0], createEvents(4));
+		cache.put(keys[1], createEvents(4));
+		cache.get(keys[0]);
+		cache.put(keys[2], createEvents(4));
+
+		// Assert
+		assertNotNull(cache.get(keys[0]));
+		assertNull(cache.get(keys[1]));
+		assertNotNull(cache.get(keys[2]));
+		assertEquals(8, cache.getNbEvents());
+		assertEquals(3, cache.getNbHits());
+		assertEquals(1, cache.getNbMisses());
+	}
+
+	@Test
+	/**
+	 * Two models of the same mesh have to give the same key, contrary to models of
+	 * different meshes, and to other time step scales or propagation models.
+	 */
+	void testKeyZoneModel() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> listMeshingPoints = new ArrayList<GeodeticPoint>();
+		listMeshingPoints.add(new GeodeticPoint(0.7, 0.02, 0));
+		ArrayList<GeodeticPoint> otherMeshingPoints = new ArrayList<GeodeticPoint>(listMeshingPoints);
+		otherMeshingPoints.add(new GeodeticPoint(0.71, 0.02, 0));
+		Satellite sat = new Satellite(7157000., 0.001, 1.719, 0.5, 0., 0., Parameters.t0);
+
+		// Act
+		VisibilityCache.Key key = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV,
+				"time_stepped_sweep", 1., false, new ZoneModel(listMeshingPoints, false));
+		VisibilityCache.Key sameMesh = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV,
+				"time_stepped_sweep", 1., false, new ZoneModel(new ArrayList<GeodeticPoint>(listMeshingPoints), false));
+		VisibilityCache.Key otherScale = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV,
+				"time_stepped_sweep", 2., false, new ZoneModel(listMeshingPoints, false));
+		VisibilityCache.Key otherKernel = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV,
+				"time_stepped_sweep", 1., true, new ZoneModel(listMeshingPoints, false));
+		VisibilityCache.Key otherMesh = VisibilityCache.createKey(sat, Parameters.t0, 86400., Parameters.halfFOV,
+				"time_stepped_sweep", 1., false, new ZoneModel(otherMeshingPoints, false));
+
+		// Assert
+		assertEquals(key, sameMesh);
+		assertEquals(key.hashCode(), sameMesh.hashCode());
+		assertNotEquals(key, otherMesh);
+		assertNotEquals(key, otherScale);
+		assertNotEquals(key, otherKernel);
+	}
+
+}
@@ -0,0 +1,69 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class VisibilityEventBufferTest {
+
+	@Test
+	/**
+	 * The events have to be sorted by date, an end being before a beginning at the
+	 * same date.
+	 */
+	void testSortChronologically() {
+
+		// Arrange
+		VisibilityEventBuffer buffer = new VisibilityEventBuffer();
+		for (int i = 0; i < 100; i++) {
+			buffer.visibilityEvent(i, (37 * i) % 100, true);
+		}
+		buffer.visibilityEvent(100, 50, false);
+
+		// Act
+		buffer.sortChronologically();
+
+		// Assert
+		assertEquals(101, buffer.size());
+		for (int i = 1; i < buffer.size(); i++) {
+			assert buffer.getTime(i - 1) <= buffer.getTime(i);
+		}
+		int index = buffer.countUntil(49.5);
+		assertEquals(50, index);
+		assertEquals(100, buffer.getPointIndex(index));
+		assertFalse(buffer.isRising(index));
+	}
+
+	@Test
+	/**
+	 * The merged events of several buffers have to update the accumulator as the
+	 * rules of the revisit say.
+	 */
+	void testAddTo() {
+
+		// Arrange
+		VisibilityEventBuffer firstSatellite = new VisibilityEventBuffer();
+		firstSatellite.visibilityEvent(0, 10, true);
+		firstSatellite.visibilityEvent(0, 20, false);
+		firstSatellite.visibilityEvent(0, 70, true);
+		firstSatellite.visibilityEvent(0, 80, false);
+		VisibilityEventBuffer secondSatellite = new VisibilityEventBuffer();
+		secondSatellite.visibilityEvent(0, 15, true);
+		secondSatellite.visibilityEvent(0, 30, false);
+
+		VisibilityEventBuffer buffer = new VisibilityEventBuffer();
+		RevisitAccumulator accumulator = new RevisitAccumulator(1, 100);
+
+		// Act
+		buffer.addAll(firstSatellite);
+		buffer.addAll(secondSatellite);
+		buffer.sortChronologically();
+		buffer.addTo(accumulator, buffer.countUntil(50));
+		buffer.removeFirst(buffer.countUntil(50));
+		buffer.addTo(accumulator, buffer.size());
+
+		// Assert
+		assertEquals(40, accumulator.getMaxRevisitPoint(0), 1e-9);
+	}
+
+}
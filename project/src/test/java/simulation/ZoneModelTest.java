@@ -0,0 +1,49 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
+
+import utils.Parameters;
+import zone.Zone;
+
+class ZoneModelTest {
+
+	@Test
+	/**
+	 * The model has to contain the geometry and the frame of every mesh point, and
+	 * the points sorted by latitude.
+	 */
+	void testZoneModel() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.3), Math.toRadians(1.2), 150));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.9), Math.toRadians(1.8), 150));
+		Zone zone = new Zone(inputPolygon);
+
+		// Act
+		ZoneModel zoneModel = new ZoneModel(zone);
+		ZoneModel geometryModel = new ZoneModel(zone.getListMeshingPoints(), false);
+
+		// Assert
+		assertEquals(zone.getListMeshingPoints().size(), zoneModel.getNbPoints());
+		for (int pointIndex = 0; pointIndex < zoneModel.getNbPoints(); pointIndex++) {
+			GeodeticPoint meshPoint = zone.getListMeshingPoints().get(pointIndex);
+			Vector3D position = Parameters.earth.transform(meshPoint);
+			assertEquals(pointIndex, zoneModel.getPointIndices().get(meshPoint));
+			assertEquals(position.getX(), zoneModel.getPointX()[pointIndex]);
+			assertEquals(meshPoint.getZenith().getZ(), zoneModel.getZenithZ()[pointIndex]);
+			assertEquals(meshPoint, zoneModel.getStationFrame(pointIndex).getPoint());
+			assertNull(geometryModel.getStationFrame(pointIndex));
+		}
+		for (int k = 1; k < zoneModel.getNbPoints(); k++) {
+			assert zoneModel.getSortedLatitudes()[k - 1] <= zoneModel.getSortedLatitudes()[k];
+		}
+	}
+
+}
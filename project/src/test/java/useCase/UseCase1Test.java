@@ -2,7 +2,10 @@ package useCase;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+
 import org.junit.jupiter.api.Test;
+import org.orekit.bodies.GeodeticPoint;
 
 import decisionVector.DecisionVariable;
 import utils.Parameters;
@@ -11,6 +14,19 @@ import useCase.UseCase1;
 
 class UseCase1Test {
 
+	/**
+	 * Create a variable fixed to a value, as read from a JSON whose min and max
+	 * are equal (the constructor asserts min < max, so the domain is overridden).
+	 */
+	private DecisionVariable<Double> createFixedVariable(String name, double value) {
+		return new DecisionVariable<Double>(Double.class, name, value, value + 1) {
+			@Override
+			public Double getMax() {
+				return value;
+			}
+		};
+	}
+
 	@Test
 	/**
 	 * The following test is about the function modifyVariablesList.
@@ -71,4 +87,112 @@ class UseCase1Test {
 		assert(counterAnomaly.equals(nbSatMax-1));
 	}
 
+	@Test
+	/**
+	 * The tightened boundaries have to stay in the input ones, and the perigee at
+	 * the maximum semi-major axis and eccentricity has to be above the minimum
+	 * altitude.
+	 */
+	void testTightenOptimisationBoundariesVariables() {
+
+		// Arrange
+		UseCase1 useCase1 = new UseCase1();
+		useCase1.loadParams(Parameters.inputPath + "1.json");
+		ArrayList<DecisionVariable> inputVariables = new ArrayList<DecisionVariable>(useCase1.variablesList);
+
+		// Act
+		useCase1.tightenOptimisationBoundariesVariables();
+
+		// Assert
+		Double maxSemiMajorAxis = null;
+		Double maxEccentricity = null;
+		for (int k = 0; k < inputVariables.size(); k++) {
+			DecisionVariable inputVariable = inputVariables.get(k);
+			DecisionVariable variable = useCase1.variablesList.get(k);
+			assertEquals(inputVariable.getName(), variable.getName());
+			if (variable.isDouble()) {
+				assert (Double) variable.getMin() >= (Double) inputVariable.getMin();
+				assert (Double) variable.getMax() <= (Double) inputVariable.getMax();
+			}
+			if (variable.getName().equals("a"))
+				maxSemiMajorAxis = (Double) variable.getMax();
+			if (variable.getName().equals("eccentricity")) {
+				maxEccentricity = (Double) variable.getMax();
+				assert maxEccentricity < (Double) inputVariable.getMax();
+			}
+		}
+		double perigee = maxSemiMajorAxis * (1 - maxEccentricity);
+		assertEquals(Parameters.projectEarthEquatorialRadius + Parameters.minPerigeeAltitude, perigee, 1e-3);
+	}
+
+	@Test
+	/**
+	 * If even the maximum semi-major axis can't see the zone, the boundaries have
+	 * to be kept instead of being tightened to the maximum semi-major axis.
+	 */
+	void testTightenUnreachableBoundaries() {
+
+		// Arrange
+		UseCase1 useCase1 = new UseCase1();
+		useCase1.loadParams(Parameters.inputPath + "1.json");
+		useCase1.inputPolygon = new ArrayList<GeodeticPoint>();
+		useCase1.inputPolygon.add(new GeodeticPoint(0.8, 0., 150));
+		useCase1.inputPolygon.add(new GeodeticPoint(0.81, 0.01, 150));
+		for (int k = 0; k < useCase1.variablesList.size(); k++) {
+			String name = useCase1.variablesList.get(k).getName();
+			if (name.equals("inclination"))
+				useCase1.variablesList.set(k, new DecisionVariable<Double>(Double.class, name, -0.01, 0.01));
+			if (name.equals("a"))
+				useCase1.variablesList.set(k, new DecisionVariable<Double>(Double.class, name, 6.5e6, 7.5e6));
+		}
+		ArrayList<DecisionVariable> inputVariables = new ArrayList<DecisionVariable>(useCase1.variablesList);
+
+		// Act
+		useCase1.tightenOptimisationBoundariesVariables();
+
+		// Assert
+		for (int k = 0; k < inputVariables.size(); k++) {
+			assertSame(inputVariables.get(k), useCase1.variablesList.get(k));
+		}
+	}
+
+	@Test
+	/**
+	 * A variable fixed by the input (same min and max) is not an infeasible
+	 * interval : it is kept, and the other variables are still tightened.
+	 */
+	void testTightenFixedVariables() {
+
+		// Arrange
+		UseCase1 useCase1 = new UseCase1();
+		useCase1.loadParams(Parameters.inputPath + "1.json");
+		useCase1.inputPolygon = new ArrayList<GeodeticPoint>();
+		useCase1.inputPolygon.add(new GeodeticPoint(0.8, 0., 150));
+		useCase1.inputPolygon.add(new GeodeticPoint(0.81, 0.01, 150));
+		int inclinationIndex = -1;
+		for (int k = 0; k < useCase1.variablesList.size(); k++) {
+			String name = useCase1.variablesList.get(k).getName();
+			if (name.equals("eccentricity"))
+				useCase1.variablesList.set(k, createFixedVariable(name, 0.001));
+			if (name.equals("a"))
+				useCase1.variablesList.set(k, createFixedVariable(name, 1e7));
+			if (name.equals("inclination"))
+				inclinationIndex = k;
+		}
+		ArrayList<DecisionVariable> inputVariables = new ArrayList<DecisionVariable>(useCase1.variablesList);
+
+		// Act
+		useCase1.tightenOptimisationBoundariesVariables();
+
+		// Assert
+		for (int k = 0; k < inputVariables.size(); k++) {
+			String name = inputVariables.get(k).getName();
+			if (name.equals("eccentricity") || name.equals("a"))
+				assertSame(inputVariables.get(k), useCase1.variablesList.get(k));
+		}
+		DecisionVariable inclination = useCase1.variablesList.get(inclinationIndex);
+		assertNotSame(inputVariables.get(inclinationIndex), inclination);
+		assert (Double) inclination.getMin() > (Double) inputVariables.get(inclinationIndex).getMin();
+	}
+
 }
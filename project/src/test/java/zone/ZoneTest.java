@@ -3,6 +3,7 @@ package zone;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 import org.orekit.bodies.GeodeticPoint;
@@ -93,4 +94,251 @@ class ZoneTest {
 
 	}
 
+	@Test
+	/**
+	 * The clipped meshing keeps the points of the standard meshing which are inside
+	 * the polygon, here a triangle.
+	 */
+	void testComputePolygonClippedMeshing() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.), Math.toRadians(0.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(43.), Math.toRadians(2.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(45.), Math.toRadians(0.), 0));
+		String meshingStyle = Parameters.meshingStyle;
+
+		// Act
+		Parameters.meshingStyle = "lat_lon_standard_meshing";
+		Zone standardZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = "polygon_clipped_meshing";
+		Zone clippedZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = meshingStyle;
+
+		// Assert
+		ArrayList<GeodeticPoint> listClippedPoints = clippedZone.getListMeshingPoints();
+		int nbStandardPoints = standardZone.getListMeshingPoints().size();
+		System.out.println("standard: " + nbStandardPoints + " clipped: " + listClippedPoints.size());
+		assert listClippedPoints.size() < 0.6 * nbStandardPoints;
+		assert listClippedPoints.size() > 0.4 * nbStandardPoints;
+		for (GeodeticPoint point : listClippedPoints) {
+			assert standardZone.getListMeshingPoints().contains(point);
+			assert point.getLatitude() - Math.toRadians(43.) + point.getLongitude() <= Math.toRadians(2.) + 1e-9;
+		}
+		// the vertices are on the border, which is meshed
+		assert listClippedPoints.contains(standardZone.getListMeshingPoints().get(0));
+	}
+
+	@Test
+	/**
+	 * The equal area meshing spaces the longitudes by the cosine of the latitude.
+	 */
+	void testComputeEqualAreaMeshing() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(60.), Math.toRadians(10.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(60.), Math.toRadians(20.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(62.), Math.toRadians(20.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(62.), Math.toRadians(10.), 0));
+		String meshingStyle = Parameters.meshingStyle;
+
+		// Act
+		Parameters.meshingStyle = "polygon_clipped_meshing";
+		Zone clippedZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = "equal_area_meshing";
+		Zone equalAreaZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = meshingStyle;
+
+		// Assert
+		int nbClippedPoints = clippedZone.getListMeshingPoints().size();
+		int nbEqualAreaPoints = equalAreaZone.getListMeshingPoints().size();
+		System.out.println("clipped: " + nbClippedPoints + " equal area: " + nbEqualAreaPoints);
+		assert nbEqualAreaPoints < 0.55 * nbClippedPoints;
+		assert nbEqualAreaPoints > 0.45 * nbClippedPoints;
+	}
+
+	@Test
+	/**
+	 * The edge index has to handle a concave polygon, and contain every point when
+	 * the polygon is a bounding box given by 2 points.
+	 */
+	void testPolygonEdgeIndex() {
+
+		// Arrange : a L shaped polygon (radian)
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(0.0, 0.0, 0));
+		inputPolygon.add(new GeodeticPoint(0.0, 0.2, 0));
+		inputPolygon.add(new GeodeticPoint(0.1, 0.2, 0));
+		inputPolygon.add(new GeodeticPoint(0.1, 0.1, 0));
+		inputPolygon.add(new GeodeticPoint(0.2, 0.1, 0));
+		inputPolygon.add(new GeodeticPoint(0.2, 0.0, 0));
+		ArrayList<GeodeticPoint> boundingBox = new ArrayList<GeodeticPoint>();
+		boundingBox.add(new GeodeticPoint(0.0, 0.0, 0));
+		boundingBox.add(new GeodeticPoint(0.2, 0.2, 0));
+
+		// Act
+		PolygonEdgeIndex edgeIndex = new PolygonEdgeIndex(inputPolygon);
+		PolygonEdgeIndex boxIndex = new PolygonEdgeIndex(boundingBox);
+
+		// Assert
+		assert edgeIndex.contains(0.05, 0.05);
+		assert edgeIndex.contains(0.05, 0.15);
+		assert edgeIndex.contains(0.15, 0.05);
+		assert !edgeIndex.contains(0.15, 0.15);
+		assert !edgeIndex.contains(-0.05, 0.05);
+		assert !edgeIndex.contains(0.05, 0.25);
+		assert edgeIndex.contains(0.1, 0.15);
+		assert edgeIndex.contains(0.2, 0.0);
+		assert boxIndex.contains(0.15, 0.15);
+	}
+
+	@Test
+	/**
+	 * The hierarchical meshing keeps the centers of the cells inside the polygon,
+	 * with about one point per square of the standard resolution.
+	 */
+	void testComputeHierarchicalMeshing() {
+
+		// Arrange
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(60.), Math.toRadians(10.), 0));
+		inputPolygon.add(new GeodeticPoint(Math.toRadians(62.), Math.toRadians(20.), 0));
+		String meshingStyle = Parameters.meshingStyle;
+
+		// Act
+		Parameters.meshingStyle = "equal_area_meshing";
+		Zone equalAreaZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = "hierarchical_equal_area_meshing";
+		Zone hierarchicalZone = new Zone(inputPolygon);
+		Parameters.meshingStyle = meshingStyle;
+
+		// Assert
+		ArrayList<GeodeticPoint> listPoints = hierarchicalZone.getListMeshingPoints();
+		HierarchicalCellIndex cellIndex = hierarchicalZone.getCellIndex();
+		int nbEqualAreaPoints = equalAreaZone.getListMeshingPoints().size();
+		System.out.println("equal area: " + nbEqualAreaPoints + " hierarchical: " + listPoints.size());
+		assert listPoints.size() > 0.5 * nbEqualAreaPoints;
+		assert listPoints.size() < 2 * nbEqualAreaPoints;
+		assertEquals(listPoints.size(), cellIndex.getNbPoints());
+		for (int pointIndex = 0; pointIndex < listPoints.size(); pointIndex++) {
+			GeodeticPoint point = listPoints.get(pointIndex);
+			assert point.getLatitude() >= Math.toRadians(60.) && point.getLatitude() <= Math.toRadians(62.);
+			double[] center = HierarchicalCellIndex.getCellCenter(cellIndex.getCellId(pointIndex));
+			assertEquals(center[0], point.getLatitude(), 1e-12);
+			assertEquals(center[1], point.getLongitude(), 1e-12);
+		}
+	}
+
+	@Test
+	/**
+	 * The queries of the cell index have to find the same points as a full scan,
+	 * and the parents and children of the cells have to be consistent.
+	 */
+	void testHierarchicalCellIndex() {
+
+		// Arrange : random points over the whole sphere
+		Random random = new Random(42);
+		ArrayList<GeodeticPoint> listPoints = new ArrayList<GeodeticPoint>();
+		for (int k = 0; k < 5000; k++) {
+			listPoints.add(new GeodeticPoint(Math.asin(2 * random.nextDouble() - 1),
+					Math.PI * (2 * random.nextDouble() - 1), 0));
+		}
+		HierarchicalCellIndex cellIndex = new HierarchicalCellIndex(listPoints, 8);
+		int[] result = new int[listPoints.size()];
+
+		for (int query = 0; query < 20; query++) {
+			double latitude = Math.asin(2 * random.nextDouble() - 1);
+			double longitude = Math.PI * (2 * random.nextDouble() - 1);
+			double radius = 0.5 * random.nextDouble();
+
+			// Act
+			int nbFound = cellIndex.findPointsInCap(latitude, longitude, radius, result);
+			int nbInStrip = cellIndex.findPointsInStrip(latitude - radius, latitude + radius,
+					new int[listPoints.size()]);
+
+			// Assert
+			int nbExpected = 0;
+			int nbExpectedInStrip = 0;
+			for (GeodeticPoint point : listPoints) {
+				double cosAngle = Math.sin(latitude) * Math.sin(point.getLatitude()) + Math.cos(latitude)
+						* Math.cos(point.getLatitude()) * Math.cos(point.getLongitude() - longitude);
+				if (cosAngle >= Math.cos(radius))
+					nbExpected++;
+				if (Math.abs(point.getLatitude() - latitude) <= radius)
+					nbExpectedInStrip++;
+			}
+			assertEquals(nbExpected, nbFound);
+			assertEquals(nbExpectedInStrip, nbInStrip);
+			for (int k = 0; k < nbFound; k++) {
+				GeodeticPoint point = listPoints.get(result[k]);
+				double cosAngle = Math.sin(latitude) * Math.sin(point.getLatitude()) + Math.cos(latitude)
+						* Math.cos(point.getLatitude()) * Math.cos(point.getLongitude() - longitude);
+				assert cosAngle >= Math.cos(radius) - 1e-12;
+			}
+		}
+
+		long cellId = cellIndex.getCellId(0);
+		long parent = HierarchicalCellIndex.getParent(cellId);
+		assertEquals(7, HierarchicalCellIndex.getLevel(parent));
+		boolean isChild = false;
+		int nbChildrenPoints = 0;
+		for (long child : HierarchicalCellIndex.getChildren(parent)) {
+			isChild |= child == cellId;
+			assertEquals(parent, HierarchicalCellIndex.getParent(child));
+			nbChildrenPoints += cellIndex.getPointsInCell(child).length;
+		}
+		assert isChild;
+		assertEquals(cellIndex.getPointsInCell(parent).length, nbChildrenPoints);
+	}
+
+	@Test
+	/**
+	 * The rasterization of a footprint has to find the same grid points as a full
+	 * scan, including across the antimeridian, and the standard meshing has to
+	 * carry the rasterizer of its grid.
+	 */
+	void testGridFootprintRasterizer() {
+
+		// Arrange : a grid around the world between -60 and 57 degrees of latitude
+		double step = 0.02;
+		GridFootprintRasterizer rasterizer = new GridFootprintRasterizer(-1.05, -Math.PI, step, 100, 314);
+		int[] ranges = new int[rasterizer.getRangesLength()];
+		int[] result = new int[100 * 314];
+		Random random = new Random(7);
+
+		for (int query = 0; query < 20; query++) {
+			double latitude = 2 * random.nextDouble() - 1;
+			double longitude = Math.PI * (2 * random.nextDouble() - 1);
+			double radius = 0.4 * random.nextDouble();
+
+			// Act
+			int nbFound = rasterizer.findPoints(latitude, longitude, radius, ranges, result);
+
+			// Assert
+			boolean[] found = new boolean[result.length];
+			for (int k = 0; k < nbFound; k++) {
+				assert !found[result[k]];
+				found[result[k]] = true;
+			}
+			for (int row = 0; row < 100; row++) {
+				for (int col = 0; col < 314; col++) {
+					double pointLat = -1.05 + row * step;
+					double pointLon = -Math.PI + col * step;
+					double cosAngle = Math.sin(latitude) * Math.sin(pointLat)
+							+ Math.cos(latitude) * Math.cos(pointLat) * Math.cos(pointLon - longitude);
+					if (Math.abs(cosAngle - Math.cos(radius)) > 1e-9)
+						assertEquals(cosAngle > Math.cos(radius), found[row * 314 + col]);
+				}
+			}
+		}
+
+		ArrayList<GeodeticPoint> inputPolygon = new ArrayList<GeodeticPoint>();
+		inputPolygon.add(new GeodeticPoint(0.7, 0.1, 0));
+		inputPolygon.add(new GeodeticPoint(0.8, 0.2, 0));
+		Zone zone = new Zone(inputPolygon);
+		GridFootprintRasterizer zoneRasterizer = zone.getGridRasterizer();
+		assertEquals(zone.getListMeshingPoints().size(), zoneRasterizer.getNbRows() * zoneRasterizer.getNbCols());
+	}
+
 }